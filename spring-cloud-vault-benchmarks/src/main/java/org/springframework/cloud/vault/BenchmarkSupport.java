@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import org.springframework.cloud.vault.util.EmbeddedVaultServer;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Utility methods to set up benchmarks against an {@link EmbeddedVaultServer}.
+ *
+ * @author Mark Paluch
+ */
+public class BenchmarkSupport {
+
+	/**
+	 * Create and start an {@link EmbeddedVaultServer} that generates
+	 * {@code propertyCount} properties for each read from the {@code secret} backend.
+	 *
+	 * @param propertyCount number of properties per secret.
+	 * @return the started {@link EmbeddedVaultServer}.
+	 */
+	public static EmbeddedVaultServer startServer(int propertyCount) {
+
+		EmbeddedVaultServer server = new EmbeddedVaultServer();
+		server.setGeneratedProperties(propertyCount);
+		server.start();
+
+		return server;
+	}
+
+	/**
+	 * Create a {@link VaultClient} using the {@link ClientHttpRequestFactoryFactory} and
+	 * the streaming {@link VaultResponse} decoder as configured during bootstrap.
+	 *
+	 * @param properties must not be {@literal null}.
+	 * @return the {@link VaultClient}.
+	 */
+	public static VaultClient createClient(VaultProperties properties) {
+
+		RestTemplate restTemplate = new RestTemplate(
+				ClientHttpRequestFactoryFactory.create(properties));
+		restTemplate.getMessageConverters().add(0,
+				new VaultResponseHttpMessageConverter());
+
+		return new VaultClient(restTemplate);
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.codec.Hex;
+
+/**
+ * Benchmarks for {@link Sha256} compared to a {@link MessageDigest} obtained per call
+ * hashing encoded {@code byte[]}s. Run with {@code -prof gc} to report the allocation
+ * rate per operation.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class Sha256Benchmarks {
+
+	@Param({ "10", "1000" })
+	private int propertyCount;
+
+	private Map<String, String> data;
+
+	@Setup
+	public void setUp() {
+
+		data = new HashMap<>();
+		for (int i = 0; i < propertyCount; i++) {
+			data.put("spring.datasource.key" + i, "value-" + i);
+		}
+	}
+
+	@Benchmark
+	public String string() {
+		return Sha256.toSha256("0AFEDE1234AC");
+	}
+
+	@Benchmark
+	public String stringPerCallDigest() throws NoSuchAlgorithmException {
+
+		MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+		return new String(Hex.encode(messageDigest.digest("0AFEDE1234AC"
+				.getBytes(StandardCharsets.US_ASCII))));
+	}
+
+	@Benchmark
+	public char[] map() {
+		return Sha256.hasher().putMap(data).toHex();
+	}
+
+	@Benchmark
+	public String mapPerCallDigest() throws NoSuchAlgorithmException {
+
+		MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+
+		for (Map.Entry<String, String> entry : new TreeMap<>(data).entrySet()) {
+			update(messageDigest, entry.getKey());
+			update(messageDigest, entry.getValue());
+		}
+
+		return new String(Hex.encode(messageDigest.digest()));
+	}
+
+	private static void update(MessageDigest messageDigest, String value) {
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		int length = bytes.length;
+
+		messageDigest.update((byte) (length >>> 24));
+		messageDigest.update((byte) (length >>> 16));
+		messageDigest.update((byte) (length >>> 8));
+		messageDigest.update((byte) length);
+		messageDigest.update(bytes);
+	}
+}
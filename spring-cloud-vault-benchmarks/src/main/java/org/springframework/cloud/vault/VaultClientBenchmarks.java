@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.vault.util.EmbeddedVaultServer;
+
+/**
+ * Benchmarks for {@link VaultClient}.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VaultClientBenchmarks {
+
+	private EmbeddedVaultServer server;
+	private VaultProperties properties;
+	private VaultClient client;
+	private VaultToken token;
+	private URI secretUri;
+	private Map<String, String> variables;
+
+	@Setup
+	public void setUp() {
+
+		server = BenchmarkSupport.startServer(20);
+
+		properties = server.createVaultProperties();
+		client = BenchmarkSupport.createClient(properties);
+		token = VaultToken.of(properties.getToken());
+		secretUri = VaultClient.buildUri(properties, "secret/application");
+
+		variables = new HashMap<>();
+		variables.put("backend", "secret");
+		variables.put("key", "application");
+	}
+
+	@TearDown
+	public void tearDown() {
+		server.stop();
+	}
+
+	@Benchmark
+	public URI buildUri() {
+		return VaultClient.buildUri(properties, "secret/application");
+	}
+
+	@Benchmark
+	public URI expandUri() {
+		return client.buildUri(properties, "{backend}/{key}", variables);
+	}
+
+	@Benchmark
+	public VaultClientResponse read() {
+		return client.read(secretUri, token);
+	}
+}
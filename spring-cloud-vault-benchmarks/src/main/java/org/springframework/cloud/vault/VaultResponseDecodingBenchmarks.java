@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmarks decoding {@link VaultResponse} bodies with data binding compared to the
+ * streaming {@link VaultResponseHttpMessageConverter}. Run with {@code -prof gc} to
+ * report the allocation rate per operation.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VaultResponseDecodingBenchmarks {
+
+	@Param({ "10", "1000" })
+	private int propertyCount;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final JsonFactory jsonFactory = new ObjectMapper().getFactory();
+
+	private byte[] body;
+	private String error;
+
+	@Setup
+	public void setUp() throws IOException {
+
+		Map<String, Object> data = new LinkedHashMap<>();
+		for (int i = 0; i < propertyCount; i++) {
+			data.put("spring.datasource.key" + i, "value-" + i);
+		}
+
+		Map<String, Object> response = new LinkedHashMap<>();
+		response.put("lease_id", "");
+		response.put("lease_duration", 2764800);
+		response.put("renewable", false);
+		response.put("data", data);
+		response.put("auth", null);
+
+		body = objectMapper.writeValueAsBytes(response);
+		error = "{\"errors\":[\"permission denied\"]}";
+	}
+
+	@Benchmark
+	public VaultResponse dataBinding() throws IOException {
+		return objectMapper.readValue(body, VaultResponse.class);
+	}
+
+	@Benchmark
+	public VaultResponse streaming() throws IOException {
+
+		try (JsonParser parser = jsonFactory.createParser(body)) {
+			return VaultResponseHttpMessageConverter.read(parser);
+		}
+	}
+
+	@Benchmark
+	public String errorDataBinding() throws IOException {
+		return (String) ((Iterable<?>) objectMapper.readValue(error, Map.class).get(
+				"errors")).iterator().next();
+	}
+
+	@Benchmark
+	public String errorStreaming() throws IOException {
+		return VaultErrorMessage.getError(error);
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks comparing {@link ImmutablePropertyMap} with an unmodifiable
+ * {@link LinkedHashMap} as backing store of {@link VaultPropertySource}, e.g. for large
+ * generic secrets. Run with {@code -prof gc} to report the allocation rate per
+ * operation.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ImmutablePropertyMapBenchmarks {
+
+	@Param({ "100", "10000" })
+	private int propertyCount;
+
+	private Map<String, String> source;
+	private Map<String, String> linkedHashMap;
+	private ImmutablePropertyMap immutablePropertyMap;
+	private String existingKey;
+
+	@Setup
+	public void setUp() {
+
+		source = new LinkedHashMap<>();
+		for (int i = 0; i < propertyCount; i++) {
+			source.put("spring.datasource.key" + i, "value" + i);
+		}
+
+		// distinct instance so lookups do not short-circuit on identity
+		existingKey = new String("spring.datasource.key" + (propertyCount / 2));
+
+		linkedHashMap = Collections.unmodifiableMap(new LinkedHashMap<>(source));
+		immutablePropertyMap = ImmutablePropertyMap.of(source);
+	}
+
+	@Benchmark
+	public Object linkedHashMapGet() {
+		return linkedHashMap.get(existingKey);
+	}
+
+	@Benchmark
+	public Object immutablePropertyMapGet() {
+		return immutablePropertyMap.get(existingKey);
+	}
+
+	@Benchmark
+	public Object linkedHashMapGetAbsent() {
+		return linkedHashMap.get("spring.datasource.absent");
+	}
+
+	@Benchmark
+	public Object immutablePropertyMapGetAbsent() {
+		return immutablePropertyMap.get("spring.datasource.absent");
+	}
+
+	@Benchmark
+	public String[] linkedHashMapNames() {
+		Set<String> names = linkedHashMap.keySet();
+		return names.toArray(new String[names.size()]);
+	}
+
+	@Benchmark
+	public String[] immutablePropertyMapNames() {
+		return immutablePropertyMap.getNames();
+	}
+
+	@Benchmark
+	public Map<String, String> linkedHashMapBuild() {
+		return Collections.unmodifiableMap(new LinkedHashMap<>(source));
+	}
+
+	@Benchmark
+	public Map<String, String> immutablePropertyMapBuild() {
+		return ImmutablePropertyMap.of(source);
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.vault.VaultProperties;
+
+/**
+ * Benchmarks for {@link VaultPropertySource} property lookups.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VaultPropertySourceBenchmarks {
+
+	@Param({ "10", "1000", "10000" })
+	private int propertyCount;
+
+	private VaultPropertySource propertySource;
+	private String existingKey;
+
+	@Setup
+	public void setUp() {
+
+		final Map<String, String> data = new LinkedHashMap<>();
+		for (int i = 0; i < propertyCount; i++) {
+			data.put("spring.datasource.key" + i, "value" + i);
+		}
+
+		existingKey = "spring.datasource.key" + (propertyCount / 2);
+
+		VaultConfigOperations operations = new VaultConfigOperations() {
+
+			@Override
+			public Map<String, String> read(SecureBackendAccessor secureBackendAccessor) {
+				return data;
+			}
+		};
+
+		propertySource = new VaultPropertySource(operations, new VaultProperties(),
+				SecureBackendAccessors.generic("secret", "application"));
+		propertySource.init();
+	}
+
+	@Benchmark
+	public Object getExistingProperty() {
+		return propertySource.getProperty(existingKey);
+	}
+
+	@Benchmark
+	public Object getAbsentProperty() {
+		return propertySource.getProperty("spring.datasource.absent");
+	}
+
+	@Benchmark
+	public boolean containsProperty() {
+		return propertySource.containsProperty(existingKey);
+	}
+
+	@Benchmark
+	public String[] getPropertyNames() {
+		return propertySource.getPropertyNames();
+	}
+}
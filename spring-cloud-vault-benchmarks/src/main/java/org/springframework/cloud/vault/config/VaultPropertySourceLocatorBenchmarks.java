@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.vault.ClientAuthentication;
+import org.springframework.cloud.vault.BenchmarkSupport;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.util.EmbeddedVaultServer;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+/**
+ * Benchmarks for a full {@link VaultPropertySourceLocator#locate} bootstrap against a
+ * {@link EmbeddedVaultServer}.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VaultPropertySourceLocatorBenchmarks {
+
+	@Param({ "false", "true" })
+	private boolean concurrent;
+
+	private EmbeddedVaultServer server;
+	private VaultTemplate vaultTemplate;
+	private VaultPropertySourceLocator locator;
+	private StandardEnvironment environment;
+
+	@Setup
+	public void setUp() {
+
+		server = BenchmarkSupport.startServer(20);
+
+		VaultProperties properties = server.createVaultProperties();
+		properties.getBootstrap().setConcurrent(concurrent);
+
+		vaultTemplate = new VaultTemplate(properties,
+				BenchmarkSupport.createClient(properties),
+				ClientAuthentication.token(properties));
+		vaultTemplate.afterPropertiesSet();
+
+		VaultGenericBackendProperties genericBackendProperties = new VaultGenericBackendProperties();
+		genericBackendProperties.setApplicationName("benchmark");
+
+		locator = new VaultPropertySourceLocator(vaultTemplate.opsForConfig(),
+				properties, genericBackendProperties,
+				Collections.<SecureBackendAccessor> emptyList());
+
+		environment = new StandardEnvironment();
+		environment.setActiveProfiles("cloud", "local");
+	}
+
+	@TearDown
+	public void tearDown() {
+
+		vaultTemplate.destroy();
+		server.stop();
+	}
+
+	@Benchmark
+	public PropertySource<?> locate() {
+		return locator.locate(environment);
+	}
+}
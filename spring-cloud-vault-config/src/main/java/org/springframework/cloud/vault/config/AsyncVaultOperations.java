@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import org.springframework.cloud.vault.VaultClientResponse;
+import org.springframework.cloud.vault.VaultToken;
+import org.springframework.util.concurrent.ListenableFuture;
+
+/**
+ * Interface that specifies a basic set of asynchronous Vault operations, implemented by
+ * {@link AsyncVaultTemplate}. Operations return immediately with a
+ * {@link ListenableFuture} completed once Vault responds.
+ *
+ * @author Mark Paluch
+ */
+public interface AsyncVaultOperations {
+
+	/**
+	 * Read data from a Vault {@code path} in the authenticated session.
+	 *
+	 * @param path the path of the resource, e.g. {@code secret/my-application}, must not
+	 * be empty or {@literal null}.
+	 * @return a {@link ListenableFuture} completed with the {@link VaultClientResponse}.
+	 */
+	ListenableFuture<VaultClientResponse> read(String path);
+
+	/**
+	 * Write data to a Vault {@code path} in the authenticated session.
+	 *
+	 * @param path the path of the resource, e.g. {@code transit/encrypt/foo}, must not
+	 * be empty or {@literal null}.
+	 * @param entity must not be {@literal null}.
+	 * @return a {@link ListenableFuture} completed with the {@link VaultClientResponse}.
+	 */
+	ListenableFuture<VaultClientResponse> write(String path, Object entity);
+
+	/**
+	 * Log into Vault using a login {@code path} without replacing the session token.
+	 *
+	 * @param path the path of the login resource, e.g. {@code auth/app-id/login}, must
+	 * not be empty or {@literal null}.
+	 * @param entity the login request body, must not be {@literal null}.
+	 * @return a {@link ListenableFuture} completed with the {@link VaultToken}.
+	 */
+	ListenableFuture<VaultToken> login(String path, Object entity);
+
+	/**
+	 * Read secrets using a {@link SecureBackendAccessor}.
+	 *
+	 * @param secureBackendAccessor must not be {@literal null}.
+	 * @return a {@link ListenableFuture} completed with the {@link Secrets}.
+	 * @see VaultConfigTemplate#readSecrets(SecureBackendAccessor)
+	 */
+	ListenableFuture<Secrets> readSecrets(SecureBackendAccessor secureBackendAccessor);
+
+	/**
+	 * Renew a {@link Lease} using {@code sys/renew}.
+	 *
+	 * @param lease must not be {@literal null}.
+	 * @return a {@link ListenableFuture} completed with the renewed {@link Lease}.
+	 */
+	ListenableFuture<Lease> renew(Lease lease);
+}
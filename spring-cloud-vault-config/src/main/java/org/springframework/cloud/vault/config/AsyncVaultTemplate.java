@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.util.Collections;
+
+import org.springframework.cloud.vault.AsyncVaultClient;
+import org.springframework.cloud.vault.VaultClient;
+import org.springframework.cloud.vault.VaultClientResponse;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.VaultResponse;
+import org.springframework.cloud.vault.VaultToken;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+/**
+ * Asynchronous counterpart of {@link VaultTemplate} based on {@link AsyncVaultClient}.
+ * Requests are authenticated with the session token of a {@link VaultTemplate} so both
+ * templates share a single session that is renewed by the {@link VaultTemplate}.
+ *
+ * @author Mark Paluch
+ */
+public class AsyncVaultTemplate implements AsyncVaultOperations {
+
+	private final VaultProperties properties;
+	private final AsyncVaultClient client;
+	private final VaultTemplate vaultTemplate;
+
+	/**
+	 * Creates a new {@link AsyncVaultTemplate}.
+	 *
+	 * @param properties must not be {@literal null}.
+	 * @param client must not be {@literal null}.
+	 * @param vaultTemplate must not be {@literal null}.
+	 */
+	public AsyncVaultTemplate(VaultProperties properties, AsyncVaultClient client,
+			VaultTemplate vaultTemplate) {
+
+		Assert.notNull(properties, "VaultProperties must not be null!");
+		Assert.notNull(client, "AsyncVaultClient must not be null!");
+		Assert.notNull(vaultTemplate, "VaultTemplate must not be null!");
+
+		this.properties = properties;
+		this.client = client;
+		this.vaultTemplate = vaultTemplate;
+	}
+
+	@Override
+	public ListenableFuture<VaultClientResponse> read(String path) {
+		return client.read(VaultClient.buildUri(properties, path), getToken());
+	}
+
+	@Override
+	public ListenableFuture<VaultClientResponse> write(String path, Object entity) {
+		return client.write(VaultClient.buildUri(properties, path), entity, getToken());
+	}
+
+	@Override
+	public ListenableFuture<VaultToken> login(String path, Object entity) {
+		return client.login(VaultClient.buildUri(properties, path), entity);
+	}
+
+	@Override
+	public ListenableFuture<Secrets> readSecrets(
+			final SecureBackendAccessor secureBackendAccessor) {
+
+		Assert.notNull(secureBackendAccessor, "SecureBackendAccessor must not be null!");
+
+		final SettableListenableFuture<Secrets> result = new SettableListenableFuture<>();
+
+		client.read(
+				client.buildUri(properties, "{backend}/{key}",
+						secureBackendAccessor.variables()), getToken()).addCallback(
+				new ListenableFutureCallback<VaultClientResponse>() {
+
+					@Override
+					public void onSuccess(VaultClientResponse response) {
+
+						try {
+							result.set(VaultConfigTemplate.createSecrets(
+									secureBackendAccessor, response, properties));
+						}
+						catch (RuntimeException e) {
+							result.setException(e);
+						}
+					}
+
+					@Override
+					public void onFailure(Throwable ex) {
+						result.setException(ex);
+					}
+				});
+
+		return result;
+	}
+
+	@Override
+	public ListenableFuture<Lease> renew(final Lease lease) {
+
+		Assert.notNull(lease, "Lease must not be null!");
+		Assert.isTrue(lease.hasLeaseId(), "Lease must have a lease Id!");
+
+		final SettableListenableFuture<Lease> result = new SettableListenableFuture<>();
+
+		write(String.format("sys/renew/%s", lease.getLeaseId()),
+				Collections.emptyMap()).addCallback(
+				new ListenableFutureCallback<VaultClientResponse>() {
+
+					@Override
+					public void onSuccess(VaultClientResponse response) {
+
+						if (!response.isSuccessful()) {
+							result.setException(new IllegalStateException(String.format(
+									"Cannot renew lease %s: Status %d %s",
+									lease.getLeaseId(), response.getStatusCode().value(),
+									response.getMessage())));
+							return;
+						}
+
+						VaultResponse body = response.getBody();
+						result.set(Lease.of(
+								StringUtils.hasText(body.getLeaseId()) ? body.getLeaseId()
+										: lease.getLeaseId(), body.getLeaseDuration(),
+								body.isRenewable()));
+					}
+
+					@Override
+					public void onFailure(Throwable ex) {
+						result.setException(ex);
+					}
+				});
+
+		return result;
+	}
+
+	private VaultToken getToken() {
+		return vaultTemplate.getToken();
+	}
+}
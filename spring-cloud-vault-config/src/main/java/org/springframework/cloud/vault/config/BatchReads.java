@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Bounds the number of concurrent requests to Vault and performs multiple reads on a
+ * shared executor. Requests {@link #acquire() acquire} one of {@code concurrency}
+ * permits while in flight so requests issued by concurrent callers, such as the
+ * concurrent bootstrap and recursive reads, share the same limit. Each read is isolated
+ * so a failing read is reported as its {@link ReadResult} without affecting other reads.
+ * <p>
+ * Executor threads are created on demand and terminate once idle. Callbacks that read
+ * multiple sources themselves read these sequentially to not wait on the executor they
+ * are running on.
+ *
+ * @author Mark Paluch
+ */
+class BatchReads {
+
+	private final static ThreadLocal<Boolean> BATCH_READ = new ThreadLocal<>();
+
+	private final int concurrency;
+	private final Semaphore permits;
+
+	private ThreadPoolExecutor executor;
+	private boolean destroyed;
+
+	/**
+	 * Creates a new {@link BatchReads}.
+	 *
+	 * @param concurrency maximal number of concurrent requests.
+	 */
+	BatchReads(int concurrency) {
+
+		this.concurrency = Math.max(concurrency, 1);
+		this.permits = new Semaphore(this.concurrency);
+	}
+
+	/**
+	 * Acquire a permit to issue a request, blocking until a permit is available. Callers
+	 * must {@link #release()} the permit once the request completes.
+	 *
+	 * @throws IllegalStateException if the thread was interrupted while waiting.
+	 */
+	void acquire() {
+
+		try {
+			permits.acquire();
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(
+					"Interrupted while waiting for a request to Vault", e);
+		}
+	}
+
+	/**
+	 * Release a permit obtained by {@link #acquire()}.
+	 */
+	void release() {
+		permits.release();
+	}
+
+	/**
+	 * Read all {@code sources} using {@code callback}. Reads are issued concurrently on
+	 * the shared executor, limited to {@code concurrency} reads at a time. Duplicate
+	 * sources are read once.
+	 *
+	 * @param sources must not be {@literal null}.
+	 * @param callback must not be {@literal null}.
+	 * @return the {@link ReadResult}s in the order of {@code sources}.
+	 */
+	<S, T> Map<S, ReadResult<T>> readAll(Collection<S> sources,
+			final ReadCallback<S, T> callback) {
+
+		Assert.notNull(sources, "Sources must not be null!");
+		Assert.notNull(callback, "ReadCallback must not be null!");
+
+		Map<S, ReadResult<T>> results = new LinkedHashMap<>();
+
+		if (sources.size() < 2 || concurrency < 2 || BATCH_READ.get() != null) {
+
+			for (S source : sources) {
+				if (!results.containsKey(source)) {
+					results.put(source, read(source, callback));
+				}
+			}
+
+			return results;
+		}
+
+		Map<S, Future<ReadResult<T>>> futures = new LinkedHashMap<>();
+
+		try {
+
+			for (final S source : sources) {
+
+				if (futures.containsKey(source)) {
+					continue;
+				}
+
+				futures.put(source, getExecutor().submit(new Callable<ReadResult<T>>() {
+
+					@Override
+					public ReadResult<T> call() throws Exception {
+
+						BATCH_READ.set(Boolean.TRUE);
+						try {
+							return read(source, callback);
+						}
+						finally {
+							BATCH_READ.remove();
+						}
+					}
+				}));
+			}
+
+			for (Map.Entry<S, Future<ReadResult<T>>> entry : futures.entrySet()) {
+				results.put(entry.getKey(), entry.getValue().get());
+			}
+
+			return results;
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while reading from Vault", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		finally {
+			for (Future<ReadResult<T>> future : futures.values()) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Shut down the executor. Subsequent batches are rejected.
+	 */
+	synchronized void destroy() {
+
+		destroyed = true;
+
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	private synchronized ThreadPoolExecutor getExecutor() {
+
+		if (destroyed) {
+			throw new RejectedExecutionException("BatchReads is destroyed");
+		}
+
+		if (executor == null) {
+
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+					"spring-cloud-vault-batch-");
+			threadFactory.setDaemon(true);
+
+			executor = new ThreadPoolExecutor(concurrency, concurrency, 60,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+			executor.allowCoreThreadTimeOut(true);
+		}
+
+		return executor;
+	}
+
+	private static <S, T> ReadResult<T> read(S source, ReadCallback<S, T> callback) {
+
+		try {
+			return ReadResult.of(callback.read(source));
+		}
+		catch (RuntimeException e) {
+			return ReadResult.error(e);
+		}
+	}
+
+	/**
+	 * Callback to read a single source.
+	 */
+	interface ReadCallback<S, T> {
+
+		/**
+		 * @param source the source to read.
+		 * @return the read value.
+		 */
+		T read(S source);
+	}
+}
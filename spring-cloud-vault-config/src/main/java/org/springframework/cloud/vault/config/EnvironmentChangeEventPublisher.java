@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+/**
+ * Publisher for {@link EnvironmentChangeEvent}s after Vault property sources changed.
+ * Vault property sources are managed within the bootstrap context but events must be
+ * published to the application context. Bootstrap beans implementing
+ * {@link ApplicationContextInitializer} are applied to the application context so this
+ * publisher obtains the application context during its initialization.
+ * <p>
+ * The application context cannot publish events before it was refreshed. Changes found
+ * earlier are buffered and published once the {@link ContextRefreshedEvent} of the
+ * application context was received.
+ *
+ * @author Mark Paluch
+ */
+class EnvironmentChangeEventPublisher implements
+		ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+	private final Set<String> pendingKeys = new LinkedHashSet<>();
+
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	@Override
+	public void initialize(final ConfigurableApplicationContext applicationContext) {
+
+		applicationContext.addApplicationListener(
+				new ApplicationListener<ContextRefreshedEvent>() {
+
+					@Override
+					public void onApplicationEvent(ContextRefreshedEvent event) {
+
+						if (event.getApplicationContext() == applicationContext) {
+							refreshed(applicationContext);
+						}
+					}
+				});
+	}
+
+	/**
+	 * Publish an {@link EnvironmentChangeEvent} for the changed {@code keys}. Empty sets
+	 * of keys are not published. Changes are buffered until the application context was
+	 * refreshed.
+	 *
+	 * @param keys must not be {@literal null}.
+	 */
+	void publishChange(Set<String> keys) {
+
+		if (keys.isEmpty()) {
+			return;
+		}
+
+		ApplicationEventPublisher applicationEventPublisher;
+
+		synchronized (pendingKeys) {
+
+			applicationEventPublisher = this.applicationEventPublisher;
+
+			if (applicationEventPublisher == null) {
+				pendingKeys.addAll(keys);
+				return;
+			}
+		}
+
+		applicationEventPublisher.publishEvent(new EnvironmentChangeEvent(keys));
+	}
+
+	private void refreshed(ApplicationEventPublisher applicationEventPublisher) {
+
+		Set<String> keys;
+
+		synchronized (pendingKeys) {
+
+			this.applicationEventPublisher = applicationEventPublisher;
+
+			keys = new LinkedHashSet<>(pendingKeys);
+			pendingKeys.clear();
+		}
+
+		if (!keys.isEmpty()) {
+			applicationEventPublisher.publishEvent(new EnvironmentChangeEvent(keys));
+		}
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+
+/**
+ * Immutable {@link Map} of properties built once from a source {@link Map}. Entries are
+ * stored in parallel arrays in the iteration order of the source and indexed by an
+ * open-addressing hash table using linear probing. Lookups do not allocate and require
+ * no locking. Property names are held in an array that is shared with callers of
+ * {@link #getNames()}.
+ *
+ * @author Mark Paluch
+ */
+class ImmutablePropertyMap extends AbstractMap<String, String> {
+
+	static final ImmutablePropertyMap EMPTY = new ImmutablePropertyMap(new String[0],
+			new String[0]);
+
+	private final String[] names;
+	private final String[] values;
+	private final int[] table;
+	private final int mask;
+
+	private Set<Map.Entry<String, String>> entrySet;
+
+	private ImmutablePropertyMap(String[] names, String[] values) {
+
+		this.names = names;
+		this.values = values;
+
+		int capacity = tableSize(names.length);
+		this.table = new int[capacity];
+		this.mask = capacity - 1;
+
+		for (int i = 0; i < names.length; i++) {
+
+			int slot = spread(names[i].hashCode()) & mask;
+
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+
+			table[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * Create an {@link ImmutablePropertyMap} from {@code properties}.
+	 *
+	 * @param properties must not be {@literal null} and must not contain
+	 * {@literal null} keys.
+	 * @return the {@link ImmutablePropertyMap}.
+	 */
+	static ImmutablePropertyMap of(Map<String, String> properties) {
+
+		Assert.notNull(properties, "Properties must not be null!");
+
+		if (properties instanceof ImmutablePropertyMap) {
+			return (ImmutablePropertyMap) properties;
+		}
+
+		if (properties.isEmpty()) {
+			return EMPTY;
+		}
+
+		String[] names = new String[properties.size()];
+		String[] values = new String[names.length];
+
+		int index = 0;
+		for (Map.Entry<String, String> entry : properties.entrySet()) {
+
+			Assert.notNull(entry.getKey(), "Property name must not be null!");
+
+			names[index] = entry.getKey();
+			values[index] = entry.getValue();
+			index++;
+		}
+
+		return new ImmutablePropertyMap(names, values);
+	}
+
+	/**
+	 * @return the property names. The array is shared and must not be modified.
+	 */
+	String[] getNames() {
+		return names;
+	}
+
+	@Override
+	public String get(Object key) {
+
+		int index = indexOf(key);
+		return index != -1 ? values[index] : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) != -1;
+	}
+
+	@Override
+	public int size() {
+		return names.length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return names.length == 0;
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+
+		Set<Map.Entry<String, String>> entrySet = this.entrySet;
+
+		if (entrySet == null) {
+			this.entrySet = entrySet = new EntrySet();
+		}
+
+		return entrySet;
+	}
+
+	private int indexOf(Object key) {
+
+		if (!(key instanceof String) || names.length == 0) {
+			return -1;
+		}
+
+		int slot = spread(key.hashCode()) & mask;
+
+		for (;;) {
+
+			int entry = table[slot];
+
+			if (entry == 0) {
+				return -1;
+			}
+
+			String name = names[entry - 1];
+			if (name == key || name.equals(key)) {
+				return entry - 1;
+			}
+
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * @return a power of two capacity keeping the load factor at or below 0.5.
+	 */
+	private static int tableSize(int size) {
+
+		int capacity = 2;
+		while (capacity < size * 2) {
+			capacity <<= 1;
+		}
+
+		return capacity;
+	}
+
+	private class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+		@Override
+		public Iterator<Map.Entry<String, String>> iterator() {
+
+			return new Iterator<Map.Entry<String, String>>() {
+
+				private int index;
+
+				@Override
+				public boolean hasNext() {
+					return index < names.length;
+				}
+
+				@Override
+				public Map.Entry<String, String> next() {
+
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+
+					Map.Entry<String, String> entry = new SimpleImmutableEntry<>(
+							names[index], values[index]);
+					index++;
+					return entry;
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return names.length;
+		}
+	}
+}
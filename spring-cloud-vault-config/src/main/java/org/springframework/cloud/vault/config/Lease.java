@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import org.springframework.util.StringUtils;
+
+import lombok.Value;
+
+/**
+ * Value object for a lease of secrets obtained from Vault. The lease duration is given
+ * in seconds.
+ *
+ * @author Mark Paluch
+ */
+@Value(staticConstructor = "of")
+public class Lease {
+
+	private static final Lease NONE = new Lease(null, 0, false);
+
+	private String leaseId;
+	private long leaseDuration;
+	private boolean renewable;
+
+	/**
+	 * @return an empty {@link Lease} for secrets without a lease.
+	 */
+	public static Lease none() {
+		return NONE;
+	}
+
+	/**
+	 * @return {@literal true} if this lease has a lease Id.
+	 */
+	public boolean hasLeaseId() {
+		return StringUtils.hasText(leaseId);
+	}
+}
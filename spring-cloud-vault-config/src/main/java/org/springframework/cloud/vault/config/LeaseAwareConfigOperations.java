@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+/**
+ * {@link VaultConfigOperations} that read {@link Secrets} along with their
+ * {@link Lease}. Other {@link VaultConfigOperations} are read through
+ * {@link Secrets#read(VaultConfigOperations, SecureBackendAccessor)} without a lease.
+ *
+ * @author Mark Paluch
+ * @see VaultConfigTemplate#readSecrets(SecureBackendAccessor)
+ */
+interface LeaseAwareConfigOperations extends VaultConfigOperations {
+
+	/**
+	 * Read secrets from a secure backend encapsulated within a
+	 * {@link SecureBackendAccessor} along with their {@link Lease}.
+	 *
+	 * @param secureBackendAccessor must not be {@literal null}.
+	 * @return the {@link Secrets}. Data is {@literal null} if Vault responded with an
+	 * error and the lease may be {@link Lease#none()} but never {@literal null}.
+	 * @throws IllegalStateException if
+	 * {@link org.springframework.cloud.vault.VaultProperties#isFailFast()} is enabled.
+	 */
+	Secrets readSecrets(SecureBackendAccessor secureBackendAccessor);
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+/**
+ * Listener for secrets that were rotated by {@link SecretLeaseContainer} because their
+ * {@link Lease} could not be renewed anymore.
+ *
+ * @author Mark Paluch
+ */
+public interface LeaseListener {
+
+	/**
+	 * Callback method invoked after new {@link Secrets} were obtained for a
+	 * {@link SecureBackendAccessor}.
+	 *
+	 * @param secureBackendAccessor the accessor used to obtain the secrets, never
+	 * {@literal null}.
+	 * @param secrets the new secrets, never {@literal null}.
+	 */
+	void onSecretsRotated(SecureBackendAccessor secureBackendAccessor, Secrets secrets);
+}
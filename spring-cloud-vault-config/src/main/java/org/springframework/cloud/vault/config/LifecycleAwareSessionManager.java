@@ -0,0 +1,249 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.vault.ClientAuthentication;
+import org.springframework.cloud.vault.VaultClient;
+import org.springframework.cloud.vault.VaultClientResponse;
+import org.springframework.cloud.vault.VaultEndpoint;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.VaultToken;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Session manager that obtains a {@link VaultToken} using {@link ClientAuthentication}
+ * and keeps it valid. Tokens with a lease duration are renewed in the background using
+ * {@code auth/token/renew-self} after {@link VaultProperties.Session#getRenewalFraction()}
+ * of their TTL. Once the token reaches its maximum TTL, a new token is obtained by
+ * logging in again ahead of expiry so callers of {@link #getSessionToken()} do not
+ * perform a login.
+ * <p>
+ * Background renewal requires a {@link TaskScheduler}. Without a {@link TaskScheduler},
+ * the session token is obtained once and used throughout the whole lifetime.
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+class LifecycleAwareSessionManager implements DisposableBean {
+
+	private final static long RETRY_DELAY = 5000;
+
+	private final ClientAuthentication clientAuthentication;
+	private final VaultClient client;
+	private final VaultProperties properties;
+	private final TaskScheduler taskScheduler;
+	private final VaultState vaultState = new VaultState();
+	private final Object lock = new Object();
+
+	private volatile VaultEndpoint endpoint;
+	private volatile ScheduledFuture<?> scheduledRefresh;
+	private volatile boolean destroyed;
+
+	/**
+	 * Creates a new {@link LifecycleAwareSessionManager}.
+	 *
+	 * @param clientAuthentication must not be {@literal null}.
+	 * @param client must not be {@literal null}.
+	 * @param properties must not be {@literal null}.
+	 * @param taskScheduler may be {@literal null} to disable background renewal.
+	 */
+	LifecycleAwareSessionManager(ClientAuthentication clientAuthentication,
+			VaultClient client, VaultProperties properties, TaskScheduler taskScheduler) {
+
+		Assert.notNull(clientAuthentication, "ClientAuthentication must not be null!");
+		Assert.notNull(client, "VaultClient must not be null!");
+		Assert.notNull(properties, "VaultProperties must not be null!");
+
+		this.clientAuthentication = clientAuthentication;
+		this.client = client;
+		this.properties = properties;
+		this.taskScheduler = taskScheduler;
+	}
+
+	/**
+	 * Obtain the current session token. Performs a login if no token was obtained yet.
+	 *
+	 * @return the current {@link VaultToken}.
+	 */
+	VaultToken getSessionToken() {
+
+		VaultToken token = vaultState.getToken();
+		if (token != null) {
+			return token;
+		}
+
+		synchronized (lock) {
+
+			token = vaultState.getToken();
+			return token != null ? token : login();
+		}
+	}
+
+	/**
+	 * Log into Vault, replace the current session token and schedule its renewal.
+	 *
+	 * @return the new {@link VaultToken}.
+	 */
+	VaultToken login() {
+
+		synchronized (lock) {
+
+			VaultToken token = clientAuthentication.login();
+			vaultState.setToken(token);
+			scheduleRefresh(token);
+
+			return token;
+		}
+	}
+
+	/**
+	 * Obtain the {@link VaultEndpoint} to build request {@link URI}s. The endpoint is
+	 * retained until scheme, host or port of {@link VaultProperties} change.
+	 *
+	 * @return the {@link VaultEndpoint}.
+	 */
+	VaultEndpoint getEndpoint() {
+
+		VaultEndpoint endpoint = this.endpoint;
+
+		if (endpoint == null || !endpoint.matches(properties)) {
+			endpoint = VaultEndpoint.from(properties);
+			this.endpoint = endpoint;
+		}
+
+		return endpoint;
+	}
+
+	/**
+	 * Renew the current session token using {@code auth/token/renew-self}.
+	 *
+	 * @return {@literal true} if the token was renewed.
+	 */
+	boolean renewToken() {
+
+		VaultToken token = vaultState.getToken();
+		if (token == null) {
+			return false;
+		}
+
+		URI uri = getEndpoint().createUri("auth/token/renew-self");
+		VaultClientResponse response = client.write(uri,
+				Collections.<String, String> emptyMap(), token);
+
+		if (!response.isSuccessful() || response.getBody().getAuth() == null) {
+			log.warn(String.format("Cannot renew token: Status %s %s",
+					response.getStatusCode(), response.getMessage()));
+			return false;
+		}
+
+		Map<String, Object> auth = response.getBody().getAuth();
+		long leaseDuration = auth.get("lease_duration") instanceof Number ? ((Number) auth
+				.get("lease_duration")).longValue() : 0;
+
+		VaultToken renewed = VaultToken.of(token.getToken(), leaseDuration);
+
+		synchronized (lock) {
+
+			if (vaultState.getToken() == token) {
+				vaultState.setToken(renewed);
+				scheduleRefresh(renewed);
+			}
+		}
+
+		log.debug("Renewed Vault token");
+
+		return true;
+	}
+
+	@Override
+	public void destroy() {
+
+		this.destroyed = true;
+
+		ScheduledFuture<?> scheduledRefresh = this.scheduledRefresh;
+		if (scheduledRefresh != null) {
+			scheduledRefresh.cancel(false);
+		}
+	}
+
+	private void scheduleRefresh(VaultToken token) {
+
+		VaultProperties.Session session = properties.getSession();
+
+		if (taskScheduler == null || !session.isRenewalEnabled()
+				|| token.getLeaseDuration() <= 0 || destroyed) {
+			return;
+		}
+
+		long ttl = token.getLeaseDuration() * 1000;
+		long delay = (long) (ttl * session.getRenewalFraction());
+
+		// Tokens close to their max TTL cannot be renewed for a reasonable duration.
+		boolean renew = ttl > session.getExpiryThreshold();
+
+		schedule(renew, delay);
+	}
+
+	private void schedule(final boolean renew, long delay) {
+
+		ScheduledFuture<?> previous = this.scheduledRefresh;
+		if (previous != null) {
+			previous.cancel(false);
+		}
+
+		this.scheduledRefresh = taskScheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				refresh(renew);
+			}
+		}, new Date(System.currentTimeMillis() + delay));
+	}
+
+	private void refresh(boolean renew) {
+
+		if (destroyed) {
+			return;
+		}
+
+		try {
+
+			if (renew && renewToken()) {
+				return;
+			}
+
+			login();
+		}
+		catch (RuntimeException e) {
+
+			log.error("Cannot refresh Vault token, retrying", e);
+
+			if (!destroyed) {
+				schedule(false, RETRY_DELAY);
+			}
+		}
+	}
+}
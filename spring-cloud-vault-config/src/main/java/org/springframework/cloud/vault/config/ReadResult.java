@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Value object for the result of a single read within a batch read. Holds either the
+ * value or the {@link RuntimeException} that was raised while reading.
+ *
+ * @author Mark Paluch
+ * @see VaultTemplate#readMany(java.util.Collection)
+ * @see VaultConfigTemplate#readAll(java.util.Collection)
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ReadResult<T> {
+
+	private T value;
+	private RuntimeException error;
+
+	/**
+	 * Create a successful {@link ReadResult}.
+	 *
+	 * @param value may be {@literal null}.
+	 * @return the {@link ReadResult}.
+	 */
+	public static <T> ReadResult<T> of(T value) {
+		return new ReadResult<T>(value, null);
+	}
+
+	/**
+	 * Create a failed {@link ReadResult}.
+	 *
+	 * @param error must not be {@literal null}.
+	 * @return the {@link ReadResult}.
+	 */
+	public static <T> ReadResult<T> error(RuntimeException error) {
+		return new ReadResult<T>(null, error);
+	}
+
+	/**
+	 * @return {@literal true} if the read completed without an error.
+	 */
+	public boolean isSuccessful() {
+		return error == null;
+	}
+}
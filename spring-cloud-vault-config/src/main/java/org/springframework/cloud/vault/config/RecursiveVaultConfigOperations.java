@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.config.BatchReads.ReadCallback;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+import static org.springframework.cloud.vault.config.SecureBackendAccessors.*;
+
+/**
+ * {@link VaultConfigOperations} reading generic backend contexts recursively. Nested keys
+ * are discovered by listing ({@code ?list=true}) the context and its nested levels up to
+ * {@link VaultGenericBackendProperties#getMaxDepth()}. All keys are read concurrently
+ * using the delegate {@link VaultConfigOperations} on the {@link BatchReads} of the
+ * {@link VaultTemplate} so reads share its request limit. Properties of nested keys are
+ * prefixed with their key path relative to the context using {@code .} as separator,
+ * e.g. {@code url} of {@code secret/myapp/db/primary} maps to {@code db.primary.url}
+ * for the context {@code myapp}.
+ * <p>
+ * Secrets are reported without data if listing or reading any key fails so the property
+ * source retains its properties. Keys are listed through
+ * {@link VaultTemplate#list(String)} that binds the {@code keys} array of the response.
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+class RecursiveVaultConfigOperations implements LeaseAwareConfigOperations {
+
+	private final VaultTemplate vaultTemplate;
+	private final VaultConfigOperations delegate;
+	private final VaultProperties properties;
+	private final VaultGenericBackendProperties genericBackendProperties;
+
+	/**
+	 * Creates a new {@link RecursiveVaultConfigOperations}.
+	 *
+	 * @param vaultTemplate must not be {@literal null}.
+	 * @param delegate must not be {@literal null}.
+	 * @param properties must not be {@literal null}.
+	 * @param genericBackendProperties must not be {@literal null}.
+	 */
+	RecursiveVaultConfigOperations(VaultTemplate vaultTemplate,
+			VaultConfigOperations delegate, VaultProperties properties,
+			VaultGenericBackendProperties genericBackendProperties) {
+
+		Assert.notNull(vaultTemplate, "VaultTemplate must not be null!");
+		Assert.notNull(delegate, "VaultConfigOperations must not be null!");
+		Assert.notNull(properties, "VaultProperties must not be null!");
+		Assert.notNull(genericBackendProperties,
+				"VaultGenericBackendProperties must not be null!");
+
+		this.vaultTemplate = vaultTemplate;
+		this.delegate = delegate;
+		this.properties = properties;
+		this.genericBackendProperties = genericBackendProperties;
+	}
+
+	@Override
+	public Map<String, String> read(SecureBackendAccessor secureBackendAccessor) {
+		Map<String, String> data = readSecrets(secureBackendAccessor).getData();
+		return data != null ? data : Collections.<String, String> emptyMap();
+	}
+
+	@Override
+	public Secrets readSecrets(SecureBackendAccessor secureBackendAccessor) {
+
+		Assert.notNull(secureBackendAccessor, "SecureBackendAccessor must not be null!");
+
+		Map<String, String> variables = secureBackendAccessor.variables();
+		final String backend = variables.get("backend");
+		final String key = variables.get("key");
+
+		List<String> keys = new ArrayList<>();
+		keys.add("");
+
+		if (!collectKeys(String.format("%s/%s/", backend, key), "", 0, keys)) {
+			return Secrets.of(null, Lease.none());
+		}
+
+		Map<String, ReadResult<Secrets>> results = vaultTemplate.getBatchReads().readAll(
+				keys, new ReadCallback<String, Secrets>() {
+
+					@Override
+					public Secrets read(String relativeKey) {
+						return Secrets.read(delegate, generic(backend,
+								relativeKey.isEmpty() ? key : key + "/" + relativeKey));
+					}
+				});
+
+		Map<String, String> data = new LinkedHashMap<>();
+
+		for (Map.Entry<String, ReadResult<Secrets>> entry : results.entrySet()) {
+
+			ReadResult<Secrets> result = entry.getValue();
+
+			if (!result.isSuccessful()) {
+				throw result.getError();
+			}
+
+			if (result.getValue().getData() == null) {
+				return Secrets.of(null, Lease.none());
+			}
+
+			String prefix = entry.getKey().isEmpty() ? "" : entry.getKey().replace('/',
+					'.') + ".";
+
+			for (Map.Entry<String, String> property : result.getValue().getData()
+					.entrySet()) {
+				data.put(prefix + property.getKey(), property.getValue());
+			}
+		}
+
+		return Secrets.of(data, Lease.none());
+	}
+
+	/**
+	 * Collect keys below {@code path} into {@code keys}. Keys are relative to the context.
+	 *
+	 * @param path the context path ending with {@code /}.
+	 * @param relativePath the path of the current level relative to the context, empty
+	 * or ending with {@code /}.
+	 * @param depth the current level.
+	 * @param keys the collected keys.
+	 * @return {@literal false} if listing keys failed.
+	 */
+	private boolean collectKeys(String path, String relativePath, int depth,
+			List<String> keys) {
+
+		List<String> children = list(path + relativePath);
+
+		if (children == null) {
+			return false;
+		}
+
+		int maxFanOut = genericBackendProperties.getMaxFanOut();
+		if (children.size() > maxFanOut) {
+
+			log.warn(String.format(
+					"%s%s contains %d keys, loading only the first %d keys", path,
+					relativePath, children.size(), maxFanOut));
+			children = children.subList(0, maxFanOut);
+		}
+
+		for (String child : children) {
+
+			if (!child.endsWith("/")) {
+				keys.add(relativePath + child);
+				continue;
+			}
+
+			if (depth >= genericBackendProperties.getMaxDepth()) {
+
+				log.debug(String.format(
+						"Not loading %s%s%s, maximum depth %d exceeded", path,
+						relativePath, child, genericBackendProperties.getMaxDepth()));
+				continue;
+			}
+
+			if (!collectKeys(path, relativePath + child, depth + 1, keys)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * List keys at {@code path}.
+	 *
+	 * @param path the path ending with {@code /}.
+	 * @return the keys or {@literal null} if Vault responded with an error.
+	 */
+	private List<String> list(String path) {
+
+		try {
+			return vaultTemplate.list(path);
+		}
+		catch (HttpStatusCodeException e) {
+
+			if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+				return Collections.emptyList();
+			}
+
+			String message = String.format("Cannot list keys of %s: Status %d %s",
+					path, e.getStatusCode().value(), e.getStatusText());
+
+			if (properties.isFailFast()) {
+				throw new IllegalStateException(message, e);
+			}
+
+			log.warn(message);
+			return null;
+		}
+	}
+}
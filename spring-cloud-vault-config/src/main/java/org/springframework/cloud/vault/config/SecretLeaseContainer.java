@@ -0,0 +1,498 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.vault.VaultClientResponse;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.VaultResponse;
+import org.springframework.cloud.vault.config.VaultOperations.SessionCallback;
+import org.springframework.cloud.vault.config.VaultOperations.VaultSession;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Container for {@link Lease}s of secrets obtained through a
+ * {@link SecureBackendAccessor}. Renewable leases are renewed using {@code sys/renew}
+ * before they expire. Renewals are scheduled on a shared {@link TaskScheduler} at
+ * {@link VaultProperties.LeaseProperties#getRenewalFraction()} of the lease duration
+ * reduced by a random jitter to spread renewals of leases obtained at the same time.
+ * <p>
+ * With {@link VaultProperties.LeaseProperties#isRevokeOnShutdown() revocation} enabled,
+ * leases are revoked using {@code sys/revoke} once the application context is closed.
+ * The container lives in the bootstrap context and is applied as
+ * {@link ApplicationContextInitializer} to the application context to listen for its
+ * {@link ContextClosedEvent}. Destroying the container only cancels renewals so closing
+ * a bootstrap context keeps leases valid that are still in use. The throw-away
+ * application context that {@code ContextRefresher} creates for {@code /refresh} is
+ * detected by {@link #isRefreshContext(ConfigurableApplicationContext)} and does not
+ * revoke leases either.
+ * <p>
+ * With {@link VaultProperties.LeaseProperties#isRotate() rotation} enabled, new secrets
+ * are requested for leases that cannot be renewed anymore before these expire. The
+ * {@link LeaseListener} associated with the lease is notified with the new secrets and an
+ * {@link org.springframework.cloud.context.environment.EnvironmentChangeEvent} is
+ * published. Superseded leases are not revoked but expire naturally to allow consumers
+ * to drain resources that still use the previous secrets.
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+public class SecretLeaseContainer implements DisposableBean,
+		ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+	private final static long RETRY_DELAY = 5000;
+
+	/**
+	 * Name of the property source that
+	 * {@link org.springframework.cloud.context.refresh.ContextRefresher} adds to the
+	 * environment of its throw-away application context. Must match
+	 * {@code ContextRefresher.REFRESH_ARGS_PROPERTY_SOURCE}, verified by
+	 * {@code SecretLeaseContainerUnitTests}.
+	 */
+	final static String REFRESH_ARGS_PROPERTY_SOURCE = "refreshArgs";
+
+	private final static SessionCallback WRITE_CALLBACK = new WriteCallback();
+
+	private final VaultOperations operations;
+	private final VaultProperties properties;
+	private final TaskScheduler taskScheduler;
+	private final EnvironmentChangeEventPublisher eventPublisher;
+	private final ConcurrentMap<String, LeaseRenewal> renewals = new ConcurrentHashMap<>();
+	private final Random random = new Random();
+
+	private volatile boolean destroyed;
+
+	/**
+	 * Creates a new {@link SecretLeaseContainer}.
+	 *
+	 * @param operations must not be {@literal null}.
+	 * @param properties must not be {@literal null}.
+	 * @param taskScheduler must not be {@literal null}.
+	 */
+	public SecretLeaseContainer(VaultOperations operations, VaultProperties properties,
+			TaskScheduler taskScheduler) {
+		this(operations, properties, taskScheduler, null);
+	}
+
+	/**
+	 * Creates a new {@link SecretLeaseContainer} publishing environment changes after
+	 * rotating secrets.
+	 *
+	 * @param operations must not be {@literal null}.
+	 * @param properties must not be {@literal null}.
+	 * @param taskScheduler must not be {@literal null}.
+	 * @param eventPublisher may be {@literal null}.
+	 */
+	SecretLeaseContainer(VaultOperations operations, VaultProperties properties,
+			TaskScheduler taskScheduler, EnvironmentChangeEventPublisher eventPublisher) {
+
+		Assert.notNull(operations, "VaultOperations must not be null!");
+		Assert.notNull(properties, "VaultProperties must not be null!");
+		Assert.notNull(taskScheduler, "TaskScheduler must not be null!");
+
+		this.operations = operations;
+		this.properties = properties;
+		this.taskScheduler = taskScheduler;
+		this.eventPublisher = eventPublisher;
+	}
+
+	/**
+	 * Register a {@link Lease} obtained through the {@link SecureBackendAccessor}.
+	 * Leases without a lease Id are ignored. Renewable leases are renewed before they
+	 * expire.
+	 *
+	 * @param secureBackendAccessor must not be {@literal null}.
+	 * @param lease must not be {@literal null}.
+	 */
+	public void addLease(SecureBackendAccessor secureBackendAccessor, Lease lease) {
+		addLease(secureBackendAccessor, lease, null);
+	}
+
+	/**
+	 * Register a {@link Lease} obtained through the {@link SecureBackendAccessor} along
+	 * with a {@link LeaseListener} to be notified once the secrets were rotated. Leases
+	 * without a lease Id are ignored. Renewable leases are renewed before they expire.
+	 *
+	 * @param secureBackendAccessor must not be {@literal null}.
+	 * @param lease must not be {@literal null}.
+	 * @param listener may be {@literal null}.
+	 */
+	public void addLease(SecureBackendAccessor secureBackendAccessor, Lease lease,
+			LeaseListener listener) {
+
+		Assert.notNull(secureBackendAccessor, "SecureBackendAccessor must not be null!");
+		Assert.notNull(lease, "Lease must not be null!");
+
+		if (!properties.getLease().isEnabled() || !lease.hasLeaseId() || destroyed) {
+			return;
+		}
+
+		LeaseRenewal renewal = new LeaseRenewal(secureBackendAccessor, lease, listener);
+		renewals.put(lease.getLeaseId(), renewal);
+
+		if (isRenewable(lease)) {
+			scheduleRenewal(renewal, getRenewalDelay(lease));
+		}
+		else if (isRotatable(renewal)) {
+			scheduleRotation(renewal, getRenewalDelay(lease));
+		}
+	}
+
+	/**
+	 * @return the number of leases managed by this container.
+	 */
+	public int size() {
+		return renewals.size();
+	}
+
+	@Override
+	public void initialize(final ConfigurableApplicationContext applicationContext) {
+
+		if (isRefreshContext(applicationContext)) {
+			return;
+		}
+
+		applicationContext.addApplicationListener(
+				new ApplicationListener<ContextClosedEvent>() {
+
+					@Override
+					public void onApplicationEvent(ContextClosedEvent event) {
+
+						if (event.getApplicationContext() == applicationContext) {
+							shutdown();
+						}
+					}
+				});
+	}
+
+	/**
+	 * Determine whether {@code applicationContext} is the throw-away application context
+	 * that {@link org.springframework.cloud.context.refresh.ContextRefresher} creates to
+	 * reload property sources. Leases obtained for this context are copied into the
+	 * environment of the running application and must not be revoked once it is closed.
+	 *
+	 * @param applicationContext must not be {@literal null}.
+	 * @return {@literal true} if {@code applicationContext} was created by
+	 * {@code ContextRefresher}.
+	 */
+	static boolean isRefreshContext(ConfigurableApplicationContext applicationContext) {
+		return applicationContext.getEnvironment().getPropertySources()
+				.contains(REFRESH_ARGS_PROPERTY_SOURCE);
+	}
+
+	/**
+	 * Cancel all renewals and revoke the leases if
+	 * {@link VaultProperties.LeaseProperties#isRevokeOnShutdown() revocation} is
+	 * enabled. Called once the application context is closed.
+	 */
+	void shutdown() {
+
+		if (!properties.getLease().isRevokeOnShutdown()) {
+			return;
+		}
+
+		this.destroyed = true;
+
+		for (LeaseRenewal renewal : renewals.values()) {
+
+			renewal.cancel();
+			revoke(renewal.getLease());
+		}
+
+		renewals.clear();
+	}
+
+	@Override
+	public void destroy() {
+
+		this.destroyed = true;
+
+		for (LeaseRenewal renewal : renewals.values()) {
+			renewal.cancel();
+		}
+
+		renewals.clear();
+	}
+
+	/**
+	 * Calculate the delay in milliseconds after which the {@link Lease} is renewed.
+	 *
+	 * @param lease must not be {@literal null}.
+	 * @return the renewal delay in milliseconds.
+	 */
+	long getRenewalDelay(Lease lease) {
+
+		VaultProperties.LeaseProperties leaseProperties = properties.getLease();
+
+		long delay = (long) (lease.getLeaseDuration() * 1000 * leaseProperties
+				.getRenewalFraction());
+		long jitter;
+
+		synchronized (random) {
+			jitter = (long) (delay * leaseProperties.getJitter() * random.nextDouble());
+		}
+
+		return delay - jitter;
+	}
+
+	private boolean isRenewable(Lease lease) {
+		return lease.isRenewable()
+				&& lease.getLeaseDuration() * 1000 > properties.getLease().getMinRenewal();
+	}
+
+	private boolean isRotatable(LeaseRenewal renewal) {
+		return properties.getLease().isRotate() && renewal.getListener() != null;
+	}
+
+	private void scheduleRenewal(final LeaseRenewal renewal, long delay) {
+
+		if (destroyed) {
+			return;
+		}
+
+		renewal.setScheduledFuture(taskScheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				renew(renewal);
+			}
+		}, new Date(System.currentTimeMillis() + delay)));
+	}
+
+	private void renew(LeaseRenewal renewal) {
+
+		if (destroyed) {
+			return;
+		}
+
+		Lease lease = renewal.getLease();
+
+		try {
+
+			VaultClientResponse response = operations.doWithVault(
+					String.format("sys/renew/%s", lease.getLeaseId()), WRITE_CALLBACK);
+
+			if (!response.isSuccessful()) {
+
+				log.warn(String.format("Cannot renew lease %s for %s: Status %d %s",
+						lease.getLeaseId(), renewal.getName(), response.getStatusCode()
+								.value(), response.getMessage()));
+
+				if (isRotatable(renewal)) {
+					rotate(renewal);
+				}
+				else {
+					renewals.remove(lease.getLeaseId(), renewal);
+				}
+				return;
+			}
+
+			VaultResponse body = response.getBody();
+			Lease renewed = Lease.of(StringUtils.hasText(body.getLeaseId()) ? body
+					.getLeaseId() : lease.getLeaseId(), body.getLeaseDuration(), body
+					.isRenewable());
+
+			renewal.setLease(renewed);
+
+			if (isRenewable(renewed)) {
+				scheduleRenewal(renewal, getRenewalDelay(renewed));
+			}
+			else if (isRotatable(renewal)) {
+				scheduleRotation(renewal, getRenewalDelay(renewed));
+			}
+			else {
+				log.info(String.format(
+						"Lease %s for %s reached its maximum TTL and expires in %d seconds",
+						renewed.getLeaseId(), renewal.getName(),
+						renewed.getLeaseDuration()));
+			}
+		}
+		catch (RuntimeException e) {
+
+			log.error(String.format("Cannot renew lease %s for %s", lease.getLeaseId(),
+					renewal.getName()), e);
+
+			long remaining = renewal.getExpiresAt() - System.currentTimeMillis();
+			if (remaining > RETRY_DELAY) {
+				scheduleRenewal(renewal, Math.min(RETRY_DELAY, remaining / 2));
+			}
+		}
+	}
+
+	private void scheduleRotation(final LeaseRenewal renewal, long delay) {
+
+		if (destroyed) {
+			return;
+		}
+
+		renewal.setScheduledFuture(taskScheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				rotate(renewal);
+			}
+		}, new Date(System.currentTimeMillis() + delay)));
+	}
+
+	private void rotate(LeaseRenewal renewal) {
+
+		if (destroyed) {
+			return;
+		}
+
+		Lease lease = renewal.getLease();
+
+		try {
+
+			Secrets secrets = Secrets.read(operations.opsForConfig(),
+					renewal.getSecureBackendAccessor());
+
+			if (secrets.getData() == null || secrets.getData().isEmpty()
+					|| !secrets.getLease().hasLeaseId()) {
+				throw new IllegalStateException(String.format(
+						"Vault returned no leased secrets for %s", renewal.getName()));
+			}
+
+			renewals.remove(lease.getLeaseId(), renewal);
+
+			log.info(String.format("Rotated secrets for %s, lease %s superseded by %s",
+					renewal.getName(), lease.getLeaseId(), secrets.getLease()
+							.getLeaseId()));
+
+			addLease(renewal.getSecureBackendAccessor(), secrets.getLease(),
+					renewal.getListener());
+
+			renewal.getListener().onSecretsRotated(renewal.getSecureBackendAccessor(),
+					secrets);
+
+			if (eventPublisher != null) {
+				eventPublisher.publishChange(secrets.getData().keySet());
+			}
+		}
+		catch (RuntimeException e) {
+
+			log.error(String.format("Cannot rotate secrets for %s", renewal.getName()),
+					e);
+
+			long remaining = renewal.getExpiresAt() - System.currentTimeMillis();
+			if (remaining > RETRY_DELAY) {
+				scheduleRotation(renewal, Math.min(RETRY_DELAY, remaining / 2));
+			}
+			else {
+				renewals.remove(lease.getLeaseId(), renewal);
+			}
+		}
+	}
+
+	private void revoke(Lease lease) {
+
+		try {
+
+			VaultClientResponse response = operations.doWithVault(
+					String.format("sys/revoke/%s", lease.getLeaseId()), WRITE_CALLBACK);
+
+			if (!response.getStatusCode().is2xxSuccessful()) {
+				log.warn(String.format("Cannot revoke lease %s: Status %d %s",
+						lease.getLeaseId(), response.getStatusCode().value(),
+						response.getMessage()));
+			}
+		}
+		catch (RuntimeException e) {
+			log.warn(String.format("Cannot revoke lease %s", lease.getLeaseId()), e);
+		}
+	}
+
+	/**
+	 * Renewal state of a single {@link Lease}.
+	 */
+	static class LeaseRenewal {
+
+		private final SecureBackendAccessor secureBackendAccessor;
+		private final LeaseListener listener;
+		private volatile Lease lease;
+		private volatile long expiresAt;
+		private volatile ScheduledFuture<?> scheduledFuture;
+
+		LeaseRenewal(SecureBackendAccessor secureBackendAccessor, Lease lease,
+				LeaseListener listener) {
+
+			this.secureBackendAccessor = secureBackendAccessor;
+			this.listener = listener;
+			setLease(lease);
+		}
+
+		String getName() {
+			return secureBackendAccessor.getName();
+		}
+
+		SecureBackendAccessor getSecureBackendAccessor() {
+			return secureBackendAccessor;
+		}
+
+		LeaseListener getListener() {
+			return listener;
+		}
+
+		Lease getLease() {
+			return lease;
+		}
+
+		void setLease(Lease lease) {
+			this.lease = lease;
+			this.expiresAt = System.currentTimeMillis() + lease.getLeaseDuration() * 1000;
+		}
+
+		long getExpiresAt() {
+			return expiresAt;
+		}
+
+		void setScheduledFuture(ScheduledFuture<?> scheduledFuture) {
+			this.scheduledFuture = scheduledFuture;
+		}
+
+		void cancel() {
+
+			ScheduledFuture<?> scheduledFuture = this.scheduledFuture;
+			if (scheduledFuture != null) {
+				scheduledFuture.cancel(false);
+			}
+		}
+	}
+
+	static class WriteCallback implements SessionCallback {
+
+		@Override
+		public VaultClientResponse doWithVault(URI uri, VaultSession session) {
+			return session.write(uri, Collections.emptyMap());
+		}
+	}
+}
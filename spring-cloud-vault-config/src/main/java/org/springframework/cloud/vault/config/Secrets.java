@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.util.Map;
+
+import lombok.Value;
+
+/**
+ * Value object for secrets obtained from a secure backend along with their
+ * {@link Lease}. {@link #getData() Data} is {@literal null} if Vault responded with an
+ * error.
+ *
+ * @author Mark Paluch
+ */
+@Value(staticConstructor = "of")
+public class Secrets {
+
+	private Map<String, String> data;
+	private Lease lease;
+
+	/**
+	 * Read {@link Secrets} using {@link VaultConfigOperations}. Operations that are not
+	 * {@link LeaseAwareConfigOperations} are read without a lease.
+	 *
+	 * @param operations must not be {@literal null}.
+	 * @param secureBackendAccessor must not be {@literal null}.
+	 * @return the {@link Secrets}.
+	 */
+	static Secrets read(VaultConfigOperations operations,
+			SecureBackendAccessor secureBackendAccessor) {
+
+		if (operations instanceof LeaseAwareConfigOperations) {
+			return ((LeaseAwareConfigOperations) operations)
+					.readSecrets(secureBackendAccessor);
+		}
+
+		return Secrets.of(operations.read(secureBackendAccessor), Lease.none());
+	}
+}
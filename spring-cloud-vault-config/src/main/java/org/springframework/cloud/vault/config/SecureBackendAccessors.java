@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.vault.config;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -42,19 +43,23 @@ class SecureBackendAccessors {
 		Assert.hasText(secretBackendPath, "Secret Backend Path must not be empty");
 		Assert.hasText(key, "Key must not be empty");
 
+		Map<String, String> map = new HashMap<>();
+		map.put("backend", secretBackendPath);
+		map.put("key", key);
+
+		final Map<String, String> variables = Collections.unmodifiableMap(map);
+		final String name = secretBackendPath + "/" + key;
+
 		return new SecureBackendAccessor() {
 
 			@Override
 			public Map<String, String> variables() {
-				Map<String, String> variables = new HashMap<>();
-				variables.put("backend", secretBackendPath);
-				variables.put("key", key);
 				return variables;
 			}
 
 			@Override
 			public String getName() {
-				return String.format("%s/%s", secretBackendPath, key);
+				return name;
 			}
 
 			@Override
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import org.springframework.cloud.vault.ClientAuthentication;
+import org.springframework.cloud.vault.VaultStartupTimings;
+import org.springframework.cloud.vault.VaultStartupTimings.Timer;
+import org.springframework.cloud.vault.VaultToken;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientAuthentication} recording the login time in {@link VaultStartupTimings}.
+ *
+ * @author Mark Paluch
+ */
+class TimedClientAuthentication extends ClientAuthentication {
+
+	private final ClientAuthentication delegate;
+	private final VaultStartupTimings startupTimings;
+
+	/**
+	 * Creates a new {@link TimedClientAuthentication}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 * @param startupTimings must not be {@literal null}.
+	 */
+	TimedClientAuthentication(ClientAuthentication delegate,
+			VaultStartupTimings startupTimings) {
+
+		Assert.notNull(delegate, "ClientAuthentication must not be null!");
+		Assert.notNull(startupTimings, "VaultStartupTimings must not be null!");
+
+		this.delegate = delegate;
+		this.startupTimings = startupTimings;
+	}
+
+	@Override
+	public VaultToken login() {
+
+		Timer timer = startupTimings.start(String.format("login (%s)", delegate
+				.getClass().getSimpleName()));
+		try {
+			return delegate.login();
+		}
+		finally {
+			timer.stop();
+		}
+	}
+}
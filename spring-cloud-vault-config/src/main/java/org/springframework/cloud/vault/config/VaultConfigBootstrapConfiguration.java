@@ -26,15 +26,20 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.vault.AppIdUserIdMechanism;
+import org.springframework.cloud.vault.AsyncVaultClient;
 import org.springframework.cloud.vault.ClientAuthentication;
 import org.springframework.cloud.vault.VaultBootstrapConfiguration;
+import org.springframework.cloud.vault.VaultBootstrapConfiguration.TaskSchedulerWrapper;
 import org.springframework.cloud.vault.VaultClient;
 import org.springframework.cloud.vault.VaultProperties;
 import org.springframework.cloud.vault.VaultSecretBackend;
+import org.springframework.cloud.vault.VaultStartupTimings;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
 
 /**
  * @author Mark Paluch
@@ -57,29 +62,104 @@ public class VaultConfigBootstrapConfiguration implements ApplicationContextAwar
 
 	@Bean
 	@ConditionalOnMissingBean
-	public VaultOperations vaultOperations(VaultProperties properties, VaultClient client) {
+	public VaultOperations vaultOperations(VaultProperties properties,
+			VaultClient client, TaskSchedulerWrapper taskSchedulerWrapper,
+			VaultStartupTimings vaultStartupTimings) {
 
-		ClientAuthentication clientAuthentication = clientAuthentication(
-				applicationContext, properties, client);
+		ClientAuthentication clientAuthentication = new TimedClientAuthentication(
+				clientAuthentication(applicationContext, properties, client,
+						vaultStartupTimings, taskSchedulerWrapper.getTaskScheduler()),
+				vaultStartupTimings);
 
-		return new VaultTemplate(properties, client, clientAuthentication);
+		return new VaultTemplate(properties, client, clientAuthentication,
+				taskSchedulerWrapper.getTaskScheduler());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.cloud.vault.async", name = "enabled")
+	public AsyncVaultOperations asyncVaultOperations(VaultProperties properties,
+			AsyncVaultClient asyncVaultClient, VaultOperations vaultOperations) {
+
+		Assert.isInstanceOf(VaultTemplate.class, vaultOperations,
+				"Asynchronous Vault operations require VaultTemplate");
+
+		return new AsyncVaultTemplate(properties, asyncVaultClient,
+				(VaultTemplate) vaultOperations);
+	}
+
+	@Bean
+	public SecretLeaseContainer secretLeaseContainer(VaultOperations operations,
+			VaultProperties properties, TaskSchedulerWrapper taskSchedulerWrapper,
+			EnvironmentChangeEventPublisher vaultEnvironmentChangeEventPublisher) {
+		return new SecretLeaseContainer(operations, properties,
+				taskSchedulerWrapper.getTaskScheduler(),
+				vaultEnvironmentChangeEventPublisher);
+	}
+
+	/**
+	 * @return the {@link EnvironmentChangeEventPublisher} that is applied as
+	 * {@link org.springframework.context.ApplicationContextInitializer} to the
+	 * application context.
+	 */
+	@Bean
+	EnvironmentChangeEventPublisher vaultEnvironmentChangeEventPublisher() {
+		return new EnvironmentChangeEventPublisher();
+	}
+
+	/**
+	 * @return the {@link VaultPropertySourceWatcher} polling generic backend property
+	 * sources for changes if enabled.
+	 */
+	@Bean
+	VaultPropertySourceWatcher vaultPropertySourceWatcher(
+			VaultGenericBackendProperties vaultGenericBackendProperties,
+			EnvironmentChangeEventPublisher vaultEnvironmentChangeEventPublisher) {
+		return new VaultPropertySourceWatcher(vaultGenericBackendProperties.getWatch(),
+				vaultEnvironmentChangeEventPublisher);
 	}
 
 	@Bean
 	public VaultPropertySourceLocator vaultPropertySourceLocator(
 			VaultOperations operations, VaultProperties vaultProperties,
-			VaultGenericBackendProperties vaultGenericBackendProperties) {
+			VaultGenericBackendProperties vaultGenericBackendProperties,
+			SecretLeaseContainer secretLeaseContainer,
+			VaultStartupTimings vaultStartupTimings,
+			EnvironmentChangeEventPublisher vaultEnvironmentChangeEventPublisher,
+			VaultPropertySourceWatcher vaultPropertySourceWatcher) {
 
 		Collection<SecureBackendAccessor> backendAccessors = SecureBackendFactories
 				.createBackendAcessors(vaultSecretBackends, factories);
 
-		return new VaultPropertySourceLocator(operations.opsForConfig(), vaultProperties,
-				vaultGenericBackendProperties, backendAccessors);
+		VaultPropertySourceLocator locator = new VaultPropertySourceLocator(
+				operations.opsForConfig(), vaultProperties,
+				vaultGenericBackendProperties, backendAccessors, secretLeaseContainer);
+		locator.setStartupTimings(vaultStartupTimings);
+		locator.setWatcher(vaultPropertySourceWatcher);
+
+		if (vaultGenericBackendProperties.isRecursive()) {
+
+			Assert.isInstanceOf(VaultTemplate.class, operations,
+					"Recursive generic backend property sources require VaultTemplate");
+
+			locator.setGenericOperations(new RecursiveVaultConfigOperations(
+					(VaultTemplate) operations, operations.opsForConfig(),
+					vaultProperties, vaultGenericBackendProperties));
+		}
+
+		if (vaultProperties.getSnapshot().isEnabled()) {
+			locator.setSnapshotStore(new VaultSnapshotStore(operations, vaultProperties
+					.getSnapshot()));
+			locator.setEnvironmentChangeEventPublisher(vaultEnvironmentChangeEventPublisher);
+		}
+
+		return locator;
 	}
 
 	private ClientAuthentication clientAuthentication(
 			ApplicationContext applicationContext, VaultProperties vaultProperties,
-			VaultClient client) {
+			VaultClient client, VaultStartupTimings vaultStartupTimings,
+			TaskScheduler taskScheduler) {
 
 		ClientAuthentication clientAuthentication;
 
@@ -99,6 +179,10 @@ public class VaultConfigBootstrapConfiguration implements ApplicationContextAwar
 						.appId(vaultProperties, client);
 			}
 		}
+		else if (vaultProperties.getAuthentication() == VaultProperties.AuthenticationMethod.APPROLE) {
+			clientAuthentication = ClientAuthentication.appRole(vaultProperties, client,
+					vaultStartupTimings, taskScheduler);
+		}
 		else {
 			clientAuthentication = ClientAuthentication.create(vaultProperties, client);
 		}
@@ -16,13 +16,19 @@
 package org.springframework.cloud.vault.config;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.cloud.vault.ClientAuthentication;
 import org.springframework.cloud.vault.VaultClient;
 import org.springframework.cloud.vault.VaultClientResponse;
+import org.springframework.cloud.vault.VaultEndpoint;
 import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.VaultResponse;
+import org.springframework.cloud.vault.config.BatchReads.ReadCallback;
 import org.springframework.cloud.vault.config.VaultOperations.SessionCallback;
 import org.springframework.cloud.vault.config.VaultOperations.VaultSession;
 import org.springframework.http.HttpStatus;
@@ -33,18 +39,25 @@ import lombok.extern.apachecommons.CommonsLog;
 import org.apache.commons.logging.Log;
 
 /**
- * Central class to retrieve configuration from Vault.
- * 
+ * Central class to retrieve configuration from Vault. Secret URIs are expanded once per
+ * set of {@link SecureBackendAccessor#variables() accessor variables} and reused for
+ * subsequent reads.
+ *
  * @author Mark Paluch
  * @see VaultClient
  * @see ClientAuthentication
  */
 @CommonsLog
-public class VaultConfigTemplate implements VaultConfigOperations {
+public class VaultConfigTemplate implements LeaseAwareConfigOperations {
+
+	private final static int MAX_CACHED_URIS = 1024;
 
 	private final VaultOperations vaultOperations;
 	private final VaultProperties properties;
 	private final VaultConfigSessionCallback callback;
+	private final BatchReads batchReads;
+	private final ConcurrentMap<Map<String, String>, URI> uris = new ConcurrentHashMap<>();
+	private volatile VaultEndpoint endpoint;
 
 	/**
 	 * Creates a new {@link VaultConfigTemplate}.
@@ -60,19 +73,137 @@ public class VaultConfigTemplate implements VaultConfigOperations {
 		this.vaultOperations = vaultOperations;
 		this.properties = properties;
 		this.callback = new VaultConfigSessionCallback(log);
+
+		if (vaultOperations instanceof VaultTemplate) {
+			this.batchReads = ((VaultTemplate) vaultOperations).getBatchReads();
+		}
+		else {
+			this.batchReads = new BatchReads(properties.getHttp()
+					.getMaxConnectionsPerRoute());
+		}
 	}
 
 	@Override
 	public Map<String, String> read(SecureBackendAccessor secureBackendAccessor) {
+		Map<String, String> data = readSecrets(secureBackendAccessor).getData();
+		return data != null ? data : Collections.<String, String> emptyMap();
+	}
+
+	/**
+	 * Read secrets from a secure backend encapsulated within a
+	 * {@link SecureBackendAccessor} along with their {@link Lease}.
+	 *
+	 * @param secureBackendAccessor must not be {@literal null}.
+	 * @return the {@link Secrets}. Data is {@literal null} if Vault responded with an
+	 * error and the lease may be {@link Lease#none()} but never {@literal null}.
+	 * @throws IllegalStateException if {@link VaultProperties#isFailFast()} is enabled.
+	 */
+	@Override
+	public Secrets readSecrets(SecureBackendAccessor secureBackendAccessor) {
 
 		Assert.notNull(secureBackendAccessor, "SecureBackendAccessor must not be null!");
 
-		VaultClientResponse response = vaultOperations.doWithVault("{backend}/{key}",
-				secureBackendAccessor.variables(), callback);
+		VaultClientResponse response;
+
+		if (vaultOperations instanceof VaultTemplate) {
+
+			VaultTemplate vaultTemplate = (VaultTemplate) vaultOperations;
+			response = vaultTemplate.doWithVault(
+					getUri(vaultTemplate, secureBackendAccessor), callback);
+		}
+		else {
+			response = vaultOperations.doWithVault("{backend}/{key}",
+					secureBackendAccessor.variables(), callback);
+		}
+
+		return createSecrets(secureBackendAccessor, response, properties);
+	}
+
+	/**
+	 * Read secrets from multiple secure backends. Requests are issued concurrently over
+	 * pooled connections, limited to
+	 * {@link VaultProperties.Http#getMaxConnectionsPerRoute()} requests in flight
+	 * together with other requests of the {@link VaultTemplate}.
+	 * Failures are reported per {@link SecureBackendAccessor} and do not affect other
+	 * reads.
+	 *
+	 * @param secureBackendAccessors must not be {@literal null}.
+	 * @return the {@link ReadResult}s in the order of {@code secureBackendAccessors}.
+	 * @see #readSecrets(SecureBackendAccessor)
+	 */
+	public Map<SecureBackendAccessor, ReadResult<Secrets>> readAll(
+			Collection<SecureBackendAccessor> secureBackendAccessors) {
+
+		Assert.notNull(secureBackendAccessors,
+				"SecureBackendAccessors must not be null!");
+
+		return batchReads.readAll(secureBackendAccessors,
+				new ReadCallback<SecureBackendAccessor, Secrets>() {
+
+					@Override
+					public Secrets read(SecureBackendAccessor secureBackendAccessor) {
+						return readSecrets(secureBackendAccessor);
+					}
+				});
+	}
+
+	/**
+	 * Obtain the {@link URI} for {@link SecureBackendAccessor}. URIs are expanded once per
+	 * set of {@link SecureBackendAccessor#variables() variables} so accessors created
+	 * anew for the same secret share the cached {@link URI}. URIs are cached as long as
+	 * the {@link VaultEndpoint} of {@code vaultTemplate} remains unchanged.
+	 *
+	 * @param vaultTemplate must not be {@literal null}.
+	 * @param secureBackendAccessor must not be {@literal null}.
+	 * @return the {@link URI}.
+	 */
+	URI getUri(VaultTemplate vaultTemplate, SecureBackendAccessor secureBackendAccessor) {
+
+		VaultEndpoint endpoint = vaultTemplate.getEndpoint();
+
+		if (endpoint != this.endpoint) {
+			uris.clear();
+			this.endpoint = endpoint;
+		}
+
+		Map<String, String> variables = secureBackendAccessor.variables();
+		URI uri = uris.get(variables);
+
+		if (uri != null) {
+			return uri;
+		}
+
+		uri = vaultTemplate.buildUri("{backend}/{key}", variables);
+
+		if (uris.size() < MAX_CACHED_URIS) {
+			uris.putIfAbsent(variables, uri);
+		}
+
+		return uri;
+	}
+
+	/**
+	 * Create {@link Secrets} from a {@link VaultClientResponse}. Absent secrets result in
+	 * empty {@link Secrets}. Other failures raise an {@link IllegalStateException} if
+	 * {@link VaultProperties#isFailFast()} is enabled, otherwise {@link Secrets} without
+	 * data.
+	 *
+	 * @param secureBackendAccessor must not be {@literal null}.
+	 * @param response must not be {@literal null}.
+	 * @param properties must not be {@literal null}.
+	 * @return the {@link Secrets}.
+	 */
+	static Secrets createSecrets(SecureBackendAccessor secureBackendAccessor,
+			VaultClientResponse response, VaultProperties properties) {
 
 		if (response.getStatusCode() == HttpStatus.OK) {
-			return secureBackendAccessor
-					.transformProperties(response.getBody().getData());
+
+			VaultResponse body = response.getBody();
+			Lease lease = Lease.of(body.getLeaseId(), body.getLeaseDuration(),
+					body.isRenewable());
+
+			return Secrets.of(secureBackendAccessor.transformProperties(body.getData()),
+					lease);
 		}
 
 		if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
@@ -88,9 +219,11 @@ public class VaultConfigTemplate implements VaultConfigOperations {
 		else {
 			log.warn(String.format("Could not locate PropertySource: Status %d %s",
 					response.getStatusCode().value(), response.getMessage()));
+
+			return Secrets.of(null, Lease.none());
 		}
 
-		return Collections.emptyMap();
+		return Secrets.of(Collections.<String, String> emptyMap(), Lease.none());
 	}
 
 	static class VaultConfigSessionCallback implements SessionCallback {
@@ -103,7 +236,9 @@ public class VaultConfigTemplate implements VaultConfigOperations {
 
 		@Override
 		public VaultClientResponse doWithVault(URI uri, VaultSession session) {
-			log.info(String.format("Fetching config from Vault at: %s", uri));
+			if (log.isDebugEnabled()) {
+				log.debug(String.format("Fetching config from Vault at: %s", uri));
+			}
 			return session.read(uri);
 		}
 	}
@@ -16,6 +16,7 @@
 package org.springframework.cloud.vault.config;
 
 import org.hibernate.validator.constraints.NotEmpty;
+import org.hibernate.validator.constraints.Range;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import lombok.Data;
@@ -58,4 +59,57 @@ public class VaultGenericBackendProperties {
 	@org.springframework.beans.factory.annotation.Value("${spring.cloud.vault.applicationName:${spring.application.name:application}}")
 	private String applicationName;
 
+	/**
+	 * Load each context recursively by listing nested keys. Properties of nested keys
+	 * are prefixed with the key path relative to the context.
+	 */
+	private boolean recursive = false;
+
+	/**
+	 * Maximum number of nested key levels below a context that are listed in recursive
+	 * mode.
+	 */
+	@Range(min = 0)
+	private int maxDepth = 3;
+
+	/**
+	 * Maximum number of keys per level that are loaded in recursive mode. Further keys
+	 * are ignored.
+	 */
+	@Range(min = 1)
+	private int maxFanOut = 100;
+
+	private Watch watch = new Watch();
+
+	@Data
+	public static class Watch {
+
+		/**
+		 * Poll generic backend contexts for changes and publish changed keys as
+		 * {@code EnvironmentChangeEvent}.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Initial poll interval in milliseconds. Polling returns to this interval after a
+		 * change.
+		 */
+		private long interval = 30000;
+
+		/**
+		 * Maximum poll interval in milliseconds the interval backs off to while contexts
+		 * do not change.
+		 */
+		private long maxInterval = 300000;
+
+		/**
+		 * Factor the poll interval is multiplied with after each poll without changes.
+		 */
+		private double backoffMultiplier = 2;
+
+		/**
+		 * Maximum random jitter applied to each poll delay as fraction of the interval.
+		 */
+		private double jitter = 0.2;
+	}
 }
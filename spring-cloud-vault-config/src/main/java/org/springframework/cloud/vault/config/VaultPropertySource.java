@@ -15,9 +15,7 @@
  */
 package org.springframework.cloud.vault.config;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
 
 import org.springframework.cloud.vault.VaultProperties;
 import org.springframework.core.env.EnumerablePropertySource;
@@ -26,17 +24,23 @@ import org.springframework.util.Assert;
 import lombok.extern.apachecommons.CommonsLog;
 
 /**
- * A {@link EnumerablePropertySource} backed by {@link VaultConfigOperations}.
+ * A {@link EnumerablePropertySource} backed by {@link VaultConfigOperations}. Properties
+ * are held in an {@link ImmutablePropertyMap} that is replaced as whole when secrets are
+ * rotated so property lookups do not require locking. Property names are cached with the
+ * properties.
  *
  * @author Spencer Gibb
  * @author Mark Paluch
  */
 @CommonsLog
-class VaultPropertySource extends EnumerablePropertySource<VaultConfigOperations> {
+class VaultPropertySource extends EnumerablePropertySource<VaultConfigOperations>
+		implements LeaseListener {
 
 	private final VaultProperties vaultProperties;
 	private final SecureBackendAccessor secureBackendAccessor;
-	private final Map<String, String> properties = new LinkedHashMap<>();
+	private final SecretLeaseContainer leaseContainer;
+	private volatile ImmutablePropertyMap properties = ImmutablePropertyMap.EMPTY;
+	private volatile boolean loaded;
 
 	/**
 	 * Creates a new {@link VaultPropertySource}.
@@ -47,6 +51,21 @@ class VaultPropertySource extends EnumerablePropertySource<VaultConfigOperations
 	 */
 	public VaultPropertySource(VaultConfigOperations operations,
 			VaultProperties properties, SecureBackendAccessor secureBackendAccessor) {
+		this(operations, properties, secureBackendAccessor, null);
+	}
+
+	/**
+	 * Creates a new {@link VaultPropertySource} that registers leases of the obtained
+	 * secrets with a {@link SecretLeaseContainer}.
+	 *
+	 * @param operations must not be {@literal null}.
+	 * @param properties must not be {@literal null}.
+	 * @param secureBackendAccessor must not be {@literal null}.
+	 * @param leaseContainer may be {@literal null}.
+	 */
+	public VaultPropertySource(VaultConfigOperations operations,
+			VaultProperties properties, SecureBackendAccessor secureBackendAccessor,
+			SecretLeaseContainer leaseContainer) {
 
 		super(secureBackendAccessor.getName(), operations);
 
@@ -56,18 +75,18 @@ class VaultPropertySource extends EnumerablePropertySource<VaultConfigOperations
 
 		this.vaultProperties = properties;
 		this.secureBackendAccessor = secureBackendAccessor;
+		this.leaseContainer = leaseContainer;
 	}
 
 	/**
-	 * Initialize property source and read properties from Vault.
+	 * Initialize property source and read properties from Vault. Properties are published
+	 * at once after reading so this method can be called from a different thread than
+	 * the one reading properties.
 	 */
 	public void init() {
 
 		try {
-			Map<String, String> values = this.source.read(this.secureBackendAccessor);
-			if (values != null) {
-				this.properties.putAll(values);
-			}
+			load();
 		}
 		catch (Exception e) {
 
@@ -86,14 +105,82 @@ class VaultPropertySource extends EnumerablePropertySource<VaultConfigOperations
 		}
 	}
 
+	/**
+	 * Read properties from Vault and replace the current properties. Properties are
+	 * retained if Vault responds with an error.
+	 *
+	 * @return {@literal true} if properties were obtained from Vault.
+	 */
+	boolean load() {
+
+		Secrets secrets = Secrets.read(this.source, this.secureBackendAccessor);
+
+		if (leaseContainer != null) {
+			leaseContainer.addLease(secureBackendAccessor, secrets.getLease(), this);
+		}
+
+		if (secrets.getData() == null) {
+			return false;
+		}
+
+		setProperties(secrets.getData());
+		this.loaded = true;
+
+		return true;
+	}
+
+	/**
+	 * Restore properties, e.g. from a snapshot, without reading these from Vault.
+	 *
+	 * @param properties must not be {@literal null}.
+	 */
+	void restore(Map<String, String> properties) {
+
+		Assert.notNull(properties, "Properties must not be null!");
+
+		setProperties(properties);
+	}
+
+	/**
+	 * @return {@literal true} if properties were obtained from Vault.
+	 */
+	boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * @return the current properties.
+	 */
+	Map<String, String> getProperties() {
+		return properties;
+	}
+
+	@Override
+	public void onSecretsRotated(SecureBackendAccessor secureBackendAccessor,
+			Secrets secrets) {
+		setProperties(secrets.getData());
+	}
+
+	private void setProperties(Map<String, String> properties) {
+		this.properties = ImmutablePropertyMap.of(properties);
+	}
+
 	@Override
 	public Object getProperty(String name) {
 		return this.properties.get(name);
 	}
 
+	@Override
+	public boolean containsProperty(String name) {
+		return this.properties.containsKey(name);
+	}
+
+	/**
+	 * Return the names of all properties. The returned array is cached and shared
+	 * between callers and must not be modified.
+	 */
 	@Override
 	public String[] getPropertyNames() {
-		Set<String> strings = this.properties.keySet();
-		return strings.toArray(new String[strings.size()]);
+		return this.properties.getNames();
 	}
 }
@@ -20,32 +20,75 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cloud.bootstrap.config.PropertySourceLocator;
 import org.springframework.cloud.vault.VaultClient;
 import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.VaultStartupTimings;
+import org.springframework.cloud.vault.VaultStartupTimings.Timer;
+import org.springframework.cloud.vault.config.VaultSnapshotStore.Snapshot;
 import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.PropertySource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
+import lombok.extern.apachecommons.CommonsLog;
+
 import static org.springframework.cloud.vault.config.SecureBackendAccessors.*;
 
 /**
- * {@link PropertySourceLocator} using {@link VaultClient}.
+ * {@link PropertySourceLocator} using {@link VaultClient}. Property sources are
+ * initialized sequentially or, if {@link VaultProperties.Bootstrap#isConcurrent()} is
+ * enabled, concurrently using a bounded number of threads. Both modes retain the order
+ * of property sources.
+ * <p>
+ * With a {@link VaultSnapshotStore}, generic backend property sources are restored from
+ * a snapshot that is not older than
+ * {@link VaultProperties.SnapshotProperties#getMaxStaleness()} and revalidated against
+ * Vault in the background on a single thread owned by the locator so that slow reads
+ * do not delay token and lease renewals. Property sources are read from Vault and a
+ * new snapshot is stored if there is no usable snapshot. Pending revalidations are
+ * skipped once the locator was destroyed along with its context.
  *
  * @author Spencer Gibb
  * @author Mark Paluch
  */
-class VaultPropertySourceLocator implements PropertySourceLocator {
+@CommonsLog
+class VaultPropertySourceLocator implements PropertySourceLocator, DisposableBean {
 
 	private final VaultConfigOperations operations;
 	private final VaultProperties properties;
 	private final VaultGenericBackendProperties genericBackendProperties;
 	private final Collection<SecureBackendAccessor> backendAccessors;
+	private final SecretLeaseContainer leaseContainer;
+
+	private VaultConfigOperations genericOperations;
+	private VaultStartupTimings startupTimings;
+	private VaultSnapshotStore snapshotStore;
+	private EnvironmentChangeEventPublisher eventPublisher;
+	private VaultPropertySourceWatcher watcher;
+	private ExecutorService revalidationExecutor;
+
+	private volatile boolean destroyed;
 
 	/**
 	 * Creates a new {@link VaultPropertySourceLocator}.
@@ -59,6 +102,24 @@ class VaultPropertySourceLocator implements PropertySourceLocator {
 			VaultProperties properties,
 			VaultGenericBackendProperties genericBackendProperties,
 			Collection<SecureBackendAccessor> backendAccessors) {
+		this(operations, properties, genericBackendProperties, backendAccessors, null);
+	}
+
+	/**
+	 * Creates a new {@link VaultPropertySourceLocator} that registers leases with a
+	 * {@link SecretLeaseContainer}.
+	 *
+	 * @param operations must not be {@literal null}.
+	 * @param properties must not be {@literal null}.
+	 * @param genericBackendProperties must not be {@literal null}.
+	 * @param backendAccessors must not be {@literal null}.
+	 * @param leaseContainer may be {@literal null}.
+	 */
+	public VaultPropertySourceLocator(VaultConfigOperations operations,
+			VaultProperties properties,
+			VaultGenericBackendProperties genericBackendProperties,
+			Collection<SecureBackendAccessor> backendAccessors,
+			SecretLeaseContainer leaseContainer) {
 
 		Assert.notNull(operations, "VaultConfigOperations must not be null");
 		Assert.notNull(properties, "VaultProperties must not be null");
@@ -70,6 +131,74 @@ class VaultPropertySourceLocator implements PropertySourceLocator {
 		this.properties = properties;
 		this.backendAccessors = backendAccessors;
 		this.genericBackendProperties = genericBackendProperties;
+		this.leaseContainer = leaseContainer;
+	}
+
+	/**
+	 * Set {@link VaultConfigOperations} to read generic backend property sources, e.g.
+	 * {@link RecursiveVaultConfigOperations}. Generic backend property sources use the
+	 * default {@link VaultConfigOperations} if not set.
+	 *
+	 * @param genericOperations may be {@literal null}.
+	 */
+	public void setGenericOperations(VaultConfigOperations genericOperations) {
+		this.genericOperations = genericOperations;
+	}
+
+	/**
+	 * Set {@link VaultStartupTimings} to record the time to initialize each
+	 * {@link VaultPropertySource}. The timings are completed once all property sources
+	 * are located.
+	 *
+	 * @param startupTimings may be {@literal null}.
+	 */
+	public void setStartupTimings(VaultStartupTimings startupTimings) {
+		this.startupTimings = startupTimings;
+	}
+
+	/**
+	 * Set a {@link VaultSnapshotStore} to restore generic backend property sources from
+	 * and to store snapshots in.
+	 *
+	 * @param snapshotStore may be {@literal null}.
+	 */
+	public void setSnapshotStore(VaultSnapshotStore snapshotStore) {
+		this.snapshotStore = snapshotStore;
+	}
+
+	/**
+	 * Set an {@link EnvironmentChangeEventPublisher} to publish changes found while
+	 * revalidating a snapshot.
+	 *
+	 * @param eventPublisher may be {@literal null}.
+	 */
+	public void setEnvironmentChangeEventPublisher(
+			EnvironmentChangeEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+	}
+
+	/**
+	 * Set a {@link VaultPropertySourceWatcher} to poll generic backend property sources
+	 * for changes once they are located.
+	 *
+	 * @param watcher may be {@literal null}.
+	 */
+	public void setWatcher(VaultPropertySourceWatcher watcher) {
+		this.watcher = watcher;
+	}
+
+	@Override
+	public void destroy() {
+
+		this.destroyed = true;
+
+		synchronized (this) {
+
+			if (revalidationExecutor != null) {
+				revalidationExecutor.shutdownNow();
+				revalidationExecutor = null;
+			}
+		}
 	}
 
 	@Override
@@ -77,8 +206,28 @@ class VaultPropertySourceLocator implements PropertySourceLocator {
 
 		if (environment instanceof ConfigurableEnvironment) {
 
-			CompositePropertySource propertySource = createCompositePropertySource((ConfigurableEnvironment) environment);
-			initialize(propertySource);
+			ConfigurableEnvironment env = (ConfigurableEnvironment) environment;
+			CompositePropertySource propertySource = createCompositePropertySource(env);
+
+			try {
+				if (snapshotStore != null) {
+					initializeWithSnapshot(propertySource,
+							getGenericPropertySourceNames(env));
+				}
+				else {
+					initialize(propertySource);
+				}
+			}
+			finally {
+				if (startupTimings != null) {
+					startupTimings.complete();
+				}
+			}
+
+			if (watcher != null) {
+				watcher.watch(getPropertySources(propertySource,
+						getGenericPropertySourceNames(env)));
+			}
 
 			return propertySource;
 		}
@@ -123,8 +272,10 @@ class VaultPropertySourceLocator implements PropertySourceLocator {
 
 				if (StringUtils.hasText(propertySourceContext)) {
 
-					VaultPropertySource vaultPropertySource = createVaultPropertySource(generic(
-							genericBackendProperties.getBackend(), propertySourceContext));
+					VaultPropertySource vaultPropertySource = createVaultPropertySource(
+							genericOperations != null ? genericOperations : operations,
+							generic(genericBackendProperties.getBackend(),
+									propertySourceContext));
 
 					propertySource.addPropertySource(vaultPropertySource);
 				}
@@ -133,21 +284,352 @@ class VaultPropertySourceLocator implements PropertySourceLocator {
 
 		for (SecureBackendAccessor backendAccessor : backendAccessors) {
 
-			VaultPropertySource vaultPropertySource = createVaultPropertySource(backendAccessor);
+			VaultPropertySource vaultPropertySource = createVaultPropertySource(
+					operations, backendAccessor);
 			propertySource.addPropertySource(vaultPropertySource);
 		}
 		return propertySource;
 	}
 
+	private Set<String> getGenericPropertySourceNames(ConfigurableEnvironment env) {
+
+		Set<String> names = new LinkedHashSet<>();
+
+		if (genericBackendProperties.isEnabled()) {
+			for (String context : buildContexts(env)) {
+				if (StringUtils.hasText(context)) {
+					names.add(generic(genericBackendProperties.getBackend(), context)
+							.getName());
+				}
+			}
+		}
+
+		return names;
+	}
+
+	private static List<VaultPropertySource> getPropertySources(
+			CompositePropertySource propertySource, Set<String> names) {
+
+		List<VaultPropertySource> propertySources = new ArrayList<>();
+
+		for (PropertySource<?> source : propertySource.getPropertySources()) {
+			if (names.contains(source.getName())) {
+				propertySources.add((VaultPropertySource) source);
+			}
+		}
+
+		return propertySources;
+	}
+
 	protected void initialize(CompositePropertySource propertySource) {
+		initialize(propertySource.getPropertySources());
+	}
+
+	/**
+	 * Restore generic backend property sources from a snapshot and revalidate these in
+	 * the background. Other property sources are initialized from Vault. Without a
+	 * usable snapshot, all property sources are initialized from Vault and a new snapshot
+	 * is stored.
+	 *
+	 * @param propertySource must not be {@literal null}.
+	 * @param names names of the generic backend property sources.
+	 */
+	private void initializeWithSnapshot(CompositePropertySource propertySource,
+			Set<String> names) {
+
+		Snapshot snapshot = names.isEmpty() ? null : loadSnapshot();
+		List<VaultPropertySource> generic = new ArrayList<>();
+		List<PropertySource<?>> other = new ArrayList<>();
 
 		for (PropertySource<?> source : propertySource.getPropertySources()) {
-			((VaultPropertySource) source).init();
+
+			if (names.contains(source.getName())) {
+				generic.add((VaultPropertySource) source);
+			}
+			else {
+				other.add(source);
+			}
+		}
+
+		if (snapshot == null
+				|| !snapshot.getPropertySources().keySet().containsAll(names)) {
+
+			initialize(propertySource.getPropertySources());
+			storeSnapshot(generic);
+			return;
+		}
+
+		for (VaultPropertySource source : generic) {
+			source.restore(snapshot.getPropertySources().get(source.getName()));
+		}
+
+		log.info(String.format(
+				"Restored %d property sources from snapshot created %d ms ago",
+				generic.size(), System.currentTimeMillis() - snapshot.getCreated()));
+
+		initialize(other);
+		revalidateInBackground(generic);
+	}
+
+	private Snapshot loadSnapshot() {
+
+		if (startupTimings == null) {
+			return snapshotStore.load();
+		}
+
+		Timer timer = startupTimings.start("snapshot");
+		try {
+			return snapshotStore.load();
+		}
+		finally {
+			timer.stop();
+		}
+	}
+
+	private void storeSnapshot(List<VaultPropertySource> propertySources) {
+
+		Map<String, Map<String, String>> contents = new LinkedHashMap<>();
+
+		for (VaultPropertySource source : propertySources) {
+
+			if (!source.isLoaded()) {
+				log.warn(String.format(
+						"Not storing snapshot, %s was not read from Vault",
+						source.getName()));
+				return;
+			}
+
+			contents.put(source.getName(), source.getProperties());
+		}
+
+		if (!contents.isEmpty()) {
+			snapshotStore.store(contents);
+		}
+	}
+
+	private synchronized void revalidateInBackground(
+			final List<VaultPropertySource> propertySources) {
+
+		if (destroyed) {
+			return;
+		}
+
+		if (revalidationExecutor == null) {
+
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+					"spring-cloud-vault-snapshot-");
+			threadFactory.setDaemon(true);
+
+			revalidationExecutor = Executors.newSingleThreadExecutor(threadFactory);
+		}
+
+		try {
+			revalidationExecutor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					revalidate(propertySources);
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			log.warn("Cannot revalidate snapshot, retaining snapshot", e);
+		}
+	}
+
+	/**
+	 * Read property sources from Vault, replacing the restored properties, and store a
+	 * new snapshot if all property sources were read. Changed properties are published
+	 * as {@link org.springframework.cloud.context.environment.EnvironmentChangeEvent}.
+	 * Revalidation is skipped once the locator was destroyed.
+	 *
+	 * @param propertySources must not be {@literal null}.
+	 */
+	void revalidate(List<VaultPropertySource> propertySources) {
+
+		Set<String> changed = new HashSet<>();
+
+		try {
+
+			for (VaultPropertySource source : propertySources) {
+
+				if (destroyed) {
+					return;
+				}
+
+				Map<String, String> previous = source.getProperties();
+
+				try {
+					if (!source.load()) {
+						log.warn(String.format(
+								"Cannot revalidate %s, retaining snapshot",
+								source.getName()));
+						return;
+					}
+				}
+				catch (RuntimeException e) {
+					log.warn(String.format("Cannot revalidate %s, retaining snapshot",
+							source.getName()), e);
+					return;
+				}
+
+				collectChanges(previous, source.getProperties(), changed);
+			}
+
+			storeSnapshot(propertySources);
+		}
+		finally {
+			if (eventPublisher != null) {
+				eventPublisher.publishChange(changed);
+			}
+		}
+	}
+
+	/**
+	 * Collect keys that differ between {@code previous} and {@code current} into
+	 * {@code changed}.
+	 *
+	 * @param previous must not be {@literal null}.
+	 * @param current must not be {@literal null}.
+	 * @param changed must not be {@literal null}.
+	 */
+	static void collectChanges(Map<String, String> previous,
+			Map<String, String> current, Set<String> changed) {
+
+		for (Map.Entry<String, String> entry : previous.entrySet()) {
+			if (!ObjectUtils.nullSafeEquals(entry.getValue(),
+					current.get(entry.getKey()))) {
+				changed.add(entry.getKey());
+			}
+		}
+
+		for (String key : current.keySet()) {
+			if (!previous.containsKey(key)) {
+				changed.add(key);
+			}
+		}
+	}
+
+	private void initialize(Collection<PropertySource<?>> propertySources) {
+
+		VaultProperties.Bootstrap bootstrap = this.properties.getBootstrap();
+
+		if (bootstrap.isConcurrent() && propertySources.size() > 1) {
+			initializeConcurrently(propertySources, bootstrap);
+			return;
+		}
+
+		for (PropertySource<?> source : propertySources) {
+			init((VaultPropertySource) source);
+		}
+	}
+
+	/**
+	 * Initialize all {@link VaultPropertySource}s concurrently and wait until all
+	 * property sources are initialized or the deadline is exceeded. Failures are
+	 * reported in the order of the property sources to retain the semantics of the
+	 * sequential initialization.
+	 *
+	 * @param propertySources must not be {@literal null}.
+	 * @param bootstrap must not be {@literal null}.
+	 */
+	private void initializeConcurrently(Collection<PropertySource<?>> propertySources,
+			VaultProperties.Bootstrap bootstrap) {
+
+		List<VaultPropertySource> vaultPropertySources = new ArrayList<>();
+		List<Callable<Void>> tasks = new ArrayList<>();
+
+		for (PropertySource<?> source : propertySources) {
+
+			final VaultPropertySource vaultPropertySource = (VaultPropertySource) source;
+			vaultPropertySources.add(vaultPropertySource);
+			tasks.add(new Callable<Void>() {
+
+				@Override
+				public Void call() throws Exception {
+					init(vaultPropertySource);
+					return null;
+				}
+			});
+		}
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"spring-cloud-vault-bootstrap-");
+		threadFactory.setDaemon(true);
+
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(bootstrap.getParallelism(), tasks.size()), threadFactory);
+
+		try {
+
+			List<Future<Void>> futures = executor.invokeAll(tasks,
+					bootstrap.getTimeout(), TimeUnit.MILLISECONDS);
+
+			for (int i = 0; i < futures.size(); i++) {
+				awaitInitialization(vaultPropertySources.get(i), futures.get(i));
+			}
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(
+					"Interrupted while reading properties from Vault", e);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void awaitInitialization(VaultPropertySource propertySource,
+			Future<Void> future) throws InterruptedException {
+
+		try {
+			future.get();
+		}
+		catch (CancellationException e) {
+
+			String message = String.format(
+					"Timed out after %d ms while reading properties from Vault for %s",
+					this.properties.getBootstrap().getTimeout(),
+					propertySource.getName());
+
+			if (this.properties.isFailFast()) {
+				throw new IllegalStateException(message);
+			}
+
+			log.error(message);
+		}
+		catch (ExecutionException e) {
+
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private void init(VaultPropertySource propertySource) {
+
+		if (startupTimings == null) {
+			propertySource.init();
+			return;
+		}
+
+		Timer timer = startupTimings.start(String.format("property-source %s",
+				propertySource.getName()));
+		try {
+			propertySource.init();
+		}
+		finally {
+			timer.stop();
 		}
 	}
 
-	private VaultPropertySource createVaultPropertySource(SecureBackendAccessor accessor) {
-		return new VaultPropertySource(this.operations, this.properties, accessor);
+	private VaultPropertySource createVaultPropertySource(
+			VaultConfigOperations operations, SecureBackendAccessor accessor) {
+		return new VaultPropertySource(operations, this.properties, accessor,
+				this.leaseContainer);
 	}
 
 	private void addProfiles(List<String> contexts, String baseContext,
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.vault.Sha256;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.Assert;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Watcher polling generic backend {@link VaultPropertySource}s for changes. Each poll
+ * reads the property sources from Vault and compares a SHA-256 digest of their
+ * properties with the digest of the previous poll. Only keys of changed property
+ * sources are compared and changed keys are published as
+ * {@link org.springframework.cloud.context.environment.EnvironmentChangeEvent}.
+ * <p>
+ * Polling is adaptive: the poll interval starts at
+ * {@link VaultGenericBackendProperties.Watch#getInterval()} and is multiplied by
+ * {@link VaultGenericBackendProperties.Watch#getBackoffMultiplier()} after each poll
+ * without changes or with errors up to
+ * {@link VaultGenericBackendProperties.Watch#getMaxInterval()}. A change resets the
+ * interval. Each delay is randomized by
+ * {@link VaultGenericBackendProperties.Watch#getJitter()} to spread polls of many
+ * instances.
+ * <p>
+ * Polls run on a single thread owned by the watcher so that slow reads do not delay
+ * token and lease renewals. Property sources are loaded without holding the watcher's
+ * lock.
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+class VaultPropertySourceWatcher implements DisposableBean {
+
+	private final VaultGenericBackendProperties.Watch watch;
+	private final EnvironmentChangeEventPublisher eventPublisher;
+	private final Random random = new Random();
+	private final Map<VaultPropertySource, String> digests = new IdentityHashMap<>();
+
+	private List<VaultPropertySource> propertySources = Collections.emptyList();
+	private ThreadPoolTaskScheduler taskScheduler;
+	private ScheduledFuture<?> scheduledFuture;
+	private long interval;
+	private boolean destroyed;
+
+	/**
+	 * Creates a new {@link VaultPropertySourceWatcher}.
+	 *
+	 * @param watch must not be {@literal null}.
+	 * @param eventPublisher must not be {@literal null}.
+	 */
+	VaultPropertySourceWatcher(VaultGenericBackendProperties.Watch watch,
+			EnvironmentChangeEventPublisher eventPublisher) {
+
+		Assert.notNull(watch, "Watch properties must not be null!");
+		Assert.notNull(eventPublisher, "EnvironmentChangeEventPublisher must not be null!");
+
+		this.watch = watch;
+		this.eventPublisher = eventPublisher;
+	}
+
+	/**
+	 * Watch the given {@link VaultPropertySource}s, replacing previously watched
+	 * property sources. Does nothing if watching is disabled.
+	 *
+	 * @param propertySources must not be {@literal null}.
+	 */
+	synchronized void watch(List<VaultPropertySource> propertySources) {
+
+		Assert.notNull(propertySources, "PropertySources must not be null!");
+
+		if (!watch.isEnabled() || destroyed) {
+			return;
+		}
+
+		cancel();
+
+		this.propertySources = new ArrayList<>(propertySources);
+		this.digests.clear();
+
+		for (VaultPropertySource propertySource : this.propertySources) {
+			digests.put(propertySource, Sha256.toSha256(propertySource.getProperties()));
+		}
+
+		if (!this.propertySources.isEmpty()) {
+			this.interval = watch.getInterval();
+			schedule();
+		}
+	}
+
+	/**
+	 * Poll all watched property sources once, publish changed keys and schedule the
+	 * next poll. Results of a poll are discarded if the watched property sources were
+	 * replaced or the watcher was destroyed while loading.
+	 */
+	void poll() {
+
+		List<VaultPropertySource> propertySources;
+		synchronized (this) {
+
+			if (destroyed) {
+				return;
+			}
+
+			propertySources = this.propertySources;
+		}
+
+		List<Map<String, String>> previous = new ArrayList<>();
+		List<String> loaded = new ArrayList<>();
+
+		for (VaultPropertySource propertySource : propertySources) {
+
+			previous.add(propertySource.getProperties());
+
+			try {
+				loaded.add(propertySource.load() ? Sha256.toSha256(propertySource
+						.getProperties()) : null);
+			}
+			catch (RuntimeException e) {
+
+				log.warn(String.format("Cannot poll %s for changes",
+						propertySource.getName()), e);
+				loaded.add(null);
+			}
+		}
+
+		Set<String> changed = new HashSet<>();
+
+		synchronized (this) {
+
+			if (destroyed || propertySources != this.propertySources) {
+				return;
+			}
+
+			for (int i = 0; i < propertySources.size(); i++) {
+
+				VaultPropertySource propertySource = propertySources.get(i);
+				String digest = loaded.get(i);
+
+				if (digest != null && !digest.equals(digests.get(propertySource))) {
+					digests.put(propertySource, digest);
+					VaultPropertySourceLocator.collectChanges(previous.get(i),
+							propertySource.getProperties(), changed);
+				}
+			}
+
+			if (changed.isEmpty()) {
+				interval = Math.min(watch.getMaxInterval(),
+						(long) (interval * watch.getBackoffMultiplier()));
+			}
+			else {
+				interval = watch.getInterval();
+			}
+
+			schedule();
+		}
+
+		if (!changed.isEmpty()) {
+
+			log.info(String.format("Detected %d changed properties in Vault",
+					changed.size()));
+
+			eventPublisher.publishChange(changed);
+		}
+	}
+
+	/**
+	 * @return the current poll interval in milliseconds.
+	 */
+	synchronized long getInterval() {
+		return interval;
+	}
+
+	/**
+	 * Calculate the delay until the next poll by applying a random jitter to the current
+	 * interval.
+	 *
+	 * @return the delay in milliseconds.
+	 */
+	long getDelay() {
+
+		double factor;
+		synchronized (random) {
+			factor = 1 + watch.getJitter() * (2 * random.nextDouble() - 1);
+		}
+
+		return Math.max(0, (long) (getInterval() * factor));
+	}
+
+	@Override
+	public synchronized void destroy() {
+
+		this.destroyed = true;
+		cancel();
+
+		if (taskScheduler != null) {
+			taskScheduler.shutdown();
+			taskScheduler = null;
+		}
+	}
+
+	private void schedule() {
+
+		if (taskScheduler == null) {
+
+			taskScheduler = new ThreadPoolTaskScheduler();
+			taskScheduler.setPoolSize(1);
+			taskScheduler.setThreadNamePrefix("spring-cloud-vault-watch-");
+			taskScheduler.setDaemon(true);
+			taskScheduler.afterPropertiesSet();
+		}
+
+		scheduledFuture = taskScheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				poll();
+			}
+		}, new Date(System.currentTimeMillis() + getDelay()));
+	}
+
+	private void cancel() {
+
+		if (scheduledFuture != null) {
+			scheduledFuture.cancel(false);
+			scheduledFuture = null;
+		}
+	}
+}
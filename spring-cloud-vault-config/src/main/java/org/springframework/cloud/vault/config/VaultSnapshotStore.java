@@ -0,0 +1,340 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.cloud.vault.VaultClientResponse;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.config.VaultOperations.SessionCallback;
+import org.springframework.cloud.vault.config.VaultOperations.VaultSession;
+import org.springframework.util.Assert;
+import org.springframework.util.Base64Utils;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Value;
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Store for encrypted local snapshots of property sources. Each snapshot is encrypted
+ * with a fresh data key obtained from the Vault transit backend
+ * ({@code transit/datakey/plaintext}). The snapshot file contains only the data key
+ * wrapped by the transit key so reading a snapshot requires a single
+ * {@code transit/decrypt} request. Snapshots are encrypted using AES-128 in CBC mode and
+ * authenticated with HMAC-SHA256 covering the creation time, the IV and the cipher text.
+ * <p>
+ * Snapshots that cannot be read, decrypted or verified, and snapshots older than
+ * {@link VaultProperties.SnapshotProperties#getMaxStaleness()} are ignored.
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+class VaultSnapshotStore {
+
+	private final static int VERSION = 1;
+	private final static int KEY_BITS = 256;
+	private final static String CIPHER = "AES/CBC/PKCS5Padding";
+	private final static String MAC = "HmacSHA256";
+
+	private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	private final static TypeReference<Map<String, Object>> FILE_TYPE = new TypeReference<Map<String, Object>>() {
+	};
+	private final static TypeReference<Map<String, Map<String, String>>> CONTENT_TYPE = new TypeReference<Map<String, Map<String, String>>>() {
+	};
+
+	private final VaultOperations operations;
+	private final VaultProperties.SnapshotProperties properties;
+	private final File file;
+	private final SecureRandom random = new SecureRandom();
+
+	/**
+	 * Creates a new {@link VaultSnapshotStore}.
+	 *
+	 * @param operations must not be {@literal null}.
+	 * @param properties must not be {@literal null}.
+	 */
+	public VaultSnapshotStore(VaultOperations operations,
+			VaultProperties.SnapshotProperties properties) {
+
+		Assert.notNull(operations, "VaultOperations must not be null!");
+		Assert.notNull(properties, "SnapshotProperties must not be null!");
+		Assert.hasText(properties.getFile(), "Snapshot file must not be empty!");
+
+		this.operations = operations;
+		this.properties = properties;
+		this.file = new File(properties.getFile());
+	}
+
+	/**
+	 * Load the snapshot.
+	 *
+	 * @return the {@link Snapshot} or {@literal null} if there is no usable snapshot.
+	 */
+	public Snapshot load() {
+
+		if (!file.isFile()) {
+			return null;
+		}
+
+		try {
+
+			Map<String, Object> contents = OBJECT_MAPPER.readValue(file, FILE_TYPE);
+
+			if (!Integer.valueOf(VERSION).equals(contents.get("version"))) {
+				log.warn(String.format("Ignoring snapshot %s with unsupported version %s",
+						file, contents.get("version")));
+				return null;
+			}
+
+			long created = ((Number) contents.get("created")).longValue();
+			long age = System.currentTimeMillis() - created;
+
+			if (age > properties.getMaxStaleness()) {
+				log.info(String.format("Ignoring snapshot %s, age of %d ms exceeds %d ms",
+						file, age, properties.getMaxStaleness()));
+				return null;
+			}
+
+			byte[] key = decryptDataKey((String) contents.get("key"));
+			byte[] iv = Base64Utils.decodeFromString((String) contents.get("iv"));
+			byte[] cipherText = Base64Utils.decodeFromString((String) contents
+					.get("data"));
+			byte[] mac = Base64Utils.decodeFromString((String) contents.get("mac"));
+
+			if (!MessageDigest.isEqual(mac, mac(key, created, iv, cipherText))) {
+				log.warn(String.format("Ignoring snapshot %s, verification failed", file));
+				return null;
+			}
+
+			Cipher cipher = Cipher.getInstance(CIPHER);
+			cipher.init(Cipher.DECRYPT_MODE, encryptionKey(key), new IvParameterSpec(iv));
+
+			Map<String, Map<String, String>> propertySources = OBJECT_MAPPER.readValue(
+					cipher.doFinal(cipherText), CONTENT_TYPE);
+
+			return new Snapshot(created, Collections.unmodifiableMap(propertySources));
+		}
+		catch (IOException | GeneralSecurityException | RuntimeException e) {
+			log.warn(String.format("Cannot load snapshot %s", file), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Encrypt and store a snapshot of {@code propertySources}. The snapshot file is
+	 * replaced atomically. Failures are logged.
+	 *
+	 * @param propertySources property source names mapped to their properties, must not
+	 * be {@literal null}.
+	 */
+	public void store(Map<String, Map<String, String>> propertySources) {
+
+		Assert.notNull(propertySources, "Property sources must not be null!");
+
+		File tempFile = null;
+
+		try {
+
+			Map<String, String> dataKey = createDataKey();
+			byte[] key = Base64Utils.decodeFromString(dataKey.get("plaintext"));
+			byte[] iv = new byte[16];
+			random.nextBytes(iv);
+
+			Cipher cipher = Cipher.getInstance(CIPHER);
+			cipher.init(Cipher.ENCRYPT_MODE, encryptionKey(key), new IvParameterSpec(iv));
+
+			byte[] cipherText = cipher.doFinal(OBJECT_MAPPER
+					.writeValueAsBytes(propertySources));
+			long created = System.currentTimeMillis();
+
+			Map<String, Object> contents = new LinkedHashMap<>();
+			contents.put("version", VERSION);
+			contents.put("created", created);
+			contents.put("key", dataKey.get("ciphertext"));
+			contents.put("iv", Base64Utils.encodeToString(iv));
+			contents.put("data", Base64Utils.encodeToString(cipherText));
+			contents.put("mac", Base64Utils.encodeToString(mac(key, created, iv,
+					cipherText)));
+
+			File directory = file.getAbsoluteFile().getParentFile();
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException(String.format("Cannot create directory %s",
+						directory));
+			}
+
+			tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+			restrictPermissions(tempFile);
+			OBJECT_MAPPER.writeValue(tempFile, contents);
+
+			move(tempFile, file);
+
+			if (log.isDebugEnabled()) {
+				log.debug(String.format("Stored snapshot of %d property sources in %s",
+						propertySources.size(), file));
+			}
+		}
+		catch (IOException | GeneralSecurityException | RuntimeException e) {
+			log.warn(String.format("Cannot store snapshot %s", file), e);
+		}
+		finally {
+			if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+				tempFile.deleteOnExit();
+			}
+		}
+	}
+
+	private Map<String, String> createDataKey() {
+
+		VaultClientResponse response = operations.doWithVault(
+				"{transit}/datakey/plaintext/{key}", transitVariables(),
+				new TransitCallback(Collections.singletonMap("bits", KEY_BITS)));
+
+		return getData(response, "plaintext", "ciphertext");
+	}
+
+	private byte[] decryptDataKey(String ciphertext) {
+
+		Assert.hasText(ciphertext, "Snapshot data key must not be empty!");
+
+		VaultClientResponse response = operations.doWithVault(
+				"{transit}/decrypt/{key}", transitVariables(), new TransitCallback(
+						Collections.singletonMap("ciphertext", ciphertext)));
+
+		return Base64Utils.decodeFromString(getData(response, "plaintext").get(
+				"plaintext"));
+	}
+
+	private Map<String, String> transitVariables() {
+
+		Map<String, String> variables = new HashMap<>();
+		variables.put("transit", properties.getTransitPath());
+		variables.put("key", properties.getTransitKey());
+		return variables;
+	}
+
+	private static Map<String, String> getData(VaultClientResponse response,
+			String... keys) {
+
+		if (!response.isSuccessful()) {
+			throw new IllegalStateException(String.format(
+					"Transit request to %s failed: Status %d %s", response.getUri(),
+					response.getStatusCode().value(), response.getMessage()));
+		}
+
+		Map<String, String> data = response.getBody().getData();
+
+		for (String key : keys) {
+			if (data == null || !StringUtils.hasText(data.get(key))) {
+				throw new IllegalStateException(String.format(
+						"Transit response from %s does not contain %s",
+						response.getUri(), key));
+			}
+		}
+
+		return data;
+	}
+
+	private static SecretKeySpec encryptionKey(byte[] key) {
+		return new SecretKeySpec(key, 0, key.length / 2, "AES");
+	}
+
+	private static byte[] mac(byte[] key, long created, byte[] iv, byte[] cipherText)
+			throws GeneralSecurityException {
+
+		Mac mac = Mac.getInstance(MAC);
+		mac.init(new SecretKeySpec(key, key.length / 2, key.length / 2, MAC));
+		mac.update(ByteBuffer.allocate(8).putLong(created).array());
+		mac.update(iv);
+
+		return mac.doFinal(cipherText);
+	}
+
+	private static void restrictPermissions(File file) throws IOException {
+
+		try {
+			Files.setPosixFilePermissions(file.toPath(),
+					PosixFilePermissions.fromString("rw-------"));
+		}
+		catch (UnsupportedOperationException e) {
+			// not a POSIX file system
+		}
+	}
+
+	private static void move(File source, File target) throws IOException {
+
+		try {
+			Files.move(source.toPath(), target.toPath(),
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Value object for a loaded snapshot.
+	 */
+	@Value
+	static class Snapshot {
+
+		/**
+		 * Creation time in milliseconds since the epoch.
+		 */
+		private long created;
+
+		/**
+		 * Property source names mapped to their properties.
+		 */
+		private Map<String, Map<String, String>> propertySources;
+	}
+
+	static class TransitCallback implements SessionCallback {
+
+		private final Object body;
+
+		TransitCallback(Object body) {
+			this.body = body;
+		}
+
+		@Override
+		public VaultClientResponse doWithVault(URI uri, VaultSession session) {
+			return session.write(uri, body);
+		}
+	}
+}
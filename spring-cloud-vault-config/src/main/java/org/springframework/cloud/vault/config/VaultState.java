@@ -20,11 +20,12 @@ import lombok.Data;
 import org.springframework.cloud.vault.VaultToken;
 
 /**
- * State of the Vault client.
+ * State of the Vault client. The state is shared between threads using the client and
+ * threads renewing the token.
  *
  * @author Mark Paluch
  */
 @Data
 class VaultState {
-	private VaultToken token;
+	private volatile VaultToken token;
 }
@@ -16,29 +16,40 @@
 package org.springframework.cloud.vault.config;
 
 import java.net.URI;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.cloud.vault.ClientAuthentication;
 import org.springframework.cloud.vault.VaultClient;
 import org.springframework.cloud.vault.VaultClientResponse;
+import org.springframework.cloud.vault.VaultEndpoint;
 import org.springframework.cloud.vault.VaultProperties;
 import org.springframework.cloud.vault.VaultToken;
+import org.springframework.cloud.vault.config.BatchReads.ReadCallback;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.util.Assert;
 
 /**
  * This class encapsulates main Vault interaction. {@link VaultTemplate} will log into
- * Vault on initialization and use the token throughout the whole lifetime.
+ * Vault on initialization. The token is renewed in the background if a
+ * {@link TaskScheduler} is configured, otherwise the token is used throughout the whole
+ * lifetime. Requests in an authenticated session are limited to
+ * {@link VaultProperties.Http#getMaxConnectionsPerRoute()} requests in flight across all
+ * callers of this template.
  *
  * @author Mark Paluch
  */
-public class VaultTemplate implements InitializingBean, VaultOperations {
+public class VaultTemplate implements InitializingBean, DisposableBean, VaultOperations {
 
 	private final VaultProperties properties;
 	private final VaultClient client;
-	private final ClientAuthentication clientAuthentication;
-	private final transient VaultState vaultState = new VaultState();
+	private final LifecycleAwareSessionManager sessionManager;
+	private final BatchReads batchReads;
 	private final VaultSession vaultSession;
+	private final VaultConfigTemplate configTemplate;
 
 	/**
 	 * Creates a new {@link VaultConfigTemplate} for the given {@link VaultProperties},
@@ -50,6 +61,21 @@ public class VaultTemplate implements InitializingBean, VaultOperations {
 	 */
 	public VaultTemplate(VaultProperties properties, VaultClient client,
 			ClientAuthentication clientAuthentication) {
+		this(properties, client, clientAuthentication, null);
+	}
+
+	/**
+	 * Creates a new {@link VaultConfigTemplate} for the given {@link VaultProperties},
+	 * {@link VaultClient} and {@link ClientAuthentication} that renews its token using
+	 * the {@link TaskScheduler}.
+	 *
+	 * @param properties must not be {@literal null}.
+	 * @param client must not be {@literal null}.
+	 * @param clientAuthentication must not be {@literal null}.
+	 * @param taskScheduler may be {@literal null} to disable background token renewal.
+	 */
+	public VaultTemplate(VaultProperties properties, VaultClient client,
+			ClientAuthentication clientAuthentication, TaskScheduler taskScheduler) {
 
 		Assert.notNull(properties, "VaultProperties must not be null!");
 		Assert.notNull(client, "VaultClient must not be null!");
@@ -57,41 +83,92 @@ public class VaultTemplate implements InitializingBean, VaultOperations {
 
 		this.properties = properties;
 		this.client = client;
-		this.clientAuthentication = clientAuthentication;
+		this.sessionManager = new LifecycleAwareSessionManager(clientAuthentication,
+				client, properties, taskScheduler);
+		this.batchReads = new BatchReads(properties.getHttp().getMaxConnectionsPerRoute());
 		this.vaultSession = new VaultSession() {
 			@Override
 			public VaultClientResponse read(URI uri) {
-				return VaultTemplate.this.client.read(uri, getToken());
+
+				VaultToken token = getToken();
+
+				batchReads.acquire();
+				try {
+					return VaultTemplate.this.client.read(uri, token);
+				}
+				finally {
+					batchReads.release();
+				}
 			}
 
 			@Override
 			public VaultClientResponse write(URI uri, Object entity) {
-				return VaultTemplate.this.client.write(uri, entity, getToken());
+
+				VaultToken token = getToken();
+
+				batchReads.acquire();
+				try {
+					return VaultTemplate.this.client.write(uri, entity, token);
+				}
+				finally {
+					batchReads.release();
+				}
 			}
 		};
+		this.configTemplate = new VaultConfigTemplate(this, properties);
 	}
 
 	@Override
 	public void afterPropertiesSet() {
-		login();
+		sessionManager.login();
+	}
+
+	@Override
+	public void destroy() {
+
+		batchReads.destroy();
+		sessionManager.destroy();
 	}
 
-	private void login() {
-		vaultState.setToken(clientAuthentication.login());
+	VaultToken getToken() {
+		return sessionManager.getSessionToken();
 	}
 
-	private VaultToken getToken() {
+	/**
+	 * Obtain the {@link BatchReads} that limits the requests issued through this
+	 * template.
+	 *
+	 * @return the {@link BatchReads}.
+	 */
+	BatchReads getBatchReads() {
+		return batchReads;
+	}
 
-		if (vaultState.getToken() == null) {
-			login();
-		}
+	/**
+	 * Obtain the {@link VaultEndpoint} of this template. The endpoint is retained by the
+	 * {@link LifecycleAwareSessionManager} until scheme, host or port of
+	 * {@link VaultProperties} change.
+	 *
+	 * @return the {@link VaultEndpoint}.
+	 */
+	VaultEndpoint getEndpoint() {
+		return sessionManager.getEndpoint();
+	}
 
-		return vaultState.getToken();
+	/**
+	 * Build a {@link URI} by expanding {@code pathTemplate} with the {@link VaultClient}.
+	 *
+	 * @param pathTemplate must not be empty or {@literal null}.
+	 * @param variables must not be {@literal null}.
+	 * @return the expanded {@link URI}.
+	 */
+	URI buildUri(String pathTemplate, Map<String, ?> variables) {
+		return client.buildUri(properties, pathTemplate, variables);
 	}
 
 	@Override
 	public VaultConfigOperations opsForConfig() {
-		return new VaultConfigTemplate(this, properties);
+		return configTemplate;
 	}
 
 	@Override
@@ -99,7 +176,7 @@ public class VaultTemplate implements InitializingBean, VaultOperations {
 
 		Assert.notNull(sessionCallback, "SessionCallback must not be null!");
 
-		URI uri = client.buildUri(properties, path);
+		URI uri = URI.create(getEndpoint().createUriString(path));
 		return sessionCallback.doWithVault(uri, vaultSession);
 	}
 
@@ -112,4 +189,68 @@ public class VaultTemplate implements InitializingBean, VaultOperations {
 		URI uri = client.buildUri(properties, pathTemplate, variables);
 		return sessionCallback.doWithVault(uri, vaultSession);
 	}
+
+	/**
+	 * Executes a Vault {@link SessionCallback} for a {@link URI} that was built upfront.
+	 *
+	 * @param uri must not be {@literal null}.
+	 * @param sessionCallback must not be {@literal null}.
+	 * @return the result of {@link SessionCallback#doWithVault(URI, VaultSession)}.
+	 */
+	public <T> T doWithVault(URI uri, SessionCallback sessionCallback) {
+
+		Assert.notNull(uri, "URI must not be null!");
+		Assert.notNull(sessionCallback, "SessionCallback must not be null!");
+
+		return sessionCallback.doWithVault(uri, vaultSession);
+	}
+
+	/**
+	 * List keys at {@code path} in an authenticated session. Keys of nested paths end
+	 * with {@code /}.
+	 *
+	 * @param path the path of the resource ending with {@code /}, e.g.
+	 * {@code secret/myapp/}, must not be empty or {@literal null}.
+	 * @return the listed keys. May be empty but never {@literal null}.
+	 * @throws org.springframework.web.client.HttpStatusCodeException if Vault responded
+	 * with an error status.
+	 */
+	public List<String> list(String path) {
+
+		Assert.hasText(path, "Path must not be empty!");
+
+		URI uri = client.buildUri(properties, path + "?list=true");
+		VaultToken token = getToken();
+
+		batchReads.acquire();
+		try {
+			return client.list(uri, token);
+		}
+		finally {
+			batchReads.release();
+		}
+	}
+
+	/**
+	 * Read multiple {@code paths} in an authenticated session. Requests are issued
+	 * concurrently over pooled connections, limited to
+	 * {@link VaultProperties.Http#getMaxConnectionsPerRoute()} requests in flight. Failed
+	 * requests are reported per path, either as {@link VaultClientResponse} with an
+	 * error status or as {@link ReadResult} holding the exception.
+	 *
+	 * @param paths the paths of the resources, must not be {@literal null}.
+	 * @return the {@link ReadResult}s in the order of {@code paths}.
+	 */
+	public Map<String, ReadResult<VaultClientResponse>> readMany(Collection<String> paths) {
+
+		Assert.notNull(paths, "Paths must not be null!");
+
+		return batchReads.readAll(paths, new ReadCallback<String, VaultClientResponse>() {
+
+			@Override
+			public VaultClientResponse read(String path) {
+				return vaultSession.read(URI.create(getEndpoint().createUriString(path)));
+			}
+		});
+	}
 }
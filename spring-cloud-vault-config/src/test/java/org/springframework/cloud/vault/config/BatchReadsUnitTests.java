@@ -0,0 +1,225 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.cloud.vault.config.BatchReads.ReadCallback;
+
+/**
+ * Unit tests for {@link BatchReads}.
+ *
+ * @author Mark Paluch
+ */
+public class BatchReadsUnitTests {
+
+	@Test
+	public void shouldReadAllInOrder() {
+
+		Map<String, ReadResult<String>> results = new BatchReads(4).readAll(
+				Arrays.asList("c", "a", "b", "a"), new ReadCallback<String, String>() {
+
+					@Override
+					public String read(String source) {
+						return source.toUpperCase();
+					}
+				});
+
+		assertThat(results.keySet()).containsExactly("c", "a", "b");
+		assertThat(results.get("a").getValue()).isEqualTo("A");
+	}
+
+	@Test
+	public void shouldReportErrorsPerSource() {
+
+		Map<String, ReadResult<String>> results = new BatchReads(2).readAll(
+				Arrays.asList("ok", "fail"), new ReadCallback<String, String>() {
+
+					@Override
+					public String read(String source) {
+
+						if (source.equals("fail")) {
+							throw new IllegalStateException("Status 503");
+						}
+
+						return source;
+					}
+				});
+
+		assertThat(results.get("ok").isSuccessful()).isTrue();
+		assertThat(results.get("fail").isSuccessful()).isFalse();
+		assertThat(results.get("fail").getError()).hasMessage("Status 503");
+	}
+
+	@Test
+	public void shouldLimitConcurrency() {
+
+		final AtomicInteger concurrency = new AtomicInteger();
+		final AtomicInteger maxConcurrency = new AtomicInteger();
+
+		new BatchReads(3).readAll(
+				Arrays.asList("1", "2", "3", "4", "5", "6", "7", "8"),
+				new TrackingCallback(concurrency, maxConcurrency));
+
+		assertThat(maxConcurrency.get()).isGreaterThan(1).isLessThanOrEqualTo(3);
+	}
+
+	@Test
+	public void shouldLimitConcurrencyAcrossCallers() throws Exception {
+
+		final AtomicInteger concurrency = new AtomicInteger();
+		final AtomicInteger maxConcurrency = new AtomicInteger();
+		final BatchReads batchReads = new BatchReads(3);
+
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+
+		try {
+
+			List<Future<?>> futures = new ArrayList<>();
+
+			for (int i = 0; i < 2; i++) {
+				futures.add(callers.submit(new Runnable() {
+
+					@Override
+					public void run() {
+						batchReads.readAll(Arrays.asList("1", "2", "3", "4", "5", "6"),
+								new TrackingCallback(concurrency, maxConcurrency));
+					}
+				}));
+			}
+
+			for (Future<?> future : futures) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			callers.shutdownNow();
+			batchReads.destroy();
+		}
+
+		assertThat(maxConcurrency.get()).isGreaterThan(1).isLessThanOrEqualTo(3);
+	}
+
+	@Test
+	public void shouldReadNestedBatchesSequentially() {
+
+		final BatchReads batchReads = new BatchReads(2);
+		final ReadCallback<String, String> nested = new ReadCallback<String, String>() {
+
+			@Override
+			public String read(String source) {
+				return source.toUpperCase();
+			}
+		};
+
+		Map<String, ReadResult<String>> results = batchReads.readAll(
+				Arrays.asList("a", "b"), new ReadCallback<String, String>() {
+
+					@Override
+					public String read(String source) {
+						return batchReads.readAll(Arrays.asList(source, "c"), nested)
+								.get(source).getValue();
+					}
+				});
+
+		assertThat(results.get("a").getValue()).isEqualTo("A");
+		assertThat(results.get("b").getValue()).isEqualTo("B");
+	}
+
+	@Test
+	public void shouldBlockRequestsWithoutPermit() throws Exception {
+
+		final BatchReads batchReads = new BatchReads(1);
+		final CountDownLatch acquired = new CountDownLatch(1);
+
+		batchReads.acquire();
+
+		Thread thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+
+				batchReads.acquire();
+				acquired.countDown();
+				batchReads.release();
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+
+		assertThat(acquired.await(100, TimeUnit.MILLISECONDS)).isFalse();
+
+		batchReads.release();
+
+		assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void shouldRejectReadsAfterDestroy() {
+
+		BatchReads batchReads = new BatchReads(2);
+		batchReads.destroy();
+
+		batchReads.readAll(Arrays.asList("a", "b"), new TrackingCallback(
+				new AtomicInteger(), new AtomicInteger()));
+	}
+
+	static class TrackingCallback implements ReadCallback<String, String> {
+
+		private final AtomicInteger concurrency;
+		private final AtomicInteger maxConcurrency;
+
+		TrackingCallback(AtomicInteger concurrency, AtomicInteger maxConcurrency) {
+			this.concurrency = concurrency;
+			this.maxConcurrency = maxConcurrency;
+		}
+
+		@Override
+		public String read(String source) {
+
+			int current = concurrency.incrementAndGet();
+			int max;
+			while ((max = maxConcurrency.get()) < current) {
+				maxConcurrency.compareAndSet(max, current);
+			}
+
+			try {
+				Thread.sleep(50);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				concurrency.decrementAndGet();
+			}
+
+			return source;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * Unit tests for {@link EnvironmentChangeEventPublisher}.
+ *
+ * @author Mark Paluch
+ */
+public class EnvironmentChangeEventPublisherUnitTests {
+
+	private EnvironmentChangeEventPublisher publisher = new EnvironmentChangeEventPublisher();
+	private GenericApplicationContext applicationContext = new GenericApplicationContext();
+	private List<EnvironmentChangeEvent> events = new CopyOnWriteArrayList<>();
+
+	@Before
+	public void before() {
+
+		publisher.initialize(applicationContext);
+		applicationContext.addApplicationListener(
+				new ApplicationListener<EnvironmentChangeEvent>() {
+
+					@Override
+					public void onApplicationEvent(EnvironmentChangeEvent event) {
+						events.add(event);
+					}
+				});
+	}
+
+	@After
+	public void after() {
+		applicationContext.close();
+	}
+
+	@Test
+	public void shouldBufferChangesUntilContextRefresh() {
+
+		publisher.publishChange(Collections.singleton("username"));
+		publisher.publishChange(Collections.singleton("password"));
+
+		assertThat(events).isEmpty();
+
+		applicationContext.refresh();
+
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getKeys()).containsExactly("username", "password");
+	}
+
+	@Test
+	public void shouldPublishChangesAfterContextRefresh() {
+
+		applicationContext.refresh();
+
+		publisher.publishChange(Collections.singleton("username"));
+
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getKeys()).containsExactly("username");
+	}
+
+	@Test
+	public void shouldNotPublishEmptyChanges() {
+
+		applicationContext.refresh();
+
+		publisher.publishChange(Collections.<String> emptySet());
+
+		assertThat(events).isEmpty();
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ImmutablePropertyMap}.
+ *
+ * @author Mark Paluch
+ */
+public class ImmutablePropertyMapUnitTests {
+
+	@Test
+	public void shouldRetainEntriesInSourceOrder() {
+
+		Map<String, String> source = new LinkedHashMap<>();
+		for (int i = 10000; i > 0; i--) {
+			source.put("spring.datasource.key" + i, "value" + i);
+		}
+		source.put("nullable", null);
+
+		ImmutablePropertyMap map = ImmutablePropertyMap.of(source);
+
+		assertThat(map).isEqualTo(source).hasSize(10001);
+		assertThat(map.getNames()).containsExactly(
+				source.keySet().toArray(new String[source.size()]));
+		assertThat(map.get("spring.datasource.key42")).isEqualTo("value42");
+		assertThat(map.get("spring.datasource.absent")).isNull();
+		assertThat(map.get(42)).isNull();
+		assertThat(map.containsKey("nullable")).isTrue();
+		assertThat(map.containsKey("spring.datasource.key0")).isFalse();
+		assertThat(map.hashCode()).isEqualTo(source.hashCode());
+	}
+
+	@Test
+	public void shouldCacheNames() {
+
+		ImmutablePropertyMap map = ImmutablePropertyMap.of(Collections.singletonMap(
+				"key", "value"));
+
+		assertThat(map.getNames()).isSameAs(map.getNames());
+		assertThat(ImmutablePropertyMap.of(map)).isSameAs(map);
+	}
+
+	@Test
+	public void shouldReturnEmptyMap() {
+
+		ImmutablePropertyMap map = ImmutablePropertyMap.of(Collections
+				.<String, String> emptyMap());
+
+		assertThat(map).isSameAs(ImmutablePropertyMap.EMPTY).isEmpty();
+		assertThat(map.get("key")).isNull();
+		assertThat(map.getNames()).isEmpty();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void shouldRejectModification() {
+		ImmutablePropertyMap.of(Collections.singletonMap("key", "value")).put("key",
+				"other");
+	}
+}
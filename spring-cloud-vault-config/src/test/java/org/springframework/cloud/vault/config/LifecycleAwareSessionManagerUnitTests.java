@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.cloud.vault.ClientAuthentication;
+import org.springframework.cloud.vault.VaultClient;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.VaultToken;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Unit tests for {@link LifecycleAwareSessionManager}.
+ *
+ * @author Mark Paluch
+ */
+public class LifecycleAwareSessionManagerUnitTests {
+
+	private VaultProperties vaultProperties = new VaultProperties();
+	private ManualTaskScheduler taskScheduler = new ManualTaskScheduler();
+	private CountingClientAuthentication clientAuthentication = new CountingClientAuthentication();
+
+	@Test
+	public void shouldLoginOnlyOnceWithoutLeaseDuration() {
+
+		clientAuthentication.leaseDuration = 0;
+
+		LifecycleAwareSessionManager sessionManager = new LifecycleAwareSessionManager(
+				clientAuthentication, new VaultClient(), vaultProperties, taskScheduler);
+
+		VaultToken token = sessionManager.getSessionToken();
+
+		assertThat(sessionManager.getSessionToken()).isSameAs(token);
+		assertThat(clientAuthentication.logins.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldLoginAgainBeforeTokenExpires() {
+
+		clientAuthentication.leaseDuration = 1;
+
+		LifecycleAwareSessionManager sessionManager = new LifecycleAwareSessionManager(
+				clientAuthentication, new VaultClient(), vaultProperties, taskScheduler);
+
+		VaultToken token = sessionManager.getSessionToken();
+
+		assertThat(taskScheduler.tasks).hasSize(1);
+		taskScheduler.tasks.poll().run();
+
+		assertThat(clientAuthentication.logins.get()).isEqualTo(2);
+		assertThat(sessionManager.getSessionToken()).isNotEqualTo(token);
+
+		sessionManager.destroy();
+	}
+
+	@Test
+	public void shouldNotRenewIfRenewalIsDisabled() {
+
+		clientAuthentication.leaseDuration = 1;
+		vaultProperties.getSession().setRenewalEnabled(false);
+
+		LifecycleAwareSessionManager sessionManager = new LifecycleAwareSessionManager(
+				clientAuthentication, new VaultClient(), vaultProperties, taskScheduler);
+
+		sessionManager.getSessionToken();
+
+		assertThat(taskScheduler.tasks).isEmpty();
+		assertThat(clientAuthentication.logins.get()).isEqualTo(1);
+	}
+
+	static class CountingClientAuthentication extends ClientAuthentication {
+
+		final AtomicInteger logins = new AtomicInteger();
+		long leaseDuration;
+
+		@Override
+		public VaultToken login() {
+			return VaultToken.of("token-" + logins.incrementAndGet(), leaseDuration);
+		}
+	}
+
+	/**
+	 * {@link ThreadPoolTaskScheduler} recording scheduled tasks instead of running them
+	 * so tests can run them without waiting.
+	 */
+	static class ManualTaskScheduler extends ThreadPoolTaskScheduler {
+
+		final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+		@Override
+		public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+
+			ManualFuture future = new ManualFuture(task);
+			tasks.add(future);
+			return future;
+		}
+	}
+
+	static class ManualFuture extends FutureTask<Object> implements
+			ScheduledFuture<Object> {
+
+		ManualFuture(Runnable runnable) {
+			super(runnable, null);
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return 0;
+		}
+
+		@Override
+		public int compareTo(Delayed o) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.cloud.vault.config.SecureBackendAccessors.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.vault.ClientAuthentication;
+import org.springframework.cloud.vault.VaultClient;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+/**
+ * Unit tests for {@link RecursiveVaultConfigOperations}.
+ *
+ * @author Mark Paluch
+ */
+public class RecursiveVaultConfigOperationsUnitTests {
+
+	private ListingVaultTemplate vaultTemplate = new ListingVaultTemplate();
+	private SecretConfigOperations configOperations = new SecretConfigOperations();
+	private VaultGenericBackendProperties genericBackendProperties = new VaultGenericBackendProperties();
+	private RecursiveVaultConfigOperations operations;
+
+	@Before
+	public void before() {
+
+		vaultTemplate.keys.put("secret/myapp/", Arrays.asList("db/", "name"));
+		vaultTemplate.keys.put("secret/myapp/db/", Arrays.asList("primary", "replica/"));
+		vaultTemplate.keys.put("secret/myapp/db/replica/", Arrays.asList("eu"));
+
+		configOperations.secrets.put("secret/myapp",
+				Collections.singletonMap("key", "root"));
+		configOperations.secrets.put("secret/myapp/name",
+				Collections.singletonMap("value", "myapp"));
+		configOperations.secrets.put("secret/myapp/db/primary",
+				Collections.singletonMap("url", "jdbc:primary"));
+		configOperations.secrets.put("secret/myapp/db/replica/eu",
+				Collections.singletonMap("url", "jdbc:eu"));
+
+		operations = new RecursiveVaultConfigOperations(vaultTemplate,
+				configOperations, new VaultProperties(), genericBackendProperties);
+	}
+
+	@Test
+	public void shouldReadSubtreeWithPrefixedProperties() {
+
+		Map<String, String> data = operations.read(generic("secret", "myapp"));
+
+		assertThat(data).hasSize(4).containsEntry("key", "root")
+				.containsEntry("name.value", "myapp")
+				.containsEntry("db.primary.url", "jdbc:primary")
+				.containsEntry("db.replica.eu.url", "jdbc:eu");
+	}
+
+	@Test
+	public void shouldLimitDepth() {
+
+		genericBackendProperties.setMaxDepth(1);
+
+		Map<String, String> data = operations.read(generic("secret", "myapp"));
+
+		assertThat(data).containsKey("db.primary.url").doesNotContainKey(
+				"db.replica.eu.url");
+		assertThat(vaultTemplate.paths).doesNotContain("secret/myapp/db/replica/");
+	}
+
+	@Test
+	public void shouldLimitFanOut() {
+
+		genericBackendProperties.setMaxFanOut(1);
+
+		Map<String, String> data = operations.read(generic("secret", "myapp"));
+
+		assertThat(data).containsKey("db.primary.url").doesNotContainKey("name.value");
+	}
+
+	@Test
+	public void shouldRetainPropertiesIfListingFails() {
+
+		vaultTemplate.keys.put("secret/myapp/db/", null);
+
+		Secrets secrets = operations.readSecrets(generic("secret", "myapp"));
+
+		assertThat(secrets.getData()).isNull();
+	}
+
+	static class SecretConfigOperations implements LeaseAwareConfigOperations {
+
+		final Map<String, Map<String, String>> secrets = new HashMap<>();
+
+		@Override
+		public Map<String, String> read(SecureBackendAccessor secureBackendAccessor) {
+			return readSecrets(secureBackendAccessor).getData();
+		}
+
+		@Override
+		public Secrets readSecrets(SecureBackendAccessor secureBackendAccessor) {
+
+			Map<String, String> data = secrets.get(secureBackendAccessor.getName());
+			return Secrets.of(
+					data != null ? data : Collections.<String, String> emptyMap(),
+					Lease.none());
+		}
+	}
+
+	static class ListingVaultTemplate extends VaultTemplate {
+
+		final Map<String, List<String>> keys = new HashMap<>();
+		final List<String> paths = new CopyOnWriteArrayList<>();
+
+		ListingVaultTemplate() {
+			this(tokenProperties());
+		}
+
+		private ListingVaultTemplate(VaultProperties properties) {
+			super(properties, new VaultClient(), ClientAuthentication.token(properties));
+		}
+
+		@Override
+		public List<String> list(String path) {
+
+			paths.add(path);
+
+			if (!keys.containsKey(path)) {
+				throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+			}
+
+			if (keys.get(path) == null) {
+				throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE,
+						"Vault is sealed");
+			}
+
+			return keys.get(path);
+		}
+
+		private static VaultProperties tokenProperties() {
+
+			VaultProperties properties = new VaultProperties();
+			properties.setToken("token");
+			return properties;
+		}
+	}
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.cloud.vault.config.SecureBackendAccessors.*;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.cloud.vault.VaultClientResponse;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.VaultResponse;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit tests for {@link SecretLeaseContainer}.
+ *
+ * @author Mark Paluch
+ */
+public class SecretLeaseContainerUnitTests {
+
+	private VaultProperties vaultProperties = new VaultProperties();
+	private ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+	private RecordingVaultOperations operations = new RecordingVaultOperations();
+	private SecretLeaseContainer container;
+
+	@Before
+	public void before() {
+
+		taskScheduler.afterPropertiesSet();
+		vaultProperties.getLease().setMinRenewal(0);
+		container = new SecretLeaseContainer(operations, vaultProperties, taskScheduler);
+	}
+
+	@After
+	public void after() {
+		taskScheduler.destroy();
+	}
+
+	@Test
+	public void shouldIgnoreSecretsWithoutLease() {
+
+		container.addLease(generic("secret", "app"), Lease.none());
+
+		assertThat(container.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void renewalDelayShouldApplyJitter() {
+
+		Lease lease = Lease.of("mysql/creds/readonly/1234", 100, true);
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(container.getRenewalDelay(lease)).isBetween(63000L, 70000L);
+		}
+	}
+
+	@Test
+	public void shouldRenewLeaseBeforeExpiry() throws Exception {
+
+		container.addLease(generic("mysql", "creds/readonly"),
+				Lease.of("mysql/creds/readonly/1234", 1, true));
+
+		Thread.sleep(900);
+
+		assertThat(operations.paths).containsExactly("sys/renew/mysql/creds/readonly/1234");
+	}
+
+	@Test
+	public void shouldNotRenewNonRenewableLease() throws Exception {
+
+		container.addLease(generic("mysql", "creds/readonly"),
+				Lease.of("mysql/creds/readonly/1234", 1, false));
+
+		Thread.sleep(900);
+
+		assertThat(container.size()).isEqualTo(1);
+		assertThat(operations.paths).isEmpty();
+	}
+
+	@Test
+	public void shouldNotRevokeLeasesOnDestroy() {
+
+		vaultProperties.getLease().setRevokeOnShutdown(true);
+
+		container.addLease(generic("mysql", "creds/readonly"),
+				Lease.of("mysql/creds/readonly/1234", 100, true));
+
+		container.destroy();
+
+		assertThat(operations.paths).isEmpty();
+		assertThat(container.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldRevokeLeasesOnApplicationContextClose() {
+
+		vaultProperties.getLease().setRevokeOnShutdown(true);
+		GenericApplicationContext applicationContext = initializeApplicationContext();
+
+		container.addLease(generic("mysql", "creds/readonly"),
+				Lease.of("mysql/creds/readonly/1234", 100, true));
+
+		applicationContext.close();
+
+		assertThat(operations.paths).containsExactly("sys/revoke/mysql/creds/readonly/1234");
+		assertThat(container.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldRevokeLeasesByDefault() {
+
+		GenericApplicationContext applicationContext = initializeApplicationContext();
+
+		container.addLease(generic("mysql", "creds/readonly"),
+				Lease.of("mysql/creds/readonly/1234", 100, true));
+
+		applicationContext.close();
+
+		assertThat(operations.paths).containsExactly("sys/revoke/mysql/creds/readonly/1234");
+	}
+
+	@Test
+	public void shouldNotRevokeLeasesIfDisabled() {
+
+		vaultProperties.getLease().setRevokeOnShutdown(false);
+		GenericApplicationContext applicationContext = initializeApplicationContext();
+
+		container.addLease(generic("mysql", "creds/readonly"),
+				Lease.of("mysql/creds/readonly/1234", 100, true));
+
+		applicationContext.close();
+
+		assertThat(operations.paths).isEmpty();
+		assertThat(container.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotRevokeLeasesOnChildContextClose() {
+
+		vaultProperties.getLease().setRevokeOnShutdown(true);
+		GenericApplicationContext applicationContext = initializeApplicationContext();
+
+		GenericApplicationContext child = new GenericApplicationContext();
+		child.setParent(applicationContext);
+		child.refresh();
+
+		container.addLease(generic("mysql", "creds/readonly"),
+				Lease.of("mysql/creds/readonly/1234", 100, true));
+
+		child.close();
+
+		assertThat(operations.paths).isEmpty();
+		applicationContext.close();
+	}
+
+	@Test
+	public void shouldNotRevokeLeasesOnRefreshContextClose() {
+
+		vaultProperties.getLease().setRevokeOnShutdown(true);
+
+		GenericApplicationContext applicationContext = new GenericApplicationContext();
+		applicationContext.getEnvironment().getPropertySources().addFirst(
+				new MapPropertySource(SecretLeaseContainer.REFRESH_ARGS_PROPERTY_SOURCE,
+						Collections.<String, Object> singletonMap("spring.jmx.enabled",
+								false)));
+		container.initialize(applicationContext);
+		applicationContext.refresh();
+
+		container.addLease(generic("mysql", "creds/readonly"),
+				Lease.of("mysql/creds/readonly/1234", 100, true));
+
+		applicationContext.close();
+
+		assertThat(operations.paths).isEmpty();
+	}
+
+	@Test
+	public void refreshArgsPropertySourceShouldMatchContextRefresher() {
+
+		assertThat(
+				ReflectionTestUtils.getField(ContextRefresher.class,
+						"REFRESH_ARGS_PROPERTY_SOURCE")).isEqualTo(
+				SecretLeaseContainer.REFRESH_ARGS_PROPERTY_SOURCE);
+	}
+
+	@Test
+	public void shouldRotateNonRenewableLeaseBeforeExpiry() throws Exception {
+
+		vaultProperties.getLease().setRotate(true);
+		vaultProperties.getLease().setRevokeOnShutdown(true);
+		operations.configOperations = new StubConfigOperations();
+
+		final List<Secrets> rotated = new CopyOnWriteArrayList<>();
+
+		container.addLease(generic("mysql", "creds/readonly"),
+				Lease.of("mysql/creds/readonly/1234", 1, false), new LeaseListener() {
+
+					@Override
+					public void onSecretsRotated(
+							SecureBackendAccessor secureBackendAccessor, Secrets secrets) {
+						rotated.add(secrets);
+					}
+				});
+
+		Thread.sleep(900);
+
+		assertThat(rotated).hasSize(1);
+		assertThat(rotated.get(0).getData()).containsEntry("username", "rotated");
+		assertThat(container.size()).isEqualTo(1);
+
+		container.shutdown();
+
+		assertThat(operations.paths).containsExactly("sys/revoke/mysql/creds/readonly/5678");
+	}
+
+	@Test
+	public void shouldNotRotateWithoutListener() throws Exception {
+
+		vaultProperties.getLease().setRotate(true);
+		operations.configOperations = new StubConfigOperations();
+
+		container.addLease(generic("mysql", "creds/readonly"),
+				Lease.of("mysql/creds/readonly/1234", 1, false));
+
+		Thread.sleep(900);
+
+		assertThat(((StubConfigOperations) operations.configOperations).reads).isEqualTo(0);
+	}
+
+	private GenericApplicationContext initializeApplicationContext() {
+
+		GenericApplicationContext applicationContext = new GenericApplicationContext();
+		container.initialize(applicationContext);
+		applicationContext.refresh();
+
+		return applicationContext;
+	}
+
+	static class StubConfigOperations implements LeaseAwareConfigOperations {
+
+		volatile int reads;
+
+		@Override
+		public Map<String, String> read(SecureBackendAccessor secureBackendAccessor) {
+			return readSecrets(secureBackendAccessor).getData();
+		}
+
+		@Override
+		public Secrets readSecrets(SecureBackendAccessor secureBackendAccessor) {
+
+			reads++;
+			return Secrets.of(Collections.singletonMap("username", "rotated"),
+					Lease.of("mysql/creds/readonly/5678", 100, false));
+		}
+	}
+
+	static class RecordingVaultOperations implements VaultOperations {
+
+		final List<String> paths = new CopyOnWriteArrayList<>();
+		volatile VaultConfigOperations configOperations;
+
+		@Override
+		public VaultConfigOperations opsForConfig() {
+
+			if (configOperations == null) {
+				throw new UnsupportedOperationException();
+			}
+
+			return configOperations;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T doWithVault(String path, SessionCallback sessionCallback) {
+
+			paths.add(path);
+
+			VaultResponse body = new VaultResponse();
+			body.setLeaseDuration(1);
+			body.setRenewable(false);
+
+			return (T) VaultClientResponse.of(body, HttpStatus.OK, URI.create(path),
+					"OK");
+		}
+
+		@Override
+		public <T> T doWithVault(String pathTemplate, Map<String, ?> variables,
+				SessionCallback sessionCallback) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.cloud.vault.config.SecureBackendAccessors.*;
+
+import java.net.URI;
+
+import org.junit.Test;
+import org.springframework.cloud.vault.ClientAuthentication;
+import org.springframework.cloud.vault.VaultClient;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.VaultToken;
+
+/**
+ * Unit tests for {@link VaultConfigTemplate}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultConfigTemplateUnitTests {
+
+	private VaultProperties vaultProperties = new VaultProperties();
+	private VaultTemplate vaultTemplate = new VaultTemplate(vaultProperties,
+			new VaultClient(), new ClientAuthentication() {
+
+				@Override
+				public VaultToken login() {
+					return VaultToken.of("token");
+				}
+			});
+	private VaultConfigTemplate configTemplate = new VaultConfigTemplate(vaultTemplate,
+			vaultProperties);
+
+	@Test
+	public void shouldReuseUriForAccessorsOfTheSameSecret() {
+
+		URI uri = configTemplate.getUri(vaultTemplate, generic("secret", "my app"));
+
+		assertThat(uri).isEqualTo(
+				URI.create("https://localhost:8200/v1/secret/my%20app"));
+		assertThat(configTemplate.getUri(vaultTemplate, generic("secret", "my app")))
+				.isSameAs(uri);
+	}
+
+	@Test
+	public void shouldExpandUriAfterEndpointChange() {
+
+		URI uri = configTemplate.getUri(vaultTemplate, generic("secret", "application"));
+
+		vaultProperties.setPort(8201);
+
+		assertThat(configTemplate.getUri(vaultTemplate, generic("secret", "application")))
+				.isNotEqualTo(uri).isEqualTo(
+						URI.create("https://localhost:8201/v1/secret/application"));
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.VaultStartupTimings;
+import org.springframework.cloud.vault.VaultStartupTimings.Phase;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+/**
+ * Unit tests for {@link VaultPropertySourceLocator}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultPropertySourceLocatorUnitTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private VaultProperties vaultProperties = new VaultProperties();
+	private VaultGenericBackendProperties genericBackendProperties = new VaultGenericBackendProperties();
+	private StandardEnvironment environment = new StandardEnvironment();
+
+	@Before
+	public void before() {
+
+		environment.setActiveProfiles("cloud", "local");
+		vaultProperties.getBootstrap().setConcurrent(true);
+		vaultProperties.getBootstrap().setParallelism(2);
+	}
+
+	@Test
+	public void concurrentInitializationShouldRetainOrder() {
+
+		StubConfigOperations operations = new StubConfigOperations(20);
+		VaultPropertySourceLocator locator = new VaultPropertySourceLocator(operations,
+				vaultProperties, genericBackendProperties,
+				Collections.<SecureBackendAccessor> emptyList());
+
+		CompositePropertySource propertySource = (CompositePropertySource) locator
+				.locate(environment);
+
+		List<String> names = new ArrayList<>();
+		for (PropertySource<?> source : propertySource.getPropertySources()) {
+			names.add(source.getName());
+			assertThat(source.getProperty("context")).isEqualTo(source.getName());
+		}
+
+		assertThat(names).containsExactly("secret/application/local",
+				"secret/application/cloud", "secret/application");
+		assertThat(operations.maxConcurrency.get()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	public void shouldReadPlainConfigOperations() {
+
+		VaultConfigOperations operations = new VaultConfigOperations() {
+
+			@Override
+			public Map<String, String> read(SecureBackendAccessor secureBackendAccessor) {
+				return Collections.singletonMap("context", "plain");
+			}
+		};
+
+		VaultPropertySourceLocator locator = new VaultPropertySourceLocator(operations,
+				vaultProperties, genericBackendProperties,
+				Collections.<SecureBackendAccessor> emptyList());
+
+		PropertySource<?> propertySource = locator.locate(environment);
+
+		assertThat(propertySource.getProperty("context")).isEqualTo("plain");
+	}
+
+	@Test
+	public void timeoutShouldFailWithFailFast() {
+
+		vaultProperties.setFailFast(true);
+		vaultProperties.getBootstrap().setTimeout(50);
+
+		VaultPropertySourceLocator locator = new VaultPropertySourceLocator(
+				new StubConfigOperations(1000), vaultProperties,
+				genericBackendProperties,
+				Collections.<SecureBackendAccessor> emptyList());
+
+		try {
+			locator.locate(environment);
+			fail("Missing IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertThat(e).hasMessageContaining("Timed out");
+		}
+	}
+
+	@Test
+	public void timeoutShouldLeavePropertySourcesEmptyWithoutFailFast() {
+
+		vaultProperties.getBootstrap().setTimeout(50);
+
+		VaultPropertySourceLocator locator = new VaultPropertySourceLocator(
+				new StubConfigOperations(1000), vaultProperties,
+				genericBackendProperties,
+				Collections.<SecureBackendAccessor> emptyList());
+
+		CompositePropertySource propertySource = (CompositePropertySource) locator
+				.locate(environment);
+
+		assertThat(propertySource.getPropertyNames()).isEmpty();
+	}
+
+	@Test
+	public void shouldRecordStartupTimings() {
+
+		VaultStartupTimings startupTimings = new VaultStartupTimings();
+		VaultPropertySourceLocator locator = new VaultPropertySourceLocator(
+				new StubConfigOperations(10), vaultProperties, genericBackendProperties,
+				Collections.<SecureBackendAccessor> emptyList());
+		locator.setStartupTimings(startupTimings);
+
+		locator.locate(environment);
+
+		List<String> phases = new ArrayList<>();
+		for (Phase phase : startupTimings.getPhases()) {
+			phases.add(phase.getName());
+		}
+
+		assertThat(startupTimings.isCompleted()).isTrue();
+		assertThat(phases).containsOnly("property-source secret/application/local",
+				"property-source secret/application/cloud",
+				"property-source secret/application");
+	}
+
+	@Test
+	public void shouldRestorePropertySourcesFromSnapshot() throws Exception {
+
+		vaultProperties.getSnapshot().setFile(
+				new File(temporaryFolder.getRoot(), "vault.snapshot").getPath());
+		VaultSnapshotStore snapshotStore = new VaultSnapshotStore(
+				new VaultSnapshotStoreUnitTests.TransitVaultOperations(),
+				vaultProperties.getSnapshot());
+
+		VaultPropertySourceLocator initial = new VaultPropertySourceLocator(
+				new StubConfigOperations(0), vaultProperties, genericBackendProperties,
+				Collections.<SecureBackendAccessor> emptyList());
+		initial.setSnapshotStore(snapshotStore);
+		initial.locate(environment);
+
+		StubConfigOperations slowOperations = new StubConfigOperations(500);
+		VaultPropertySourceLocator locator = new VaultPropertySourceLocator(
+				slowOperations, vaultProperties, genericBackendProperties,
+				Collections.<SecureBackendAccessor> emptyList());
+		locator.setSnapshotStore(snapshotStore);
+
+		try {
+
+			long start = System.currentTimeMillis();
+			CompositePropertySource propertySource = (CompositePropertySource) locator
+					.locate(environment);
+
+			assertThat(System.currentTimeMillis() - start).isLessThan(500);
+			assertThat(propertySource.getProperty("context")).isEqualTo(
+					"secret/application/local");
+
+			Thread.sleep(2000);
+
+			assertThat(slowOperations.reads.get()).isEqualTo(3);
+		}
+		finally {
+			locator.destroy();
+		}
+	}
+
+	@Test
+	public void shouldNotRevalidateAfterDestroy() {
+
+		StubConfigOperations operations = new StubConfigOperations(0);
+		VaultPropertySourceLocator locator = new VaultPropertySourceLocator(operations,
+				vaultProperties, genericBackendProperties,
+				Collections.<SecureBackendAccessor> emptyList());
+
+		VaultPropertySource propertySource = new VaultPropertySource(operations,
+				vaultProperties, SecureBackendAccessors.generic("secret", "application"));
+
+		locator.destroy();
+		locator.revalidate(Collections.singletonList(propertySource));
+
+		assertThat(operations.reads.get()).isEqualTo(0);
+	}
+
+	static class StubConfigOperations implements LeaseAwareConfigOperations {
+
+		final AtomicInteger concurrency = new AtomicInteger();
+		final AtomicInteger maxConcurrency = new AtomicInteger();
+		final AtomicInteger reads = new AtomicInteger();
+		final long delay;
+
+		StubConfigOperations(long delay) {
+			this.delay = delay;
+		}
+
+		@Override
+		public Map<String, String> read(SecureBackendAccessor secureBackendAccessor) {
+			return readSecrets(secureBackendAccessor).getData();
+		}
+
+		@Override
+		public Secrets readSecrets(SecureBackendAccessor secureBackendAccessor) {
+
+			reads.incrementAndGet();
+			int current = concurrency.incrementAndGet();
+			int max;
+			while ((max = maxConcurrency.get()) < current) {
+				maxConcurrency.compareAndSet(max, current);
+			}
+
+			try {
+				Thread.sleep(delay);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+			finally {
+				concurrency.decrementAndGet();
+			}
+
+			return Secrets.of(
+					Collections.singletonMap("context", secureBackendAccessor.getName()),
+					Lease.none());
+		}
+	}
+}
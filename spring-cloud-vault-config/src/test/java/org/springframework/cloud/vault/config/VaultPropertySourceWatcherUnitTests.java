@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.cloud.vault.config.SecureBackendAccessors.*;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.vault.VaultProperties;
+
+/**
+ * Unit tests for {@link VaultPropertySourceWatcher}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultPropertySourceWatcherUnitTests {
+
+	private VaultGenericBackendProperties.Watch watch = new VaultGenericBackendProperties.Watch();
+	private RecordingEventPublisher eventPublisher = new RecordingEventPublisher();
+	private MutableConfigOperations operations = new MutableConfigOperations();
+	private VaultPropertySource propertySource;
+	private VaultPropertySourceWatcher watcher;
+
+	@Before
+	public void before() {
+
+		watch.setEnabled(true);
+		watch.setInterval(60000);
+		watch.setMaxInterval(200000);
+
+		operations.data.put("username", "user");
+		operations.data.put("password", "secret");
+
+		propertySource = new VaultPropertySource(operations, new VaultProperties(),
+				generic("secret", "application"));
+		propertySource.init();
+
+		watcher = new VaultPropertySourceWatcher(watch, eventPublisher);
+		watcher.watch(Collections.singletonList(propertySource));
+	}
+
+	@After
+	public void after() {
+
+		watcher.destroy();
+	}
+
+	@Test
+	public void shouldBackOffWhileUnchanged() {
+
+		watcher.poll();
+		assertThat(watcher.getInterval()).isEqualTo(120000);
+
+		watcher.poll();
+		assertThat(watcher.getInterval()).isEqualTo(200000);
+		assertThat(eventPublisher.changes).isEmpty();
+	}
+
+	@Test
+	public void shouldPublishChangedKeysOnly() {
+
+		watcher.poll();
+		operations.data.put("password", "rotated");
+		operations.data.put("url", "jdbc:mysql");
+
+		watcher.poll();
+
+		assertThat(eventPublisher.changes).hasSize(1);
+		assertThat(eventPublisher.changes.get(0)).containsOnly("password", "url");
+		assertThat(propertySource.getProperty("password")).isEqualTo("rotated");
+		assertThat(watcher.getInterval()).isEqualTo(60000);
+	}
+
+	@Test
+	public void shouldRetainPropertiesOnErrors() {
+
+		operations.available = false;
+
+		watcher.poll();
+
+		assertThat(propertySource.getProperty("password")).isEqualTo("secret");
+		assertThat(watcher.getInterval()).isEqualTo(120000);
+	}
+
+	@Test
+	public void shouldNotPollAfterDestroy() {
+
+		watcher.destroy();
+		operations.data.put("password", "rotated");
+
+		watcher.poll();
+
+		assertThat(propertySource.getProperty("password")).isEqualTo("secret");
+		assertThat(eventPublisher.changes).isEmpty();
+	}
+
+	@Test
+	public void delayShouldApplyJitter() {
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(watcher.getDelay()).isBetween(48000L, 72000L);
+		}
+	}
+
+	static class RecordingEventPublisher extends EnvironmentChangeEventPublisher {
+
+		final List<Set<String>> changes = new CopyOnWriteArrayList<>();
+
+		@Override
+		void publishChange(Set<String> keys) {
+			changes.add(keys);
+		}
+	}
+
+	static class MutableConfigOperations implements LeaseAwareConfigOperations {
+
+		final Map<String, String> data = new LinkedHashMap<>();
+		volatile boolean available = true;
+
+		@Override
+		public Map<String, String> read(SecureBackendAccessor secureBackendAccessor) {
+			return readSecrets(secureBackendAccessor).getData();
+		}
+
+		@Override
+		public Secrets readSecrets(SecureBackendAccessor secureBackendAccessor) {
+
+			if (!available) {
+				return Secrets.of(null, Lease.none());
+			}
+
+			return Secrets.of(new LinkedHashMap<>(data), Lease.none());
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.cloud.vault.VaultClientResponse;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.cloud.vault.VaultResponse;
+import org.springframework.cloud.vault.config.VaultSnapshotStore.Snapshot;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Base64Utils;
+
+/**
+ * Unit tests for {@link VaultSnapshotStore}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultSnapshotStoreUnitTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private VaultProperties.SnapshotProperties properties = new VaultProperties.SnapshotProperties();
+	private TransitVaultOperations operations = new TransitVaultOperations();
+	private File file;
+	private VaultSnapshotStore store;
+
+	@Before
+	public void before() throws Exception {
+
+		file = new File(temporaryFolder.getRoot(), "snapshot/vault.snapshot");
+		properties.setFile(file.getPath());
+		store = new VaultSnapshotStore(operations, properties);
+	}
+
+	@Test
+	public void shouldStoreAndLoadSnapshot() throws Exception {
+
+		store.store(propertySources());
+
+		assertThat(file).exists();
+		assertThat(new String(Files.readAllBytes(file.toPath()),
+				StandardCharsets.UTF_8)).doesNotContain("password");
+
+		Snapshot snapshot = store.load();
+
+		assertThat(snapshot).isNotNull();
+		assertThat(snapshot.getPropertySources()).isEqualTo(propertySources());
+		assertThat(operations.paths).containsExactly(
+				"transit/datakey/plaintext/spring-cloud-vault-snapshot",
+				"transit/decrypt/spring-cloud-vault-snapshot");
+	}
+
+	@Test
+	public void shouldIgnoreMissingSnapshot() {
+		assertThat(store.load()).isNull();
+	}
+
+	@Test
+	public void shouldIgnoreStaleSnapshot() throws Exception {
+
+		store.store(propertySources());
+		Thread.sleep(20);
+		properties.setMaxStaleness(10);
+
+		assertThat(store.load()).isNull();
+	}
+
+	@Test
+	public void shouldIgnoreTamperedSnapshot() throws Exception {
+
+		store.store(propertySources());
+
+		String contents = new String(Files.readAllBytes(file.toPath()),
+				StandardCharsets.UTF_8);
+		String tampered = contents.replaceFirst("\"created\":\\d+", "\"created\":"
+				+ System.currentTimeMillis());
+		Files.write(file.toPath(), tampered.getBytes(StandardCharsets.UTF_8));
+
+		assertThat(store.load()).isNull();
+	}
+
+	@Test
+	public void shouldNotStoreSnapshotIfTransitIsUnavailable() {
+
+		operations.available = false;
+
+		store.store(propertySources());
+
+		assertThat(file).doesNotExist();
+	}
+
+	private static Map<String, Map<String, String>> propertySources() {
+
+		Map<String, Map<String, String>> propertySources = new LinkedHashMap<>();
+		propertySources.put("secret/my-app",
+				Collections.singletonMap("database.password", "password"));
+		propertySources.put("secret/application",
+				Collections.singletonMap("key", "value"));
+		return propertySources;
+	}
+
+	/**
+	 * {@link VaultOperations} emulating the transit backend. Data keys are "wrapped" by
+	 * prefixing them with {@code vault:v1:}.
+	 */
+	static class TransitVaultOperations implements VaultOperations {
+
+		final List<String> paths = new CopyOnWriteArrayList<>();
+		final SecureRandom random = new SecureRandom();
+		volatile boolean available = true;
+
+		@Override
+		public VaultConfigOperations opsForConfig() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public <T> T doWithVault(String path, SessionCallback sessionCallback) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public <T> T doWithVault(String pathTemplate, Map<String, ?> variables,
+				SessionCallback sessionCallback) {
+
+			String path = pathTemplate;
+			for (Map.Entry<String, ?> entry : variables.entrySet()) {
+				path = path.replace("{" + entry.getKey() + "}", entry.getValue()
+						.toString());
+			}
+
+			return sessionCallback.doWithVault(URI.create(path), new VaultSession() {
+
+				@Override
+				public VaultClientResponse read(URI uri) {
+					throw new UnsupportedOperationException();
+				}
+
+				@Override
+				@SuppressWarnings("unchecked")
+				public VaultClientResponse write(URI uri, Object entity) {
+					return transit(uri, (Map<String, ?>) entity);
+				}
+			});
+		}
+
+		private VaultClientResponse transit(URI uri, Map<String, ?> entity) {
+
+			paths.add(uri.toString());
+
+			if (!available) {
+				return VaultClientResponse.of(null, HttpStatus.SERVICE_UNAVAILABLE, uri,
+						"Vault is sealed");
+			}
+
+			Map<String, String> data = new LinkedHashMap<>();
+
+			if (uri.getPath().contains("/datakey/plaintext/")) {
+
+				byte[] key = new byte[((Number) entity.get("bits")).intValue() / 8];
+				random.nextBytes(key);
+
+				data.put("plaintext", Base64Utils.encodeToString(key));
+				data.put("ciphertext", "vault:v1:" + Base64Utils.encodeToString(key));
+			}
+			else {
+				data.put("plaintext", ((String) entity.get("ciphertext"))
+						.substring("vault:v1:".length()));
+			}
+
+			VaultResponse body = new VaultResponse();
+			body.setData(data);
+
+			return VaultClientResponse.of(body, HttpStatus.OK, uri, "OK");
+		}
+	}
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.cloud.vault.VaultStartupTimings.Timer;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * AppRole implementation of {@link ClientAuthentication}. Logs into Vault using
+ * {@code auth/<path>/login} with the RoleId and SecretId.
+ * <p>
+ * The SecretId can be provided as
+ * {@link VaultProperties.AppRoleProperties#getSecretIdToken() response-wrapping token}
+ * (pull mode). Unwrapping is scheduled on a {@link TaskScheduler}, if configured, so it
+ * runs concurrently with the remaining bootstrap instead of adding a round trip to the
+ * login. Otherwise the SecretId is unwrapped on the first login. Wrapping tokens are
+ * single-use so the unwrapped SecretId is retained in {@link UnwrappedSecretIds} until
+ * the application context is closed. Subsequent logins and adapters created for a
+ * refreshed bootstrap context reuse the SecretId. A failed unwrapping is retried on the
+ * next login. Unwrapping and login are recorded as {@link VaultStartupTimings} phases if
+ * timings are available.
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+class AppRoleAuthentication extends ClientAuthentication {
+
+	private final VaultProperties properties;
+	private final VaultClient vaultClient;
+	private final VaultStartupTimings startupTimings;
+
+	private volatile FutureTask<String> secretId;
+
+	/**
+	 * Creates a new {@link AppRoleAuthentication}.
+	 *
+	 * @param properties must not be {@literal null}.
+	 * @param vaultClient must not be {@literal null}.
+	 * @param startupTimings may be {@literal null}.
+	 * @param taskScheduler may be {@literal null} to unwrap the SecretId on the first
+	 * login.
+	 */
+	AppRoleAuthentication(VaultProperties properties, VaultClient vaultClient,
+			VaultStartupTimings startupTimings, TaskScheduler taskScheduler) {
+
+		Assert.notNull(properties, "VaultProperties must not be null!");
+		Assert.notNull(vaultClient, "VaultClient must not be null!");
+		Assert.hasText(properties.getAppRole().getRoleId(),
+				"RoleId (spring.cloud.vault.app-role.role-id) must not be empty.");
+
+		this.properties = properties;
+		this.vaultClient = vaultClient;
+		this.startupTimings = startupTimings;
+
+		this.secretId = createSecretId(taskScheduler);
+	}
+
+	@Override
+	public VaultToken login() {
+
+		log.info("Using AppRole authentication to log into Vault");
+
+		VaultProperties.AppRoleProperties appRole = properties.getAppRole();
+
+		Map<String, String> login = new HashMap<>();
+		login.put("role_id", appRole.getRoleId());
+
+		String secretId = getSecretId();
+		if (StringUtils.hasText(secretId)) {
+			login.put("secret_id", secretId);
+		}
+
+		URI uri = VaultClient.buildUri(properties,
+				String.format("auth/%s/login", appRole.getAppRolePath()));
+
+		Timer timer = start("app-role-login");
+		VaultClientResponse response;
+		try {
+			response = vaultClient.write(uri, login);
+		}
+		finally {
+			stop(timer);
+		}
+
+		if (!response.isSuccessful() || response.getBody().getAuth() == null) {
+			throw new IllegalStateException(String.format(
+					"Cannot login using AppRole: %s", response.getMessage()));
+		}
+
+		Map<String, Object> auth = response.getBody().getAuth();
+		String token = (String) auth.get("client_token");
+		long leaseDuration = auth.get("lease_duration") instanceof Number ? ((Number) auth
+				.get("lease_duration")).longValue() : 0;
+
+		log.debug("Login successful using AppRole authentication");
+
+		return VaultToken.of(token, leaseDuration);
+	}
+
+	/**
+	 * Await the SecretId. Unwrapping runs in the calling thread if it has not started
+	 * yet. Failures to unwrap the SecretId are propagated to the login and discard the
+	 * retained SecretId so that the next login unwraps again.
+	 *
+	 * @return the SecretId, may be {@literal null}.
+	 */
+	String getSecretId() {
+
+		FutureTask<String> secretId = this.secretId;
+		secretId.run();
+
+		try {
+			return secretId.get();
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while unwrapping SecretId", e);
+		}
+		catch (ExecutionException e) {
+
+			synchronized (this) {
+				if (this.secretId == secretId) {
+
+					String secretIdToken = properties.getAppRole().getSecretIdToken();
+					if (StringUtils.hasText(secretIdToken)) {
+						UnwrappedSecretIds.remove(secretIdToken, secretId);
+					}
+
+					this.secretId = createSecretId(null);
+				}
+			}
+
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+
+			throw new IllegalStateException("Cannot unwrap SecretId", e.getCause());
+		}
+	}
+
+	private FutureTask<String> createSecretId(TaskScheduler taskScheduler) {
+
+		FutureTask<String> secretId = new FutureTask<>(new Callable<String>() {
+
+			@Override
+			public String call() {
+				return obtainSecretId();
+			}
+		});
+
+		String secretIdToken = properties.getAppRole().getSecretIdToken();
+
+		if (!StringUtils.hasText(secretIdToken)) {
+
+			secretId.run();
+			return secretId;
+		}
+
+		FutureTask<String> unwrapped = UnwrappedSecretIds.putIfAbsent(secretIdToken,
+				secretId);
+
+		if (unwrapped != null) {
+			return unwrapped;
+		}
+
+		if (taskScheduler != null) {
+			try {
+				taskScheduler.schedule(secretId, new Date());
+			}
+			catch (TaskRejectedException e) {
+				log.debug("Cannot unwrap SecretId in the background", e);
+			}
+		}
+
+		return secretId;
+	}
+
+	private String obtainSecretId() {
+
+		VaultProperties.AppRoleProperties appRole = properties.getAppRole();
+
+		if (!StringUtils.hasText(appRole.getSecretIdToken())) {
+			return appRole.getSecretId();
+		}
+
+		Timer timer = start("app-role-unwrap");
+		VaultClientResponse response;
+		try {
+			response = vaultClient.unwrap(properties,
+					VaultToken.of(appRole.getSecretIdToken()));
+		}
+		finally {
+			stop(timer);
+		}
+
+		if (!response.isSuccessful() || response.getBody().getData() == null) {
+			throw new IllegalStateException(String.format(
+					"Cannot unwrap SecretId: %s", response.getMessage()));
+		}
+
+		String secretId = response.getBody().getData().get("secret_id");
+
+		if (!StringUtils.hasText(secretId)) {
+			throw new IllegalStateException(
+					"Cannot unwrap SecretId: Wrapped response does not contain secret_id");
+		}
+
+		log.debug("Unwrapped SecretId");
+
+		return secretId;
+	}
+
+	private Timer start(String phase) {
+		return startupTimings != null ? startupTimings.start(phase) : null;
+	}
+
+	private static void stop(Timer timer) {
+		if (timer != null) {
+			timer.stop();
+		}
+	}
+}
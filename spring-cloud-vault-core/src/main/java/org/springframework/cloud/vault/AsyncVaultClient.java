@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.HttpStatusCodeException;
+
+/**
+ * Asynchronous Vault client based on {@link AsyncRestTemplate}. Methods return
+ * immediately with a {@link ListenableFuture} that is completed once the response is
+ * received. Using a non-blocking {@link org.springframework.http.client.AsyncClientHttpRequestFactory}
+ * such as Netty allows many concurrent requests to be served by a few event loop
+ * threads. Error responses complete the future with a non-successful
+ * {@link VaultClientResponse} as {@link VaultClient} does.
+ *
+ * @author Mark Paluch
+ * @see ClientHttpRequestFactoryFactory#createAsync(VaultProperties)
+ */
+public class AsyncVaultClient {
+
+	private final AsyncRestTemplate asyncRestTemplate;
+
+	/**
+	 * Creates a new {@link AsyncVaultClient}.
+	 *
+	 * @param asyncRestTemplate must not be {@literal null}.
+	 */
+	public AsyncVaultClient(AsyncRestTemplate asyncRestTemplate) {
+
+		Assert.notNull(asyncRestTemplate, "AsyncRestTemplate must not be null!");
+
+		this.asyncRestTemplate = asyncRestTemplate;
+	}
+
+	/**
+	 * Read data from the given Vault {@code uri} using the {@link VaultToken}.
+	 *
+	 * @param uri must not be {@literal null}.
+	 * @param vaultToken must not be {@literal null}.
+	 * @return a {@link ListenableFuture} completed with the {@link VaultClientResponse}.
+	 */
+	public ListenableFuture<VaultClientResponse> read(URI uri, VaultToken vaultToken) {
+
+		Assert.notNull(uri, "URI must not be empty!");
+		Assert.notNull(vaultToken, "Vault Token must not be null!");
+
+		return exchange(uri, HttpMethod.GET,
+				new HttpEntity<>(VaultClient.createHeaders(vaultToken)));
+	}
+
+	/**
+	 * Write data to the given Vault {@code uri} without authentication.
+	 *
+	 * @param uri must not be {@literal null}.
+	 * @param entity must not be {@literal null}.
+	 * @return a {@link ListenableFuture} completed with the {@link VaultClientResponse}.
+	 */
+	public ListenableFuture<VaultClientResponse> write(URI uri, Object entity) {
+
+		Assert.notNull(uri, "URI must not be empty!");
+		Assert.notNull(entity, "Entity must not be null!");
+
+		return exchange(uri, HttpMethod.POST, new HttpEntity<>(entity));
+	}
+
+	/**
+	 * Write data to the given Vault {@code uri} using the {@link VaultToken}.
+	 *
+	 * @param uri must not be {@literal null}.
+	 * @param entity must not be {@literal null}.
+	 * @param vaultToken must not be {@literal null}.
+	 * @return a {@link ListenableFuture} completed with the {@link VaultClientResponse}.
+	 */
+	public ListenableFuture<VaultClientResponse> write(URI uri, Object entity,
+			VaultToken vaultToken) {
+
+		Assert.notNull(uri, "URI must not be empty!");
+		Assert.notNull(entity, "Entity must not be null!");
+		Assert.notNull(vaultToken, "Vault Token must not be null!");
+
+		return exchange(uri, HttpMethod.POST, new HttpEntity<>(entity,
+				VaultClient.createHeaders(vaultToken)));
+	}
+
+	/**
+	 * Log into Vault by writing {@code entity} to a login {@code uri}, e.g.
+	 * {@code auth/app-id/login}. The future fails with {@link IllegalStateException} if
+	 * the login is not successful.
+	 *
+	 * @param uri must not be {@literal null}.
+	 * @param entity must not be {@literal null}.
+	 * @return a {@link ListenableFuture} completed with the {@link VaultToken}.
+	 */
+	public ListenableFuture<VaultToken> login(URI uri, Object entity) {
+
+		final SettableListenableFuture<VaultToken> result = new SettableListenableFuture<>();
+
+		write(uri, entity).addCallback(new ListenableFutureCallback<VaultClientResponse>() {
+
+			@Override
+			public void onSuccess(VaultClientResponse response) {
+
+				if (!response.isSuccessful() || response.getBody().getAuth() == null) {
+					result.setException(new IllegalStateException(String.format(
+							"Cannot login: %s", response.getMessage())));
+					return;
+				}
+
+				Map<String, Object> auth = response.getBody().getAuth();
+				Object leaseDuration = auth.get("lease_duration");
+
+				result.set(VaultToken.of((String) auth.get("client_token"),
+						leaseDuration instanceof Number ? ((Number) leaseDuration)
+								.longValue() : 0));
+			}
+
+			@Override
+			public void onFailure(Throwable ex) {
+				result.setException(ex);
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * Build the Vault {@link URI} based on the given {@link VaultProperties} and
+	 * {@code pathTemplate}. URI template variables will be expanded using
+	 * {@code uriVariables}.
+	 *
+	 * @param properties must not be {@literal null}.
+	 * @param pathTemplate must not be empty or {@literal null}.
+	 * @param uriVariables must not be {@literal null}.
+	 * @return the expanded {@link URI}.
+	 */
+	public URI buildUri(VaultProperties properties, String pathTemplate,
+			Map<String, ?> uriVariables) {
+
+		Assert.notNull(properties, "VaultProperties must not be null!");
+		Assert.hasText(pathTemplate, "Path must not be empty!");
+		Assert.notNull(uriVariables, "URI variables must not be null!");
+
+		return asyncRestTemplate.getUriTemplateHandler().expand(
+				VaultClient.createBaseUrlWithPath(properties, pathTemplate), uriVariables);
+	}
+
+	private ListenableFuture<VaultClientResponse> exchange(final URI uri,
+			HttpMethod httpMethod, HttpEntity<?> httpEntity) {
+
+		final SettableListenableFuture<VaultClientResponse> result = new SettableListenableFuture<>();
+
+		ListenableFuture<ResponseEntity<VaultResponse>> future = asyncRestTemplate
+				.exchange(uri, httpMethod, httpEntity, VaultResponse.class);
+
+		future.addCallback(new ListenableFutureCallback<ResponseEntity<VaultResponse>>() {
+
+			@Override
+			public void onSuccess(ResponseEntity<VaultResponse> response) {
+				result.set(VaultClientResponse.of(response.getBody(),
+						response.getStatusCode(), uri, response.getStatusCode()
+								.getReasonPhrase()));
+			}
+
+			@Override
+			public void onFailure(Throwable ex) {
+
+				Throwable cause = ex instanceof ExecutionException
+						&& ex.getCause() != null ? ex.getCause() : ex;
+
+				if (cause instanceof HttpStatusCodeException) {
+					result.set(VaultClient.createErrorResponse(uri,
+							(HttpStatusCodeException) cause));
+					return;
+				}
+
+				result.setException(cause);
+			}
+		});
+
+		return result;
+	}
+}
@@ -15,6 +15,8 @@
  */
 package org.springframework.cloud.vault;
 
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -48,9 +50,69 @@ public abstract class ClientAuthentication {
 	 */
 	public static ClientAuthentication create(VaultProperties vaultProperties,
 			VaultClient vaultClient) {
+
+		if (vaultProperties != null
+				&& vaultProperties.getAuthentication() == VaultProperties.AuthenticationMethod.APPROLE) {
+			return appRole(vaultProperties, vaultClient);
+		}
+
 		return new DefaultClientAuthentication(vaultProperties, vaultClient);
 	}
 
+	/**
+	 * Creates an AppRole-based authentication adapter. A response-wrapped SecretId is
+	 * unwrapped on the first login.
+	 *
+	 * @param vaultProperties must not be {@literal null}.
+	 * @param vaultClient must not be {@literal null}.
+	 * @return the {@link ClientAuthentication} adapter.
+	 */
+	public static ClientAuthentication appRole(VaultProperties vaultProperties,
+			VaultClient vaultClient) {
+		return new AppRoleAuthentication(vaultProperties, vaultClient, null, null);
+	}
+
+	/**
+	 * Creates an AppRole-based authentication adapter recording unwrapping and login
+	 * as {@link VaultStartupTimings} phases. A response-wrapped SecretId is unwrapped on
+	 * the first login.
+	 *
+	 * @param vaultProperties must not be {@literal null}.
+	 * @param vaultClient must not be {@literal null}.
+	 * @param startupTimings must not be {@literal null}.
+	 * @return the {@link ClientAuthentication} adapter.
+	 */
+	public static ClientAuthentication appRole(VaultProperties vaultProperties,
+			VaultClient vaultClient, VaultStartupTimings startupTimings) {
+
+		Assert.notNull(startupTimings, "VaultStartupTimings must not be null!");
+
+		return new AppRoleAuthentication(vaultProperties, vaultClient, startupTimings,
+				null);
+	}
+
+	/**
+	 * Creates an AppRole-based authentication adapter recording unwrapping and login
+	 * as {@link VaultStartupTimings} phases. A response-wrapped SecretId is unwrapped in
+	 * the background using the {@link TaskScheduler}.
+	 *
+	 * @param vaultProperties must not be {@literal null}.
+	 * @param vaultClient must not be {@literal null}.
+	 * @param startupTimings must not be {@literal null}.
+	 * @param taskScheduler must not be {@literal null}.
+	 * @return the {@link ClientAuthentication} adapter.
+	 */
+	public static ClientAuthentication appRole(VaultProperties vaultProperties,
+			VaultClient vaultClient, VaultStartupTimings startupTimings,
+			TaskScheduler taskScheduler) {
+
+		Assert.notNull(startupTimings, "VaultStartupTimings must not be null!");
+		Assert.notNull(taskScheduler, "TaskScheduler must not be null!");
+
+		return new AppRoleAuthentication(vaultProperties, vaultClient, startupTimings,
+				taskScheduler);
+	}
+
 	/**
 	 * Creates an AppId-based authentication adapter.
 	 *
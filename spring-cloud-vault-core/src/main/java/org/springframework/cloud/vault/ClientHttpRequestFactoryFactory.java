@@ -16,25 +16,28 @@
 package org.springframework.cloud.vault;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.security.GeneralSecurityException;
-import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
 
-import javax.net.ssl.KeyManager;
-import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
 
+import org.springframework.cloud.vault.VaultProperties.HttpClientType;
 import org.springframework.cloud.vault.VaultProperties.Ssl;
-import org.springframework.core.io.Resource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.client.Netty4ClientHttpRequestFactory;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
 import org.springframework.http.client.OkHttpClientHttpRequestFactory;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.util.ClassUtils;
-import org.springframework.util.StringUtils;
 
 import com.squareup.okhttp.OkHttpClient;
 
@@ -42,15 +45,27 @@ import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslProvider;
 import lombok.extern.apachecommons.CommonsLog;
 
+import org.apache.http.HttpResponse;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
 
 /**
  * Factory for {@link ClientHttpRequestFactory} that supports Apache HTTP Components,
- * OkHttp, Netty and the JDK HTTP client (in that order). This factory configures a
- * {@link ClientHttpRequestFactory} depending on the available dependencies.
+ * OkHttp, OkHttp 3, Netty and the JDK HTTP client (in that order). This factory
+ * configures a {@link ClientHttpRequestFactory} depending on the available dependencies
+ * or the client selected with {@link VaultProperties.Http#getClient()}.
  *
  * @author Mark Paluch
  */
@@ -65,6 +80,9 @@ class ClientHttpRequestFactoryFactory {
 			"com.squareup.okhttp.OkHttpClient",
 			ClientHttpRequestFactoryFactory.class.getClassLoader());
 
+	private final static boolean OKHTTP3_PRESENT = ClassUtils.isPresent(
+			"okhttp3.OkHttpClient", ClientHttpRequestFactoryFactory.class.getClassLoader());
+
 	private final static boolean NETTY_PRESENT = ClassUtils.isPresent(
 			"io.netty.channel.nio.NioEventLoopGroup",
 			ClientHttpRequestFactoryFactory.class.getClassLoader());
@@ -77,26 +95,131 @@ class ClientHttpRequestFactoryFactory {
 	 * after obtaining.
 	 */
 	public static ClientHttpRequestFactory create(VaultProperties vaultProperties) {
+		return create(vaultProperties, null);
+	}
+
+	/**
+	 * Creates a {@link ClientHttpRequestFactory} for the given {@link VaultProperties}
+	 * recording TLS handshakes in {@link VaultMetrics}. Handshakes are recorded for
+	 * Apache HTTP Components and OkHttp.
+	 *
+	 * @param vaultProperties must not be {@literal null}
+	 * @param vaultMetrics may be {@literal null}
+	 * @return a new {@link ClientHttpRequestFactory}. Lifecycle beans must be initialized
+	 * after obtaining.
+	 */
+	public static ClientHttpRequestFactory create(VaultProperties vaultProperties,
+			VaultMetrics vaultMetrics) {
+
+		HttpClientType client = vaultProperties.getHttp().getClient();
 
 		try {
 
-			if (HTTP_COMPONENTS_PRESENT) {
-				return HttpComponents.usingHttpComponents(vaultProperties);
+			switch (client) {
+
+			case HTTP_COMPONENTS:
+				assertPresent(HTTP_COMPONENTS_PRESENT, client);
+				return HttpComponents.usingHttpComponents(vaultProperties,
+						createConnectionManager(vaultProperties, vaultMetrics));
+
+			case OKHTTP:
+				assertPresent(OKHTTP_PRESENT, client);
+				return OkHttp.usingOkHttp(vaultProperties, vaultMetrics);
+
+			case OKHTTP3:
+				assertPresent(OKHTTP3_PRESENT, client);
+				return OkHttp3.usingOkHttp3(vaultProperties, vaultMetrics);
+
+			case NETTY:
+				assertPresent(NETTY_PRESENT, client);
+				return Netty.usingNetty(vaultProperties);
+
+			case JDK:
+				return usingJdk(vaultProperties);
+
+			default:
+
+				if (HTTP_COMPONENTS_PRESENT) {
+					return HttpComponents.usingHttpComponents(vaultProperties,
+							createConnectionManager(vaultProperties, vaultMetrics));
+				}
+
+				if (OKHTTP_PRESENT) {
+					return OkHttp.usingOkHttp(vaultProperties, vaultMetrics);
+				}
+
+				if (OKHTTP3_PRESENT) {
+					return OkHttp3.usingOkHttp3(vaultProperties, vaultMetrics);
+				}
+
+				if (NETTY_PRESENT) {
+					return Netty.usingNetty(vaultProperties);
+				}
+
+				return usingJdk(vaultProperties);
 			}
+		}
+		catch (IOException | GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
 
-			if (OKHTTP_PRESENT) {
-				return OkHttp.usingOkHttp(vaultProperties);
+	/**
+	 * Creates an {@link AsyncClientHttpRequestFactory} for the given
+	 * {@link VaultProperties}. Uses Netty or OkHttp 3 for non-blocking I/O if selected
+	 * or available and falls back to the JDK HTTP client that blocks a thread per
+	 * request otherwise.
+	 *
+	 * @param vaultProperties must not be {@literal null}
+	 * @return a new {@link AsyncClientHttpRequestFactory}. Lifecycle beans must be
+	 * initialized after obtaining.
+	 */
+	public static AsyncClientHttpRequestFactory createAsync(
+			VaultProperties vaultProperties) {
+
+		HttpClientType client = vaultProperties.getHttp().getClient();
+
+		try {
+
+			if (client == HttpClientType.OKHTTP3) {
+				assertPresent(OKHTTP3_PRESENT, client);
+				return OkHttp3.usingOkHttp3(vaultProperties, null);
 			}
 
-			if (NETTY_PRESENT) {
-				return Netty.usingNetty(vaultProperties);
+			if (client == HttpClientType.NETTY) {
+				assertPresent(NETTY_PRESENT, client);
 			}
 
+			if (client != HttpClientType.JDK) {
+
+				if (NETTY_PRESENT) {
+					return Netty.usingNetty(vaultProperties);
+				}
+
+				if (OKHTTP3_PRESENT) {
+					return OkHttp3.usingOkHttp3(vaultProperties, null);
+				}
+			}
 		}
 		catch (IOException | GeneralSecurityException e) {
 			throw new IllegalStateException(e);
 		}
 
+		log.info("Asynchronous Vault requests use the JDK HTTP client "
+				+ "blocking a thread per request");
+
+		SimpleClientHttpRequestFactory requestFactory = usingJdk(vaultProperties);
+		requestFactory.setTaskExecutor(new SimpleAsyncTaskExecutor(
+				"spring-cloud-vault-async-"));
+		requestFactory.setConnectTimeout(vaultProperties.getConnectionTimeout());
+		requestFactory.setReadTimeout(vaultProperties.getReadTimeout());
+
+		return requestFactory;
+	}
+
+	private static SimpleClientHttpRequestFactory usingJdk(
+			VaultProperties vaultProperties) {
+
 		if (hasSslConfiguration(vaultProperties)) {
 			log.warn("VaultProperties has SSL configured but the SSL configuration "
 					+ "must be applied outside the Vault Client to use the JDK HTTP client");
@@ -105,58 +228,61 @@ class ClientHttpRequestFactoryFactory {
 		return new SimpleClientHttpRequestFactory();
 	}
 
-	private static SSLContext getSSLContext(VaultProperties.Ssl ssl)
-			throws GeneralSecurityException, IOException {
-
-		KeyManager[] keyManagers = ssl.getKeyStore() != null ? createKeyManagerFactory(
-				ssl.getKeyStore(), ssl.getKeyStorePassword()).getKeyManagers() : null;
+	private static void assertPresent(boolean present, HttpClientType client) {
 
-		TrustManager[] trustManagers = ssl.getTrustStore() != null ? createTrustManagerFactory(
-				ssl.getTrustStore(), ssl.getTrustStorePassword()).getTrustManagers()
-				: null;
-
-		SSLContext sslContext = SSLContext.getInstance("TLS");
-		sslContext.init(keyManagers, trustManagers, null);
-
-		return sslContext;
+		if (!present) {
+			throw new IllegalStateException(String.format(
+					"HTTP client %s (spring.cloud.vault.http.client) is not on the class path",
+					client));
+		}
 	}
 
-	private static KeyManagerFactory createKeyManagerFactory(Resource keystoreFile,
-			String storePassword) throws GeneralSecurityException, IOException {
-
-		KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
-
-		try (InputStream inputStream = keystoreFile.getInputStream()) {
-			keyStore.load(inputStream,
-					StringUtils.hasText(storePassword) ? storePassword.toCharArray()
-							: null);
-		}
+	/**
+	 * Obtain a {@link SSLContext} for the given {@link VaultProperties.Ssl}
+	 * configuration.
+	 *
+	 * @param ssl must not be {@literal null}.
+	 * @return the {@link SSLContext}.
+	 * @see SslMaterialCache
+	 */
+	static SSLContext getSSLContext(VaultProperties.Ssl ssl)
+			throws GeneralSecurityException, IOException {
+		return SslMaterialCache.getSSLContext(ssl);
+	}
 
-		KeyManagerFactory keyManagerFactory = KeyManagerFactory
-				.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-		keyManagerFactory.init(keyStore,
-				StringUtils.hasText(storePassword) ? storePassword.toCharArray()
-						: new char[0]);
+	/**
+	 * Obtain the {@link SSLContext} for HTTPS connections. The {@link SSLContext} is
+	 * shared across factories to share its TLS session cache, also without SSL
+	 * configuration.
+	 */
+	private static SSLContext getSharedSSLContext(VaultProperties vaultProperties)
+			throws GeneralSecurityException, IOException {
 
-		return keyManagerFactory;
+		Ssl ssl = vaultProperties.getSsl();
+		return getSSLContext(ssl != null ? ssl : new Ssl());
 	}
 
-	private static TrustManagerFactory createTrustManagerFactory(Resource trustFile,
-			String storePassword) throws GeneralSecurityException, IOException {
+	private static PoolingHttpClientConnectionManager createConnectionManager(
+			VaultProperties vaultProperties, VaultMetrics vaultMetrics)
+			throws GeneralSecurityException, IOException {
 
-		KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+		SSLContext sslContext = getSharedSSLContext(vaultProperties);
 
-		try (InputStream inputStream = trustFile.getInputStream()) {
-			trustStore.load(inputStream,
-					StringUtils.hasText(storePassword) ? storePassword.toCharArray()
-							: null);
+		if (vaultMetrics == null) {
+			return HttpComponents.createConnectionManager(vaultProperties,
+					new SSLConnectionSocketFactory(sslContext));
 		}
 
-		TrustManagerFactory trustManagerFactory = TrustManagerFactory
-				.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-		trustManagerFactory.init(trustStore);
+		final TlsHandshakeRecorder recorder = new TlsHandshakeRecorder(vaultMetrics);
+
+		return HttpComponents.createConnectionManager(vaultProperties,
+				new SSLConnectionSocketFactory(sslContext) {
 
-		return trustManagerFactory;
+					@Override
+					protected void prepareSocket(SSLSocket socket) {
+						recorder.register(socket);
+					}
+				});
 	}
 
 	private static boolean hasSslConfiguration(VaultProperties vaultProperties) {
@@ -171,7 +297,8 @@ class ClientHttpRequestFactoryFactory {
 	}
 
 	/**
-	 * {@link ClientHttpRequestFactory} for Apache Http Components.
+	 * {@link ClientHttpRequestFactory} for Apache Http Components. Connections are pooled
+	 * and kept alive according to {@link VaultProperties.Http}.
 	 *
 	 * @author Mark Paluch
 	 */
@@ -180,17 +307,16 @@ class ClientHttpRequestFactoryFactory {
 		static ClientHttpRequestFactory usingHttpComponents(
 				VaultProperties vaultProperties) throws GeneralSecurityException,
 				IOException {
+			return usingHttpComponents(vaultProperties,
+					createConnectionManager(vaultProperties));
+		}
 
-			HttpClientBuilder httpClientBuilder = HttpClients.custom();
-
-			if (hasSslConfiguration(vaultProperties)) {
+		static ClientHttpRequestFactory usingHttpComponents(
+				VaultProperties vaultProperties,
+				HttpClientConnectionManager connectionManager) {
 
-				SSLContext sslContext = getSSLContext(vaultProperties.getSsl());
-				SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(
-						sslContext);
-				httpClientBuilder.setSSLSocketFactory(sslSocketFactory);
-				httpClientBuilder.setSSLContext(sslContext);
-			}
+			VaultProperties.Http http = vaultProperties.getHttp();
+			HttpClientBuilder httpClientBuilder = HttpClients.custom();
 
 			RequestConfig requestConfig = RequestConfig.custom() //
 					.setConnectTimeout(vaultProperties.getConnectionTimeout()) //
@@ -199,9 +325,93 @@ class ClientHttpRequestFactoryFactory {
 					.build();
 
 			httpClientBuilder.setDefaultRequestConfig(requestConfig);
+			httpClientBuilder.setConnectionManager(connectionManager);
+			httpClientBuilder.setKeepAliveStrategy(new DefaultKeepAliveStrategy(http
+					.getKeepAlive()));
+
+			// Connections using client certificates are stateful and would not be
+			// reused otherwise.
+			httpClientBuilder.disableConnectionState();
+			httpClientBuilder.evictExpiredConnections();
+
+			if (http.getIdleConnectionTimeout() > 0) {
+				httpClientBuilder.evictIdleConnections(http.getIdleConnectionTimeout(),
+						TimeUnit.MILLISECONDS);
+			}
 
 			return new HttpComponentsClientHttpRequestFactory(httpClientBuilder.build());
 		}
+
+		/**
+		 * Creates a {@link PoolingHttpClientConnectionManager} for the given
+		 * {@link VaultProperties}.
+		 *
+		 * @param vaultProperties must not be {@literal null}.
+		 * @return the {@link PoolingHttpClientConnectionManager}.
+		 * @throws GeneralSecurityException
+		 * @throws IOException
+		 */
+		static PoolingHttpClientConnectionManager createConnectionManager(
+				VaultProperties vaultProperties) throws GeneralSecurityException,
+				IOException {
+
+			return createConnectionManager(vaultProperties,
+					new SSLConnectionSocketFactory(getSharedSSLContext(vaultProperties)));
+		}
+
+		/**
+		 * Creates a {@link PoolingHttpClientConnectionManager} for the given
+		 * {@link VaultProperties} using {@code sslSocketFactory} for HTTPS connections.
+		 *
+		 * @param vaultProperties must not be {@literal null}.
+		 * @param sslSocketFactory must not be {@literal null}.
+		 * @return the {@link PoolingHttpClientConnectionManager}.
+		 */
+		static PoolingHttpClientConnectionManager createConnectionManager(
+				VaultProperties vaultProperties,
+				LayeredConnectionSocketFactory sslSocketFactory) {
+
+			VaultProperties.Http http = vaultProperties.getHttp();
+
+			Registry<ConnectionSocketFactory> registry = RegistryBuilder
+					.<ConnectionSocketFactory> create()
+					.register("http", PlainConnectionSocketFactory.getSocketFactory())
+					.register("https", sslSocketFactory) //
+					.build();
+
+			PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+					registry, null, null, null, http.getConnectionTimeToLive(),
+					TimeUnit.MILLISECONDS);
+
+			connectionManager.setMaxTotal(http.getMaxConnections());
+			connectionManager.setDefaultMaxPerRoute(http.getMaxConnectionsPerRoute());
+			connectionManager.setValidateAfterInactivity(http
+					.getValidateAfterInactivity());
+
+			return connectionManager;
+		}
+
+		/**
+		 * {@link ConnectionKeepAliveStrategy} that uses the Keep-Alive header if present
+		 * and falls back to a default keep-alive duration.
+		 */
+		static class DefaultKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+			private final long keepAlive;
+
+			DefaultKeepAliveStrategy(long keepAlive) {
+				this.keepAlive = keepAlive;
+			}
+
+			@Override
+			public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+
+				long duration = DefaultConnectionKeepAliveStrategy.INSTANCE
+						.getKeepAliveDuration(response, context);
+
+				return duration > 0 ? duration : keepAlive;
+			}
+		}
 	}
 
 	/**
@@ -213,6 +423,11 @@ class ClientHttpRequestFactoryFactory {
 
 		static ClientHttpRequestFactory usingOkHttp(VaultProperties vaultProperties)
 				throws GeneralSecurityException, IOException {
+			return usingOkHttp(vaultProperties, null);
+		}
+
+		static ClientHttpRequestFactory usingOkHttp(VaultProperties vaultProperties,
+				VaultMetrics vaultMetrics) throws GeneralSecurityException, IOException {
 
 			final OkHttpClient okHttpClient = new OkHttpClient();
 
@@ -230,10 +445,11 @@ class ClientHttpRequestFactoryFactory {
 				}
 			};
 
-			if (hasSslConfiguration(vaultProperties)) {
-				okHttpClient.setSslSocketFactory(getSSLContext(vaultProperties.getSsl())
-						.getSocketFactory());
-			}
+			SSLSocketFactory sslSocketFactory = getSharedSSLContext(vaultProperties)
+					.getSocketFactory();
+
+			okHttpClient.setSslSocketFactory(vaultMetrics != null ? new TlsHandshakeRecorder(
+					vaultMetrics).wrap(sslSocketFactory) : sslSocketFactory);
 
 			requestFactory.setConnectTimeout(vaultProperties.getConnectionTimeout());
 			requestFactory.setReadTimeout(vaultProperties.getReadTimeout());
@@ -242,6 +458,85 @@ class ClientHttpRequestFactoryFactory {
 		}
 	}
 
+	/**
+	 * {@link ClientHttpRequestFactory} for OkHttp 3. OkHttp 3 negotiates HTTP/2 with
+	 * Vault using ALPN and multiplexes concurrent requests over a single connection per
+	 * Vault node. Connections fall back to HTTP/1.1 if HTTP/2 cannot be negotiated.
+	 *
+	 * @author Mark Paluch
+	 */
+	static class OkHttp3 {
+
+		static OkHttp3ClientHttpRequestFactory usingOkHttp3(
+				VaultProperties vaultProperties, VaultMetrics vaultMetrics)
+				throws GeneralSecurityException, IOException {
+
+			VaultProperties.Http http = vaultProperties.getHttp();
+
+			okhttp3.Dispatcher dispatcher = new okhttp3.Dispatcher();
+			dispatcher.setMaxRequests(http.getMaxConnections());
+			dispatcher.setMaxRequestsPerHost(http.getMaxConnectionsPerRoute());
+
+			okhttp3.OkHttpClient.Builder builder = new okhttp3.OkHttpClient.Builder() //
+					.protocols(Arrays.asList(okhttp3.Protocol.HTTP_2,
+							okhttp3.Protocol.HTTP_1_1)) //
+					.connectionPool(
+							new okhttp3.ConnectionPool(http.getMaxConnectionsPerRoute(), http
+									.getKeepAlive(), TimeUnit.MILLISECONDS)) //
+					.dispatcher(dispatcher) //
+					.connectTimeout(vaultProperties.getConnectionTimeout(),
+							TimeUnit.MILLISECONDS) //
+					.readTimeout(vaultProperties.getReadTimeout(), TimeUnit.MILLISECONDS);
+
+			if (hasSslConfiguration(vaultProperties)) {
+				builder.sslSocketFactory(getSSLContext(vaultProperties.getSsl())
+						.getSocketFactory());
+			}
+
+			if (vaultMetrics != null) {
+				builder.addNetworkInterceptor(new ConnectionRecordingInterceptor(
+						vaultMetrics));
+			}
+
+			return new OkHttp3ClientHttpRequestFactory(builder.build());
+		}
+
+		/**
+		 * Network {@link okhttp3.Interceptor} recording a TLS handshake for each new
+		 * connection. Resumption is not reported.
+		 */
+		static class ConnectionRecordingInterceptor implements okhttp3.Interceptor {
+
+			private final VaultMetrics vaultMetrics;
+			private final Set<okhttp3.Connection> connections = Collections
+					.newSetFromMap(new WeakHashMap<okhttp3.Connection, Boolean>());
+
+			ConnectionRecordingInterceptor(VaultMetrics vaultMetrics) {
+				this.vaultMetrics = vaultMetrics;
+			}
+
+			@Override
+			public okhttp3.Response intercept(Chain chain) throws IOException {
+
+				okhttp3.Connection connection = chain.connection();
+
+				if (connection != null && connection.handshake() != null) {
+
+					boolean added;
+					synchronized (connections) {
+						added = connections.add(connection);
+					}
+
+					if (added) {
+						vaultMetrics.recordHandshake(false);
+					}
+				}
+
+				return chain.proceed(chain.request());
+			}
+		}
+	}
+
 	/**
 	 * {@link ClientHttpRequestFactory} for Netty.
 	 *
@@ -249,7 +544,7 @@ class ClientHttpRequestFactoryFactory {
 	 */
 	static class Netty {
 
-		static ClientHttpRequestFactory usingNetty(VaultProperties vaultProperties)
+		static Netty4ClientHttpRequestFactory usingNetty(VaultProperties vaultProperties)
 				throws GeneralSecurityException, IOException {
 
 			VaultProperties.Ssl ssl = vaultProperties.getSsl();
@@ -262,17 +557,19 @@ class ClientHttpRequestFactoryFactory {
 						.forClient();
 
 				if (ssl.getTrustStore() != null) {
-					sslContextBuilder.trustManager(createTrustManagerFactory(
-							ssl.getTrustStore(), ssl.getTrustStorePassword()));
+					sslContextBuilder.trustManager(SslMaterialCache
+							.getTrustManagerFactory(ssl));
 				}
 
 				if (ssl.getKeyStore() != null) {
-					sslContextBuilder.keyManager(createKeyManagerFactory(
-							ssl.getKeyStore(), ssl.getKeyStorePassword()));
+					sslContextBuilder.keyManager(SslMaterialCache
+							.getKeyManagerFactory(ssl));
 				}
 
-				requestFactory.setSslContext(sslContextBuilder.sslProvider(
-						SslProvider.JDK).build());
+				requestFactory.setSslContext(sslContextBuilder
+						.sslProvider(SslProvider.JDK)
+						.sessionCacheSize(ssl.getSessionCacheSize())
+						.sessionTimeout(ssl.getSessionTimeout()).build());
 			}
 
 			requestFactory.setConnectTimeout(vaultProperties.getConnectionTimeout());
@@ -41,6 +41,8 @@ import lombok.extern.apachecommons.CommonsLog;
 @CommonsLog
 public class MacAddressUserId implements AppIdUserIdMechanism {
 
+	private final static char[] HEX = "0123456789ABCDEF".toCharArray();
+
 	private final VaultProperties vaultProperties;
 
 	@Override
@@ -78,16 +80,28 @@ public class MacAddressUserId implements AppIdUserIdMechanism {
 				throw new IllegalStateException(String.format("Network interface %s has no hardware address", networkInterface.getName()));
 			}
 
-			StringBuilder sb = new StringBuilder();
-			for (int i = 0; i < mac.length; i++) {
-				sb.append(String.format("%02X", mac[i]));
-			}
-			return Sha256.toSha256(sb.toString());
+			return Sha256.toSha256(toHex(mac));
 		} catch (IOException e) {
 			throw new IllegalStateException(e);
 		}
 	}
 
+	/**
+	 * Encode {@code bytes} as uppercase hex string without separators.
+	 *
+	 * @param bytes must not be {@literal null}.
+	 * @return the hex-encoded {@code bytes}.
+	 */
+	static String toHex(byte[] bytes) {
+
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+		}
+		return new String(chars);
+	}
+
 	private NetworkInterface getNetworkInterface(Number hint, List<NetworkInterface> interfaces) {
 
 		if (interfaces.size() > hint.intValue() && hint.intValue() >= 0) {
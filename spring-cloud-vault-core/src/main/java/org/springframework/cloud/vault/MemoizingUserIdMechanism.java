@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * {@link AppIdUserIdMechanism} that computes the UserId of a delegate once in the
+ * background and returns the computed UserId on subsequent calls. Computing the UserId
+ * may enumerate network interfaces and resolve the local host which can block on DNS.
+ * Callers wait up to a timeout for the UserId. A computation that failed is retried on
+ * the next call, a computation that timed out keeps running and can be awaited again.
+ *
+ * @author Mark Paluch
+ */
+class MemoizingUserIdMechanism implements AppIdUserIdMechanism {
+
+	private final AppIdUserIdMechanism delegate;
+	private final long timeout;
+	private final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+			"spring-cloud-vault-userid-");
+
+	private volatile FutureTask<String> userId;
+
+	/**
+	 * Creates a new {@link MemoizingUserIdMechanism} and starts computing the UserId.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 * @param timeout timeout in milliseconds to wait for the UserId.
+	 */
+	MemoizingUserIdMechanism(AppIdUserIdMechanism delegate, long timeout) {
+
+		Assert.notNull(delegate, "AppIdUserIdMechanism must not be null!");
+
+		this.delegate = delegate;
+		this.timeout = timeout;
+		this.threadFactory.setDaemon(true);
+		this.userId = compute();
+	}
+
+	@Override
+	public String createUserId() {
+
+		FutureTask<String> userId = this.userId;
+
+		try {
+			return userId.get(timeout, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while obtaining the UserId", e);
+		}
+		catch (TimeoutException e) {
+			throw new IllegalStateException(String.format(
+					"Cannot obtain UserId using %s within %d ms", delegate.getClass()
+							.getSimpleName(), timeout));
+		}
+		catch (ExecutionException e) {
+
+			synchronized (this) {
+				if (this.userId == userId) {
+					this.userId = compute();
+				}
+			}
+
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+
+			throw new IllegalStateException("Cannot obtain the UserId", e.getCause());
+		}
+	}
+
+	private FutureTask<String> compute() {
+
+		FutureTask<String> task = new FutureTask<>(new Callable<String>() {
+
+			@Override
+			public String call() {
+				return delegate.createUserId();
+			}
+		});
+
+		threadFactory.newThread(task).start();
+
+		return task;
+	}
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Retry policy and rate limiter for requests issued by {@link VaultClient}. Requests
+ * acquire a permit from a {@link TokenBucket} if
+ * {@link VaultProperties.Http#getRateLimit()} is configured. Requests failing with
+ * status {@code 429}, {@code 500}, {@code 502}, {@code 503}, {@code 504} or an I/O error
+ * are retried with exponential backoff and decorrelated jitter. A {@code Retry-After}
+ * header extends the backoff. Requests are not retried if {@code Retry-After} exceeds
+ * {@link VaultProperties.Retry#getMaxBackoff()}.
+ * <p>
+ * Vault rejects requests with {@code 429} and {@code 503} (sealed or standby) before
+ * applying them so these are retried for all requests. Other failures are retried only
+ * for idempotent requests: {@code GET} requests and renewals of leases and tokens.
+ * Other writes, such as logins, are not retried on these failures as a failed attempt,
+ * e.g. a read timeout, may have been applied by Vault already.
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+class RetryPolicy {
+
+	private final static String API_PATH = "/" + VaultClient.API_VERSION + "/";
+
+	/**
+	 * Paths of idempotent write requests that can be retried.
+	 */
+	private final static List<String> IDEMPOTENT_WRITES = Arrays.asList("sys/renew/",
+			"sys/leases/renew", "auth/token/renew-self");
+
+	private final VaultProperties.Retry retry;
+	private final TokenBucket tokenBucket;
+	private final VaultMetrics vaultMetrics;
+	private final Random random = new Random();
+
+	/**
+	 * Creates a new {@link RetryPolicy}.
+	 *
+	 * @param properties must not be {@literal null}.
+	 * @param vaultMetrics may be {@literal null}.
+	 */
+	RetryPolicy(VaultProperties properties, VaultMetrics vaultMetrics) {
+
+		Assert.notNull(properties, "VaultProperties must not be null!");
+
+		VaultProperties.Http http = properties.getHttp();
+
+		this.retry = properties.getRetry();
+		this.tokenBucket = http.getRateLimit() > 0 ? new TokenBucket(
+				http.getRateLimit(), http.getRateLimitBurst()) : null;
+		this.vaultMetrics = vaultMetrics;
+	}
+
+	/**
+	 * Acquire a permit from the rate limiter, waiting until a permit is available.
+	 */
+	void acquire() {
+
+		if (tokenBucket == null) {
+			return;
+		}
+
+		try {
+
+			long delay = tokenBucket.acquire();
+
+			if (delay > 0 && vaultMetrics != null) {
+				vaultMetrics.recordRateLimited(delay);
+			}
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(
+					"Interrupted while waiting for the Vault rate limit", e);
+		}
+	}
+
+	/**
+	 * @param idempotent whether the request can be retried after any transient failure,
+	 * see {@link #isIdempotent(HttpMethod, URI)}.
+	 * @return a new {@link Backoff} tracking the attempts of a single request.
+	 */
+	Backoff start(boolean idempotent) {
+		return new Backoff(idempotent);
+	}
+
+	/**
+	 * Check whether a request can be retried without side effects.
+	 *
+	 * @param httpMethod must not be {@literal null}.
+	 * @param uri must not be {@literal null}.
+	 * @return {@literal true} for {@code GET} requests and renewals of leases and tokens.
+	 */
+	static boolean isIdempotent(HttpMethod httpMethod, URI uri) {
+
+		if (httpMethod == HttpMethod.GET) {
+			return true;
+		}
+
+		if (httpMethod != HttpMethod.POST && httpMethod != HttpMethod.PUT) {
+			return false;
+		}
+
+		String path = uri.getPath();
+		int index = path != null ? path.indexOf(API_PATH) : -1;
+
+		if (index == -1) {
+			return false;
+		}
+
+		String apiPath = path.substring(index + API_PATH.length());
+
+		for (String idempotentWrite : IDEMPOTENT_WRITES) {
+			if (apiPath.startsWith(idempotentWrite)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean isRetryable(HttpStatus status, boolean idempotent) {
+
+		switch (status) {
+		case TOO_MANY_REQUESTS:
+		case SERVICE_UNAVAILABLE:
+			return true;
+		case INTERNAL_SERVER_ERROR:
+		case BAD_GATEWAY:
+		case GATEWAY_TIMEOUT:
+			return idempotent;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Obtain the delay in milliseconds requested by a {@code Retry-After} header given
+	 * either in seconds or as HTTP date.
+	 *
+	 * @param headers may be {@literal null}.
+	 * @return the delay in milliseconds or {@code 0} if absent.
+	 */
+	static long getRetryAfter(HttpHeaders headers) {
+
+		String value = headers != null ? headers.getFirst("Retry-After") : null;
+
+		if (!StringUtils.hasText(value)) {
+			return 0;
+		}
+
+		try {
+			return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+		}
+		catch (NumberFormatException e) {
+
+			try {
+				return Math.max(0,
+						headers.getFirstDate("Retry-After") - System.currentTimeMillis());
+			}
+			catch (IllegalArgumentException o_O) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * Backoff state of a single request.
+	 */
+	class Backoff {
+
+		private final boolean idempotent;
+		private int attempt = 1;
+		private long previousDelay = retry.getInitialBackoff();
+
+		Backoff(boolean idempotent) {
+			this.idempotent = idempotent;
+		}
+
+		/**
+		 * Wait before retrying the request if the {@code exception} is retryable and
+		 * attempts are left.
+		 *
+		 * @param exception the failure of the previous attempt.
+		 * @return {@literal true} if the request should be retried.
+		 */
+		boolean retry(RuntimeException exception) {
+
+			if (!retry.isEnabled()) {
+				return false;
+			}
+
+			long retryAfter = 0;
+
+			if (exception instanceof HttpStatusCodeException) {
+
+				HttpStatusCodeException e = (HttpStatusCodeException) exception;
+
+				if (!isRetryable(e.getStatusCode(), idempotent)) {
+					return false;
+				}
+
+				retryAfter = getRetryAfter(e.getResponseHeaders());
+			}
+			else if (!(exception instanceof ResourceAccessException) || !idempotent) {
+				return false;
+			}
+
+			if (attempt >= retry.getMaxAttempts()
+					|| retryAfter > retry.getMaxBackoff()) {
+
+				if (vaultMetrics != null) {
+					vaultMetrics.recordExhaustedRetries();
+				}
+
+				return false;
+			}
+
+			long delay = Math.max(nextDelay(), retryAfter);
+
+			if (log.isDebugEnabled()) {
+				log.debug(String.format("Retrying Vault request after %d ms (attempt %d)",
+						delay, attempt + 1));
+			}
+
+			try {
+				Thread.sleep(delay);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+
+			attempt++;
+
+			if (vaultMetrics != null) {
+				vaultMetrics.recordRetry();
+			}
+
+			return true;
+		}
+
+		/**
+		 * Calculate the next delay using decorrelated jitter: a random delay between the
+		 * initial backoff and three times the previous delay, capped at the maximum
+		 * backoff.
+		 *
+		 * @return the delay in milliseconds.
+		 */
+		long nextDelay() {
+
+			long initial = retry.getInitialBackoff();
+			long upper = Math.max(initial, previousDelay * 3);
+
+			double next;
+			synchronized (random) {
+				next = initial + random.nextDouble() * (upper - initial);
+			}
+
+			previousDelay = Math.min(retry.getMaxBackoff(), (long) next);
+			return previousDelay;
+		}
+	}
+}
@@ -13,25 +13,42 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.springframework.cloud.vault;
 
-import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SortedMap;
 
-import org.springframework.security.crypto.codec.Hex;
 import org.springframework.util.Assert;
 
 /**
- * Utility to generate a SHA 256 checksum.
+ * Utility to generate a SHA 256 checksum. {@link MessageDigest} instances and buffers
+ * are confined to the calling thread and reused across invocations. Input is streamed
+ * into the digest without encoding it into intermediate byte arrays.
  *
  * @author Mark Paluch
  */
-class Sha256 {
+public class Sha256 {
+
+	private final static char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final static int DIGEST_LENGTH = 32;
+
+	private final static ThreadLocal<Hasher> HASHERS = new ThreadLocal<Hasher>() {
+
+		@Override
+		protected Hasher initialValue() {
+			return new Hasher(getMessageDigest("SHA-256"));
+		}
+	};
 
 	/**
-	 * Generates a hex-encoded SHA256 checksum from the supplied {@code content}.
+	 * Generates a hex-encoded SHA256 checksum from the supplied {@code content}. Non-ASCII
+	 * characters are hashed as {@code ?}.
 	 *
 	 * @param content must not be {@literal null} and not empty.
 	 * @return hex-encoded SHA256 checksum
@@ -40,9 +57,52 @@ class Sha256 {
 
 		Assert.hasText(content, "Content must not be empty");
 
-		MessageDigest messageDigest = getMessageDigest("SHA-256");
-		byte[] digest = messageDigest.digest(content.getBytes(StandardCharsets.US_ASCII));
-		return new String(Hex.encode(digest));
+		return hasher().putAscii(content).toHexString();
+	}
+
+	/**
+	 * Generates a hex-encoded SHA256 checksum from the supplied {@code data}. The
+	 * checksum does not depend on the iteration order of {@code data}. Keys and values
+	 * are length-prefixed so distinct maps yield distinct input to the digest.
+	 *
+	 * @param data must not be {@literal null}.
+	 * @return hex-encoded SHA256 checksum
+	 */
+	public static String toSha256(Map<String, String> data) {
+
+		Assert.notNull(data, "Data must not be null");
+
+		return hasher().putMap(data).toHexString();
+	}
+
+	/**
+	 * Obtain the {@link Hasher} of the calling thread. The {@link Hasher} is reset and
+	 * must not be shared with other threads or used after obtaining it again.
+	 *
+	 * @return the reset {@link Hasher}.
+	 */
+	public static Hasher hasher() {
+
+		Hasher hasher = HASHERS.get();
+		hasher.reset();
+		return hasher;
+	}
+
+	/**
+	 * Hex-encode {@code bytes} into {@code target} using lowercase characters.
+	 *
+	 * @param bytes must not be {@literal null}.
+	 * @param target must not be {@literal null} and hold at least twice as many
+	 * characters as {@code bytes}.
+	 */
+	public static void encodeHex(byte[] bytes, char[] target) {
+
+		Assert.isTrue(target.length >= bytes.length * 2, "Target too small");
+
+		for (int i = 0; i < bytes.length; i++) {
+			target[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+			target[i * 2 + 1] = HEX[bytes[i] & 0xF];
+		}
 	}
 
 	/**
@@ -61,4 +121,250 @@ class Sha256 {
 			throw new IllegalArgumentException("No such algorithm [" + algorithm + "]");
 		}
 	}
+
+	/**
+	 * Thread-confined streaming SHA-256 digest with reusable buffers. Strings are
+	 * encoded into a reusable buffer in chunks and written to the digest.
+	 *
+	 * <pre class="code">
+	 * String digest = Sha256.hasher().putString(key).putString(value).toHexString();
+	 * </pre>
+	 */
+	public static class Hasher {
+
+		private final MessageDigest messageDigest;
+		private final byte[] buffer = new byte[256];
+		private final byte[] digest = new byte[DIGEST_LENGTH];
+		private final char[] hex = new char[DIGEST_LENGTH * 2];
+
+		private int position;
+
+		private Hasher(MessageDigest messageDigest) {
+			this.messageDigest = messageDigest;
+		}
+
+		/**
+		 * Hash the US-ASCII representation of {@code value}. Characters outside US-ASCII
+		 * are hashed as {@code ?}.
+		 *
+		 * @param value must not be {@literal null}.
+		 * @return {@literal this} {@link Hasher}.
+		 */
+		public Hasher putAscii(String value) {
+
+			for (int i = 0; i < value.length(); i++) {
+
+				char c = value.charAt(i);
+
+				if (Character.isHighSurrogate(c) && i + 1 < value.length()
+						&& Character.isLowSurrogate(value.charAt(i + 1))) {
+					i++;
+				}
+
+				put(c < 0x80 ? (byte) c : (byte) '?');
+			}
+
+			return this;
+		}
+
+		/**
+		 * Hash the length-prefixed UTF-8 representation of {@code value}. {@literal null}
+		 * is hashed as length {@code -1}.
+		 *
+		 * @param value may be {@literal null}.
+		 * @return {@literal this} {@link Hasher}.
+		 */
+		public Hasher putString(String value) {
+
+			if (value == null) {
+				putInt(-1);
+				return this;
+			}
+
+			putInt(utf8Length(value));
+
+			for (int i = 0; i < value.length(); i++) {
+
+				char c = value.charAt(i);
+
+				if (c < 0x80) {
+					put((byte) c);
+				}
+				else if (c < 0x800) {
+					put((byte) (0xC0 | (c >> 6)));
+					put((byte) (0x80 | (c & 0x3F)));
+				}
+				else if (Character.isSurrogate(c)) {
+
+					if (Character.isHighSurrogate(c) && i + 1 < value.length()
+							&& Character.isLowSurrogate(value.charAt(i + 1))) {
+
+						int codePoint = Character.toCodePoint(c, value.charAt(++i));
+						put((byte) (0xF0 | (codePoint >> 18)));
+						put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+						put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+						put((byte) (0x80 | (codePoint & 0x3F)));
+					}
+					else {
+						put((byte) '?');
+					}
+				}
+				else {
+					put((byte) (0xE0 | (c >> 12)));
+					put((byte) (0x80 | ((c >> 6) & 0x3F)));
+					put((byte) (0x80 | (c & 0x3F)));
+				}
+			}
+
+			return this;
+		}
+
+		/**
+		 * Hash {@code data} independent of its iteration order. Entries are hashed in
+		 * natural key order as length-prefixed key and value.
+		 *
+		 * @param data must not be {@literal null}.
+		 * @return {@literal this} {@link Hasher}.
+		 */
+		@SuppressWarnings("unchecked")
+		public Hasher putMap(Map<String, String> data) {
+
+			if (data instanceof SortedMap && ((SortedMap<String, String>) data)
+					.comparator() == null) {
+
+				for (Map.Entry<String, String> entry : data.entrySet()) {
+					putString(entry.getKey());
+					putString(entry.getValue());
+				}
+
+				return this;
+			}
+
+			Map.Entry<String, String>[] entries = data.entrySet().toArray(
+					new Map.Entry[data.size()]);
+			Arrays.sort(entries, KeyComparator.INSTANCE);
+
+			for (Map.Entry<String, String> entry : entries) {
+				putString(entry.getKey());
+				putString(entry.getValue());
+			}
+
+			return this;
+		}
+
+		/**
+		 * Complete the digest and hex-encode it into a reusable {@code char[]}. The
+		 * returned array is overwritten by the next digest of this thread.
+		 *
+		 * @return the hex-encoded digest.
+		 */
+		public char[] toHex() {
+
+			encodeHex(digest(), hex);
+			return hex;
+		}
+
+		/**
+		 * Complete the digest and return its hex-encoded representation.
+		 *
+		 * @return the hex-encoded digest.
+		 */
+		public String toHexString() {
+			return new String(toHex());
+		}
+
+		/**
+		 * Complete the digest into a reusable {@code byte[]}. The returned array is
+		 * overwritten by the next digest of this thread.
+		 *
+		 * @return the digest.
+		 */
+		public byte[] digest() {
+
+			flush();
+
+			try {
+				messageDigest.digest(digest, 0, DIGEST_LENGTH);
+			}
+			catch (DigestException e) {
+				throw new IllegalStateException(e);
+			}
+
+			return digest;
+		}
+
+		private void reset() {
+
+			position = 0;
+			messageDigest.reset();
+		}
+
+		private void putInt(int value) {
+
+			put((byte) (value >>> 24));
+			put((byte) (value >>> 16));
+			put((byte) (value >>> 8));
+			put((byte) value);
+		}
+
+		private void put(byte b) {
+
+			if (position == buffer.length) {
+				flush();
+			}
+
+			buffer[position++] = b;
+		}
+
+		private void flush() {
+
+			if (position > 0) {
+				messageDigest.update(buffer, 0, position);
+				position = 0;
+			}
+		}
+
+		private static int utf8Length(String value) {
+
+			int length = 0;
+
+			for (int i = 0; i < value.length(); i++) {
+
+				char c = value.charAt(i);
+
+				if (c < 0x80) {
+					length++;
+				}
+				else if (c < 0x800) {
+					length += 2;
+				}
+				else if (Character.isSurrogate(c)) {
+
+					if (Character.isHighSurrogate(c) && i + 1 < value.length()
+							&& Character.isLowSurrogate(value.charAt(i + 1))) {
+						length += 4;
+						i++;
+					}
+					else {
+						length++;
+					}
+				}
+				else {
+					length += 3;
+				}
+			}
+
+			return length;
+		}
+	}
+
+	private enum KeyComparator implements Comparator<Map.Entry<String, String>> {
+
+		INSTANCE;
+
+		@Override
+		public int compare(Map.Entry<String, String> o1, Map.Entry<String, String> o2) {
+			return o1.getKey().compareTo(o2.getKey());
+		}
+	}
 }
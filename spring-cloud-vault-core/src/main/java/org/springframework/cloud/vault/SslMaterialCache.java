@@ -0,0 +1,566 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.KeyManagerFactorySpi;
+import javax.net.ssl.ManagerFactoryParameters;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.TrustManagerFactorySpi;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.net.ssl.X509KeyManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+
+import lombok.Value;
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Cache for SSL material built from key and trust stores. Parsed stores are cached by
+ * their {@link Resource location}, the hash of the store password and the modification
+ * time of the store so multiple factories and bootstrap contexts share the SSL material
+ * instead of reading and parsing stores again.
+ * <p>
+ * Key and trust managers check their store for modifications at most once per
+ * {@link VaultProperties.Ssl#getReloadInterval() reload interval} and reload the store
+ * if it was modified. New TLS handshakes use the reloaded material so certificates can
+ * be rotated without a restart. Stores that cannot be reloaded, e.g. while being
+ * written, retain the previous material.
+ * <p>
+ * Sharing {@link SSLContext}s shares their client session cache so connections of
+ * different factories resume TLS sessions instead of performing a full handshake.
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+class SslMaterialCache {
+
+	private final static ConcurrentMap<StoreKey, Material> MATERIAL = new ConcurrentHashMap<>();
+
+	private final static ConcurrentMap<ContextKey, SSLContext> CONTEXTS = new ConcurrentHashMap<>();
+
+	/**
+	 * Obtain a {@link SSLContext} for the given {@link VaultProperties.Ssl}
+	 * configuration. {@link SSLContext}s are cached and use reloading key and trust
+	 * managers.
+	 *
+	 * @param ssl must not be {@literal null}.
+	 * @return the {@link SSLContext}.
+	 * @throws GeneralSecurityException
+	 * @throws IOException
+	 */
+	static SSLContext getSSLContext(VaultProperties.Ssl ssl)
+			throws GeneralSecurityException, IOException {
+
+		ContextKey contextKey = createContextKey(ssl);
+
+		SSLContext sslContext = CONTEXTS.get(contextKey);
+
+		if (sslContext != null) {
+			return sslContext;
+		}
+
+		KeyManager[] keyManagers = ssl.getKeyStore() != null ? getKeyManagerFactory(
+				ssl).getKeyManagers() : null;
+
+		TrustManager[] trustManagers = ssl.getTrustStore() != null ? getTrustManagerFactory(
+				ssl).getTrustManagers() : null;
+
+		sslContext = SSLContext.getInstance("TLS");
+		sslContext.init(keyManagers, trustManagers, null);
+		sslContext.getClientSessionContext().setSessionCacheSize(
+				ssl.getSessionCacheSize());
+		sslContext.getClientSessionContext().setSessionTimeout(ssl.getSessionTimeout());
+
+		SSLContext existing = CONTEXTS.putIfAbsent(contextKey, sslContext);
+
+		return existing != null ? existing : sslContext;
+	}
+
+	/**
+	 * Obtain a {@link KeyManagerFactory} providing a reloading key manager for the key
+	 * store configured in {@link VaultProperties.Ssl}.
+	 *
+	 * @param ssl must not be {@literal null}.
+	 * @return the {@link KeyManagerFactory}.
+	 * @throws GeneralSecurityException
+	 * @throws IOException
+	 */
+	static KeyManagerFactory getKeyManagerFactory(VaultProperties.Ssl ssl)
+			throws GeneralSecurityException, IOException {
+
+		StoreKey storeKey = keyStoreKey(ssl);
+		Material material = getMaterial(storeKey, ssl.getKeyStorePassword(), null);
+
+		final KeyManager[] keyManagers = { new ReloadingKeyManager(storeKey,
+				ssl.getKeyStorePassword(), ssl.getReloadInterval(), material) };
+
+		return new KeyManagerFactory(new KeyManagerFactorySpi() {
+
+			@Override
+			protected void engineInit(KeyStore ks, char[] password) {
+			}
+
+			@Override
+			protected void engineInit(ManagerFactoryParameters spec) {
+			}
+
+			@Override
+			protected KeyManager[] engineGetKeyManagers() {
+				return keyManagers;
+			}
+		}, null, KeyManagerFactory.getDefaultAlgorithm()) {
+		};
+	}
+
+	/**
+	 * Obtain a {@link TrustManagerFactory} providing a reloading trust manager for the
+	 * trust store configured in {@link VaultProperties.Ssl}.
+	 *
+	 * @param ssl must not be {@literal null}.
+	 * @return the {@link TrustManagerFactory}.
+	 * @throws GeneralSecurityException
+	 * @throws IOException
+	 */
+	static TrustManagerFactory getTrustManagerFactory(VaultProperties.Ssl ssl)
+			throws GeneralSecurityException, IOException {
+
+		StoreKey storeKey = trustStoreKey(ssl);
+		Material material = getMaterial(storeKey, ssl.getTrustStorePassword(), null);
+
+		final TrustManager[] trustManagers = { new ReloadingTrustManager(storeKey,
+				ssl.getTrustStorePassword(), ssl.getReloadInterval(), material) };
+
+		return new TrustManagerFactory(new TrustManagerFactorySpi() {
+
+			@Override
+			protected void engineInit(KeyStore ks) {
+			}
+
+			@Override
+			protected void engineInit(ManagerFactoryParameters spec) {
+			}
+
+			@Override
+			protected TrustManager[] engineGetTrustManagers() {
+				return trustManagers;
+			}
+		}, null, TrustManagerFactory.getDefaultAlgorithm()) {
+		};
+	}
+
+	/**
+	 * Clear all cached SSL material.
+	 */
+	static void clear() {
+		CONTEXTS.clear();
+		MATERIAL.clear();
+	}
+
+	/**
+	 * Create a {@link ContextKey}. Modification times are part of the key if reloading
+	 * is disabled so modified stores result in a new {@link SSLContext}.
+	 */
+	private static ContextKey createContextKey(VaultProperties.Ssl ssl) {
+
+		if (ssl.getReloadInterval() > 0) {
+			return new ContextKey(keyStoreKey(ssl), trustStoreKey(ssl),
+					ssl.getReloadInterval(), 0, 0, ssl.getSessionCacheSize(),
+					ssl.getSessionTimeout());
+		}
+
+		return new ContextKey(keyStoreKey(ssl), trustStoreKey(ssl),
+				ssl.getReloadInterval(), ssl.getKeyStore() != null ? lastModified(ssl
+						.getKeyStore()) : 0, ssl.getTrustStore() != null ? lastModified(ssl
+						.getTrustStore()) : 0, ssl.getSessionCacheSize(),
+				ssl.getSessionTimeout());
+	}
+
+	private static StoreKey keyStoreKey(VaultProperties.Ssl ssl) {
+		return ssl.getKeyStore() != null ? new StoreKey(ssl.getKeyStore(),
+				hash(ssl.getKeyStorePassword()), true) : null;
+	}
+
+	private static StoreKey trustStoreKey(VaultProperties.Ssl ssl) {
+		return ssl.getTrustStore() != null ? new StoreKey(ssl.getTrustStore(),
+				hash(ssl.getTrustStorePassword()), false) : null;
+	}
+
+	private static String hash(String password) {
+		return StringUtils.hasText(password) ? Sha256.hasher().putString(password)
+				.toHexString() : "";
+	}
+
+	/**
+	 * Obtain {@link Material} for a store. The store is loaded if it is not cached or it
+	 * was modified since it was cached.
+	 *
+	 * @param storeKey must not be {@literal null}.
+	 * @param password may be {@literal null}.
+	 * @param previous previously used {@link Material} retained if the store cannot be
+	 * reloaded, may be {@literal null}.
+	 * @return the {@link Material}.
+	 */
+	private static Material getMaterial(StoreKey storeKey, String password,
+			Material previous) throws GeneralSecurityException, IOException {
+
+		long lastModified = lastModified(storeKey.getResource());
+		Material material = MATERIAL.get(storeKey);
+
+		if (material != null && material.getLastModified() == lastModified) {
+			return material;
+		}
+
+		synchronized (MATERIAL) {
+
+			material = MATERIAL.get(storeKey);
+
+			if (material != null && material.getLastModified() == lastModified) {
+				return material;
+			}
+
+			try {
+				material = load(storeKey, password, lastModified);
+			}
+			catch (IOException | GeneralSecurityException | RuntimeException e) {
+
+				if (previous == null) {
+					throw e;
+				}
+
+				log.warn(String.format("Cannot reload %s, retaining previous material",
+						storeKey.getResource()), e);
+				return previous;
+			}
+
+			if (previous != null) {
+				log.info(String.format("Reloaded %s", storeKey.getResource()));
+			}
+
+			MATERIAL.put(storeKey, material);
+			return material;
+		}
+	}
+
+	private static Material load(StoreKey storeKey, String password, long lastModified)
+			throws GeneralSecurityException, IOException {
+
+		char[] passwordChars = StringUtils.hasText(password) ? password.toCharArray()
+				: null;
+
+		KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+
+		try (InputStream inputStream = storeKey.getResource().getInputStream()) {
+			keyStore.load(inputStream, passwordChars);
+		}
+
+		if (storeKey.isKeyStore()) {
+
+			KeyManagerFactory keyManagerFactory = KeyManagerFactory
+					.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+			keyManagerFactory.init(keyStore, passwordChars != null ? passwordChars
+					: new char[0]);
+
+			for (KeyManager keyManager : keyManagerFactory.getKeyManagers()) {
+				if (keyManager instanceof X509KeyManager) {
+					return new Material(lastModified, (X509KeyManager) keyManager, null);
+				}
+			}
+
+			throw new IllegalStateException(String.format(
+					"No X509KeyManager available for %s", storeKey.getResource()));
+		}
+
+		TrustManagerFactory trustManagerFactory = TrustManagerFactory
+				.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		trustManagerFactory.init(keyStore);
+
+		for (TrustManager trustManager : trustManagerFactory.getTrustManagers()) {
+			if (trustManager instanceof X509TrustManager) {
+				return new Material(lastModified, null, (X509TrustManager) trustManager);
+			}
+		}
+
+		throw new IllegalStateException(String.format(
+				"No X509TrustManager available for %s", storeKey.getResource()));
+	}
+
+	private static long lastModified(Resource resource) {
+
+		try {
+			return resource.lastModified();
+		}
+		catch (IOException e) {
+			// not backed by a file, never modified
+			return -1;
+		}
+	}
+
+	/**
+	 * Cache key for a store. {@link Resource}s are compared by their location.
+	 */
+	@Value
+	static class StoreKey {
+
+		private Resource resource;
+		private String passwordHash;
+		private boolean keyStore;
+	}
+
+	@Value
+	static class ContextKey {
+
+		private StoreKey keyStore;
+		private StoreKey trustStore;
+		private long reloadInterval;
+		private long keyStoreModified;
+		private long trustStoreModified;
+		private int sessionCacheSize;
+		private int sessionTimeout;
+	}
+
+	@Value
+	static class Material {
+
+		private long lastModified;
+		private X509KeyManager keyManager;
+		private X509TrustManager trustManager;
+	}
+
+	/**
+	 * Base class for key and trust managers checking their store for modifications.
+	 */
+	static class Reloading {
+
+		private final StoreKey storeKey;
+		private final String password;
+		private final long reloadInterval;
+
+		private volatile Material material;
+		private volatile long nextCheck;
+
+		Reloading(StoreKey storeKey, String password, long reloadInterval,
+				Material material) {
+
+			this.storeKey = storeKey;
+			this.password = password;
+			this.reloadInterval = reloadInterval;
+			this.material = material;
+			this.nextCheck = System.currentTimeMillis() + reloadInterval;
+		}
+
+		Material getMaterial() {
+
+			if (reloadInterval > 0 && System.currentTimeMillis() >= nextCheck) {
+
+				nextCheck = System.currentTimeMillis() + reloadInterval;
+
+				try {
+					material = SslMaterialCache.getMaterial(storeKey, password, material);
+				}
+				catch (IOException | GeneralSecurityException e) {
+					log.warn(String.format("Cannot reload %s", storeKey.getResource()), e);
+				}
+			}
+
+			return material;
+		}
+	}
+
+	static class ReloadingKeyManager extends X509ExtendedKeyManager {
+
+		private final Reloading reloading;
+
+		ReloadingKeyManager(StoreKey storeKey, String password, long reloadInterval,
+				Material material) {
+			this.reloading = new Reloading(storeKey, password, reloadInterval, material);
+		}
+
+		private X509KeyManager delegate() {
+			return reloading.getMaterial().getKeyManager();
+		}
+
+		@Override
+		public String[] getClientAliases(String keyType, Principal[] issuers) {
+			return delegate().getClientAliases(keyType, issuers);
+		}
+
+		@Override
+		public String chooseClientAlias(String[] keyType, Principal[] issuers,
+				Socket socket) {
+			return delegate().chooseClientAlias(keyType, issuers, socket);
+		}
+
+		@Override
+		public String[] getServerAliases(String keyType, Principal[] issuers) {
+			return delegate().getServerAliases(keyType, issuers);
+		}
+
+		@Override
+		public String chooseServerAlias(String keyType, Principal[] issuers,
+				Socket socket) {
+			return delegate().chooseServerAlias(keyType, issuers, socket);
+		}
+
+		@Override
+		public X509Certificate[] getCertificateChain(String alias) {
+			return delegate().getCertificateChain(alias);
+		}
+
+		@Override
+		public PrivateKey getPrivateKey(String alias) {
+			return delegate().getPrivateKey(alias);
+		}
+
+		@Override
+		public String chooseEngineClientAlias(String[] keyType, Principal[] issuers,
+				SSLEngine engine) {
+
+			X509KeyManager delegate = delegate();
+
+			if (delegate instanceof X509ExtendedKeyManager) {
+				return ((X509ExtendedKeyManager) delegate).chooseEngineClientAlias(
+						keyType, issuers, engine);
+			}
+
+			return delegate.chooseClientAlias(keyType, issuers, null);
+		}
+
+		@Override
+		public String chooseEngineServerAlias(String keyType, Principal[] issuers,
+				SSLEngine engine) {
+
+			X509KeyManager delegate = delegate();
+
+			if (delegate instanceof X509ExtendedKeyManager) {
+				return ((X509ExtendedKeyManager) delegate).chooseEngineServerAlias(
+						keyType, issuers, engine);
+			}
+
+			return delegate.chooseServerAlias(keyType, issuers, null);
+		}
+	}
+
+	static class ReloadingTrustManager extends X509ExtendedTrustManager {
+
+		private final Reloading reloading;
+
+		ReloadingTrustManager(StoreKey storeKey, String password, long reloadInterval,
+				Material material) {
+			this.reloading = new Reloading(storeKey, password, reloadInterval, material);
+		}
+
+		private X509TrustManager delegate() {
+			return reloading.getMaterial().getTrustManager();
+		}
+
+		@Override
+		public void checkClientTrusted(X509Certificate[] chain, String authType)
+				throws CertificateException {
+			delegate().checkClientTrusted(chain, authType);
+		}
+
+		@Override
+		public void checkServerTrusted(X509Certificate[] chain, String authType)
+				throws CertificateException {
+			delegate().checkServerTrusted(chain, authType);
+		}
+
+		@Override
+		public X509Certificate[] getAcceptedIssuers() {
+			return delegate().getAcceptedIssuers();
+		}
+
+		@Override
+		public void checkClientTrusted(X509Certificate[] chain, String authType,
+				Socket socket) throws CertificateException {
+
+			X509TrustManager delegate = delegate();
+
+			if (delegate instanceof X509ExtendedTrustManager) {
+				((X509ExtendedTrustManager) delegate).checkClientTrusted(chain, authType,
+						socket);
+				return;
+			}
+
+			delegate.checkClientTrusted(chain, authType);
+		}
+
+		@Override
+		public void checkServerTrusted(X509Certificate[] chain, String authType,
+				Socket socket) throws CertificateException {
+
+			X509TrustManager delegate = delegate();
+
+			if (delegate instanceof X509ExtendedTrustManager) {
+				((X509ExtendedTrustManager) delegate).checkServerTrusted(chain, authType,
+						socket);
+				return;
+			}
+
+			delegate.checkServerTrusted(chain, authType);
+		}
+
+		@Override
+		public void checkClientTrusted(X509Certificate[] chain, String authType,
+				SSLEngine engine) throws CertificateException {
+
+			X509TrustManager delegate = delegate();
+
+			if (delegate instanceof X509ExtendedTrustManager) {
+				((X509ExtendedTrustManager) delegate).checkClientTrusted(chain, authType,
+						engine);
+				return;
+			}
+
+			delegate.checkClientTrusted(chain, authType);
+		}
+
+		@Override
+		public void checkServerTrusted(X509Certificate[] chain, String authType,
+				SSLEngine engine) throws CertificateException {
+
+			X509TrustManager delegate = delegate();
+
+			if (delegate instanceof X509ExtendedTrustManager) {
+				((X509ExtendedTrustManager) delegate).checkServerTrusted(chain, authType,
+						engine);
+				return;
+			}
+
+			delegate.checkServerTrusted(chain, authType);
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link HandshakeCompletedListener} recording TLS handshakes in {@link VaultMetrics}.
+ * A handshake is considered resumed if its session Id was seen before.
+ *
+ * @author Mark Paluch
+ */
+class TlsHandshakeRecorder implements HandshakeCompletedListener {
+
+	private final static int MAX_SESSIONS = 1000;
+
+	private final VaultMetrics vaultMetrics;
+
+	private final Set<ByteBuffer> sessionIds = Collections
+			.newSetFromMap(new LinkedHashMap<ByteBuffer, Boolean>() {
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Boolean> eldest) {
+					return size() > MAX_SESSIONS;
+				}
+			});
+
+	/**
+	 * Creates a new {@link TlsHandshakeRecorder}.
+	 *
+	 * @param vaultMetrics must not be {@literal null}.
+	 */
+	TlsHandshakeRecorder(VaultMetrics vaultMetrics) {
+
+		Assert.notNull(vaultMetrics, "VaultMetrics must not be null!");
+
+		this.vaultMetrics = vaultMetrics;
+	}
+
+	@Override
+	public void handshakeCompleted(HandshakeCompletedEvent event) {
+
+		byte[] sessionId = event.getSession().getId();
+		boolean resumed = false;
+
+		if (sessionId != null && sessionId.length != 0) {
+			synchronized (sessionIds) {
+				resumed = !sessionIds.add(ByteBuffer.wrap(sessionId.clone()));
+			}
+		}
+
+		vaultMetrics.recordHandshake(resumed);
+	}
+
+	/**
+	 * Register this listener with {@code socket} if it is a {@link SSLSocket}.
+	 *
+	 * @param socket the socket.
+	 * @return the {@code socket}.
+	 */
+	Socket register(Socket socket) {
+
+		if (socket instanceof SSLSocket) {
+			((SSLSocket) socket).addHandshakeCompletedListener(this);
+		}
+
+		return socket;
+	}
+
+	/**
+	 * Wrap a {@link SSLSocketFactory} to register this listener with created sockets.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 * @return the wrapped {@link SSLSocketFactory}.
+	 */
+	SSLSocketFactory wrap(final SSLSocketFactory delegate) {
+
+		Assert.notNull(delegate, "SSLSocketFactory must not be null!");
+
+		return new SSLSocketFactory() {
+
+			@Override
+			public String[] getDefaultCipherSuites() {
+				return delegate.getDefaultCipherSuites();
+			}
+
+			@Override
+			public String[] getSupportedCipherSuites() {
+				return delegate.getSupportedCipherSuites();
+			}
+
+			@Override
+			public Socket createSocket() throws IOException {
+				return register(delegate.createSocket());
+			}
+
+			@Override
+			public Socket createSocket(Socket socket, String host, int port,
+					boolean autoClose) throws IOException {
+				return register(delegate.createSocket(socket, host, port, autoClose));
+			}
+
+			@Override
+			public Socket createSocket(String host, int port) throws IOException {
+				return register(delegate.createSocket(host, port));
+			}
+
+			@Override
+			public Socket createSocket(String host, int port, InetAddress localHost,
+					int localPort) throws IOException {
+				return register(delegate.createSocket(host, port, localHost, localPort));
+			}
+
+			@Override
+			public Socket createSocket(InetAddress host, int port) throws IOException {
+				return register(delegate.createSocket(host, port));
+			}
+
+			@Override
+			public Socket createSocket(InetAddress address, int port,
+					InetAddress localAddress, int localPort) throws IOException {
+				return register(delegate.createSocket(address, port, localAddress,
+						localPort));
+			}
+		};
+	}
+}
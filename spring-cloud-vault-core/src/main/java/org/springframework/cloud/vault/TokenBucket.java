@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+/**
+ * Token bucket limiting the rate of requests. The bucket holds up to {@code capacity}
+ * permits and is refilled continuously at {@code permitsPerSecond}. Callers reserve a
+ * permit and wait until the reserved permit becomes available so concurrent callers are
+ * spread evenly instead of retrying in lockstep.
+ *
+ * @author Mark Paluch
+ */
+class TokenBucket {
+
+	private final double permitsPerNano;
+	private final double capacity;
+
+	private double available;
+	private long lastRefill;
+
+	/**
+	 * Creates a new full {@link TokenBucket}.
+	 *
+	 * @param permitsPerSecond must be greater than zero.
+	 * @param capacity must be greater than zero.
+	 */
+	TokenBucket(double permitsPerSecond, int capacity) {
+
+		Assert.isTrue(permitsPerSecond > 0, "Permits per second must be greater than 0!");
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0!");
+
+		this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+		this.capacity = capacity;
+		this.available = capacity;
+		this.lastRefill = System.nanoTime();
+	}
+
+	/**
+	 * Acquire a permit and wait until it is available.
+	 *
+	 * @return the time in nanoseconds the caller waited for the permit.
+	 * @throws InterruptedException if interrupted while waiting.
+	 */
+	long acquire() throws InterruptedException {
+
+		long delay = reserve(System.nanoTime());
+
+		if (delay > 0) {
+			TimeUnit.NANOSECONDS.sleep(delay);
+		}
+
+		return delay;
+	}
+
+	/**
+	 * Reserve a permit.
+	 *
+	 * @param now the current time in nanoseconds.
+	 * @return the delay in nanoseconds until the reserved permit is available.
+	 */
+	synchronized long reserve(long now) {
+
+		available = Math.min(capacity, available + (now - lastRefill) * permitsPerNano);
+		lastRefill = now;
+		available -= 1;
+
+		return available >= 0 ? 0 : (long) (-available / permitsPerNano);
+	}
+}
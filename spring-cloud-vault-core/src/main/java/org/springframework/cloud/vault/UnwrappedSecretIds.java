@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.util.Assert;
+
+/**
+ * Registry of SecretIds unwrapped from response-wrapping tokens. Wrapping tokens are
+ * single-use so {@link AppRoleAuthentication} adapters created for a bootstrap context
+ * of {@code /refresh} reuse the SecretId unwrapped by a previous adapter. Entries are
+ * keyed by the SHA-256 digest of the wrapping token so the token itself is not retained.
+ * <p>
+ * The registry lives in the bootstrap context and is applied as
+ * {@link ApplicationContextInitializer} to the application context. The SecretId of
+ * the configured wrapping token is removed once the application context is closed.
+ * Closing the throw-away application context that {@code ContextRefresher} creates for
+ * {@code /refresh} keeps the SecretId.
+ *
+ * @author Mark Paluch
+ */
+class UnwrappedSecretIds implements
+		ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+	/**
+	 * Name of the property source that
+	 * {@link org.springframework.cloud.context.refresh.ContextRefresher} adds to the
+	 * environment of its throw-away application context. Must match
+	 * {@code ContextRefresher.REFRESH_ARGS_PROPERTY_SOURCE}, verified by
+	 * {@code UnwrappedSecretIdsUnitTests}.
+	 */
+	final static String REFRESH_ARGS_PROPERTY_SOURCE = "refreshArgs";
+
+	private final static ConcurrentMap<String, FutureTask<String>> SECRET_IDS =
+			new ConcurrentHashMap<>();
+
+	private final VaultProperties properties;
+
+	/**
+	 * Creates a new {@link UnwrappedSecretIds}.
+	 *
+	 * @param properties must not be {@literal null}.
+	 */
+	UnwrappedSecretIds(VaultProperties properties) {
+
+		Assert.notNull(properties, "VaultProperties must not be null!");
+
+		this.properties = properties;
+	}
+
+	/**
+	 * Register {@code secretId} for {@code wrappingToken} if no SecretId was registered
+	 * yet.
+	 *
+	 * @param wrappingToken must not be {@literal null}.
+	 * @param secretId must not be {@literal null}.
+	 * @return the previously registered SecretId or {@literal null} if
+	 * {@code secretId} was registered.
+	 */
+	static FutureTask<String> putIfAbsent(String wrappingToken,
+			FutureTask<String> secretId) {
+		return SECRET_IDS.putIfAbsent(Sha256.toSha256(wrappingToken), secretId);
+	}
+
+	/**
+	 * Remove {@code secretId} if it is registered for {@code wrappingToken}.
+	 *
+	 * @param wrappingToken must not be {@literal null}.
+	 * @param secretId must not be {@literal null}.
+	 */
+	static void remove(String wrappingToken, FutureTask<String> secretId) {
+		SECRET_IDS.remove(Sha256.toSha256(wrappingToken), secretId);
+	}
+
+	/**
+	 * Remove the SecretId registered for {@code wrappingToken}.
+	 *
+	 * @param wrappingToken must not be {@literal null}.
+	 */
+	static void remove(String wrappingToken) {
+		SECRET_IDS.remove(Sha256.toSha256(wrappingToken));
+	}
+
+	/**
+	 * @param wrappingToken must not be {@literal null}.
+	 * @return {@literal true} if a SecretId is registered for {@code wrappingToken}.
+	 */
+	static boolean contains(String wrappingToken) {
+		return SECRET_IDS.containsKey(Sha256.toSha256(wrappingToken));
+	}
+
+	@Override
+	public void initialize(final ConfigurableApplicationContext applicationContext) {
+
+		if (applicationContext.getEnvironment().getPropertySources()
+				.contains(REFRESH_ARGS_PROPERTY_SOURCE)) {
+			return;
+		}
+
+		applicationContext.addApplicationListener(
+				new ApplicationListener<ContextClosedEvent>() {
+
+					@Override
+					public void onApplicationEvent(ContextClosedEvent event) {
+
+						String wrappingToken = properties.getAppRole()
+								.getSecretIdToken();
+
+						if (event.getApplicationContext() == applicationContext
+								&& wrappingToken != null) {
+							remove(wrappingToken);
+						}
+					}
+				});
+	}
+}
@@ -19,15 +19,23 @@ package org.springframework.cloud.vault;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.vault.VaultStartupTimings.Timer;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -41,8 +49,66 @@ public class VaultBootstrapConfiguration {
 
 	@Bean
 	public ClientFactoryWrapper clientHttpRequestFactoryWrapper() {
-		return new ClientFactoryWrapper(
-				ClientHttpRequestFactoryFactory.create(vaultProperties()));
+
+		Timer timer = vaultStartupTimings().start("client-factory");
+		try {
+			return new ClientFactoryWrapper(ClientHttpRequestFactoryFactory.create(
+					vaultProperties(), vaultMetrics()));
+		}
+		finally {
+			timer.stop();
+		}
+	}
+
+	/**
+	 * Creates {@link VaultConnectionWarmup} to open connections to Vault in the
+	 * background.
+	 *
+	 * @return the {@link VaultConnectionWarmup}.
+	 */
+	@Bean
+	VaultConnectionWarmup vaultConnectionWarmup() {
+		return new VaultConnectionWarmup(clientHttpRequestFactoryWrapper()
+				.getClientHttpRequestFactory(), vaultProperties());
+	}
+
+	/**
+	 * Creates {@link VaultEndpoints} to route requests across the nodes of a Vault
+	 * cluster.
+	 *
+	 * @return the {@link VaultEndpoints}.
+	 */
+	@Bean
+	VaultEndpoints vaultEndpoints() {
+		return new VaultEndpoints(vaultProperties(), clientHttpRequestFactoryWrapper()
+				.getClientHttpRequestFactory());
+	}
+
+	/**
+	 * Creates {@link VaultStartupTimings} to collect timings of the Vault bootstrap.
+	 *
+	 * @return the {@link VaultStartupTimings}.
+	 */
+	@Bean
+	public VaultStartupTimings vaultStartupTimings() {
+		return new VaultStartupTimings();
+	}
+
+	/**
+	 * Creates a {@link TaskSchedulerWrapper} to run background tasks such as token
+	 * renewal.
+	 *
+	 * @return the {@link TaskSchedulerWrapper}.
+	 */
+	@Bean
+	public TaskSchedulerWrapper vaultTaskScheduler() {
+
+		ThreadPoolTaskScheduler threadPoolTaskScheduler = new ThreadPoolTaskScheduler();
+		threadPoolTaskScheduler.setPoolSize(2);
+		threadPoolTaskScheduler.setThreadNamePrefix("spring-cloud-vault-");
+		threadPoolTaskScheduler.setDaemon(true);
+
+		return new TaskSchedulerWrapper(threadPoolTaskScheduler);
 	}
 
 	@Bean
@@ -50,13 +116,32 @@ public class VaultBootstrapConfiguration {
 
 		RestTemplate restTemplate = new RestTemplate(
 				clientHttpRequestFactoryWrapper().getClientHttpRequestFactory());
+		restTemplate.getInterceptors().add(
+				new VaultMetricsInterceptor(vaultMetrics()));
+		restTemplate.getMessageConverters().add(0,
+				new VaultResponseHttpMessageConverter());
 
 		VaultClient vaultClient = new VaultClient();
 		vaultClient.setRestTemplate(restTemplate);
+		vaultClient.setRetryPolicy(new RetryPolicy(vaultProperties(), vaultMetrics()));
+
+		if (vaultEndpoints().isClustered()) {
+			vaultClient.setEndpoints(vaultEndpoints());
+		}
 
 		return vaultClient;
 	}
 
+	/**
+	 * Creates {@link VaultMetrics} to record metrics of HTTP exchanges with Vault.
+	 *
+	 * @return the {@link VaultMetrics}.
+	 */
+	@Bean
+	public VaultMetrics vaultMetrics() {
+		return new VaultMetrics();
+	}
+
 	@Bean
 	public VaultProperties vaultProperties() {
 		return new VaultProperties();
@@ -65,7 +150,27 @@ public class VaultBootstrapConfiguration {
 	@Bean
 	@ConditionalOnMissingBean
 	@ConditionalOnProperty(prefix = "spring.cloud.vault", name = "authentication", havingValue = "APPID")
-	public AppIdUserIdMechanism appIdUserIdMechanism(VaultProperties vaultProperties) {
+	public AppIdUserIdMechanism appIdUserIdMechanism(VaultProperties vaultProperties,
+			VaultStartupTimings vaultStartupTimings) {
+		return new TimedAppIdUserIdMechanism(createAppIdUserIdMechanism(vaultProperties),
+				vaultStartupTimings);
+	}
+
+	/**
+	 * Creates {@link UnwrappedSecretIds} to discard an unwrapped AppRole SecretId once
+	 * the application context is closed.
+	 *
+	 * @param vaultProperties the {@link VaultProperties}.
+	 * @return the {@link UnwrappedSecretIds}.
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "spring.cloud.vault", name = "authentication", havingValue = "APPROLE")
+	UnwrappedSecretIds unwrappedSecretIds(VaultProperties vaultProperties) {
+		return new UnwrappedSecretIds(vaultProperties);
+	}
+
+	private static AppIdUserIdMechanism createAppIdUserIdMechanism(
+			VaultProperties vaultProperties) {
 
 		String userId = vaultProperties.getAppId().getUserId();
 		Assert.hasText(userId,
@@ -77,17 +182,105 @@ public class VaultBootstrapConfiguration {
 		}
 		catch (ClassNotFoundException ex) {
 
+			long timeout = vaultProperties.getAppId().getUserIdTimeout();
+
 			switch (userId.toUpperCase()) {
 			case VaultProperties.AppIdProperties.IP_ADDRESS:
-				return new IpAddressUserId();
+				return new MemoizingUserIdMechanism(new IpAddressUserId(), timeout);
 			case VaultProperties.AppIdProperties.MAC_ADDRESS:
-				return new MacAddressUserId(vaultProperties);
+				return new MemoizingUserIdMechanism(new MacAddressUserId(
+						vaultProperties), timeout);
 			default:
 				return new StaticUserId(vaultProperties);
 			}
 		}
 	}
 
+	/**
+	 * Creates the {@link AsyncVaultClient} if enabled.
+	 */
+	@Configuration
+	@ConditionalOnProperty(prefix = "spring.cloud.vault.async", name = "enabled")
+	static class AsyncVaultClientConfiguration {
+
+		@Bean
+		public AsyncClientFactoryWrapper asyncClientHttpRequestFactoryWrapper(
+				VaultProperties vaultProperties) {
+			return new AsyncClientFactoryWrapper(
+					ClientHttpRequestFactoryFactory.createAsync(vaultProperties));
+		}
+
+		@Bean
+		public AsyncVaultClient asyncVaultClient(
+				AsyncClientFactoryWrapper asyncClientHttpRequestFactoryWrapper) {
+			AsyncRestTemplate asyncRestTemplate = new AsyncRestTemplate(
+					asyncClientHttpRequestFactoryWrapper
+							.getAsyncClientHttpRequestFactory());
+			asyncRestTemplate.getMessageConverters().add(0,
+					new VaultResponseHttpMessageConverter());
+
+			return new AsyncVaultClient(asyncRestTemplate);
+		}
+	}
+
+	/**
+	 * Exposes {@link VaultMetrics} through the actuator metrics endpoint if the actuator
+	 * is on the class path.
+	 */
+	@Configuration
+	@ConditionalOnClass(PublicMetrics.class)
+	static class VaultMetricsConfiguration {
+
+		@Bean
+		public VaultPublicMetrics vaultPublicMetrics(VaultMetrics vaultMetrics) {
+			return new VaultPublicMetrics(vaultMetrics);
+		}
+	}
+
+	/**
+	 * Exposes {@link VaultStartupTimings} through the actuator info endpoint if the
+	 * actuator is on the class path.
+	 */
+	@Configuration
+	@ConditionalOnClass(InfoContributor.class)
+	static class VaultStartupInfoConfiguration {
+
+		@Bean
+		public VaultStartupInfoContributor vaultStartupInfoContributor(
+				VaultStartupTimings vaultStartupTimings) {
+			return new VaultStartupInfoContributor(vaultStartupTimings);
+		}
+	}
+
+	/**
+	 * {@link AppIdUserIdMechanism} recording the time to obtain the UserId.
+	 */
+	static class TimedAppIdUserIdMechanism implements AppIdUserIdMechanism {
+
+		private final AppIdUserIdMechanism delegate;
+		private final VaultStartupTimings startupTimings;
+
+		TimedAppIdUserIdMechanism(AppIdUserIdMechanism delegate,
+				VaultStartupTimings startupTimings) {
+
+			this.delegate = delegate;
+			this.startupTimings = startupTimings;
+		}
+
+		@Override
+		public String createUserId() {
+
+			Timer timer = startupTimings.start(String.format("app-id-user-id (%s)",
+					delegate.getClass().getSimpleName()));
+			try {
+				return delegate.createUserId();
+			}
+			finally {
+				timer.stop();
+			}
+		}
+	}
+
 	/**
 	 * Wrapper for {@link ClientHttpRequestFactory} to not expose the bean globally.
 	 */
@@ -118,4 +311,64 @@ public class VaultBootstrapConfiguration {
 			return clientHttpRequestFactory;
 		}
 	}
+
+	/**
+	 * Wrapper for {@link AsyncClientHttpRequestFactory} to not expose the bean globally.
+	 */
+	public static class AsyncClientFactoryWrapper implements InitializingBean,
+			DisposableBean {
+
+		private final AsyncClientHttpRequestFactory asyncClientHttpRequestFactory;
+
+		public AsyncClientFactoryWrapper(
+				AsyncClientHttpRequestFactory asyncClientHttpRequestFactory) {
+			this.asyncClientHttpRequestFactory = asyncClientHttpRequestFactory;
+		}
+
+		@Override
+		public void destroy() throws Exception {
+			if (asyncClientHttpRequestFactory instanceof DisposableBean) {
+				((DisposableBean) asyncClientHttpRequestFactory).destroy();
+			}
+		}
+
+		@Override
+		public void afterPropertiesSet() throws Exception {
+
+			if (asyncClientHttpRequestFactory instanceof InitializingBean) {
+				((InitializingBean) asyncClientHttpRequestFactory).afterPropertiesSet();
+			}
+		}
+
+		public AsyncClientHttpRequestFactory getAsyncClientHttpRequestFactory() {
+			return asyncClientHttpRequestFactory;
+		}
+	}
+
+	/**
+	 * Wrapper for {@link ThreadPoolTaskScheduler} to not expose a {@link TaskScheduler}
+	 * bean globally.
+	 */
+	public static class TaskSchedulerWrapper implements InitializingBean, DisposableBean {
+
+		private final ThreadPoolTaskScheduler taskScheduler;
+
+		public TaskSchedulerWrapper(ThreadPoolTaskScheduler taskScheduler) {
+			this.taskScheduler = taskScheduler;
+		}
+
+		@Override
+		public void destroy() throws Exception {
+			taskScheduler.destroy();
+		}
+
+		@Override
+		public void afterPropertiesSet() throws Exception {
+			taskScheduler.afterPropertiesSet();
+		}
+
+		public TaskScheduler getTaskScheduler() {
+			return taskScheduler;
+		}
+	}
 }
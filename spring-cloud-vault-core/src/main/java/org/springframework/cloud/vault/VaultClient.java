@@ -16,6 +16,8 @@
 package org.springframework.cloud.vault;
 
 import java.net.URI;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.http.HttpEntity;
@@ -26,6 +28,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import lombok.Getter;
@@ -46,8 +50,15 @@ public class VaultClient {
 	@Getter
 	private RestTemplate restTemplate;
 
+	private volatile RetryPolicy retryPolicy;
+
+	private volatile VaultEndpoints endpoints;
+
 	public VaultClient() {
+
 		this(new RestTemplate());
+		this.restTemplate.getMessageConverters().add(0,
+				new VaultResponseHttpMessageConverter());
 	}
 
 	public VaultClient(RestTemplate restTemplate) {
@@ -69,6 +80,27 @@ public class VaultClient {
 		return exchange(uri, HttpMethod.GET, new HttpEntity<>(createHeaders(vaultToken)));
 	}
 
+	/**
+	 * List keys at the given Vault {@code uri} using the {@link VaultToken}. The
+	 * {@code uri} is expected to request a listing ({@code ?list=true}).
+	 *
+	 * @param uri must not be {@literal null}.
+	 * @param vaultToken must not be {@literal null}.
+	 * @return the listed keys. May be empty but never {@literal null}.
+	 * @throws HttpStatusCodeException if Vault responded with an error status.
+	 */
+	public List<String> list(URI uri, VaultToken vaultToken) {
+
+		Assert.notNull(uri, "URI must not be empty!");
+		Assert.notNull(vaultToken, "Vault Token must not be null!");
+
+		ResponseEntity<VaultListResponse> response = exchange(uri, HttpMethod.GET,
+				new HttpEntity<>(createHeaders(vaultToken)), VaultListResponse.class);
+
+		return response.getBody() != null ? response.getBody().getKeys() : Collections
+				.<String> emptyList();
+	}
+
 	/**
 	 * Write data to the given Vault {@code uri} using the {@link VaultToken}.
 	 *
@@ -102,29 +134,119 @@ public class VaultClient {
 				createHeaders(vaultToken)));
 	}
 
+	/**
+	 * Unwrap a response-wrapped secret using {@code sys/wrapping/unwrap}. Wrapping
+	 * tokens are single-use, a token can be unwrapped only once.
+	 *
+	 * @param properties must not be {@literal null}.
+	 * @param wrappingToken must not be {@literal null}.
+	 * @return the {@link VaultClientResponse} holding the wrapped response.
+	 */
+	public VaultClientResponse unwrap(VaultProperties properties,
+			VaultToken wrappingToken) {
+
+		Assert.notNull(properties, "VaultProperties must not be null!");
+		Assert.notNull(wrappingToken, "Wrapping token must not be null!");
+
+		return write(buildUri(properties, "sys/wrapping/unwrap"),
+				Collections.emptyMap(), wrappingToken);
+	}
+
 	private VaultClientResponse exchange(URI uri, HttpMethod httpMethod,
 			HttpEntity<?> httpEntity) {
 
-		Assert.notNull(uri, "URI must not be empty!");
-
 		try {
-			ResponseEntity<VaultResponse> response = this.restTemplate.exchange(uri,
-					httpMethod, httpEntity, VaultResponse.class);
+			ResponseEntity<VaultResponse> response = exchange(uri, httpMethod,
+					httpEntity, VaultResponse.class);
 
 			return VaultClientResponse.of(response.getBody(), response.getStatusCode(),
 					uri, response.getStatusCode().getReasonPhrase());
 		}
 		catch (HttpServerErrorException | HttpClientErrorException e) {
+			return createErrorResponse(uri, e);
+		}
+	}
 
-			String message = e.getResponseBodyAsString();
+	private <T> ResponseEntity<T> exchange(URI uri, HttpMethod httpMethod,
+			HttpEntity<?> httpEntity, Class<T> responseType) {
 
-			if (MediaType.APPLICATION_JSON.includes(e.getResponseHeaders()
-					.getContentType())) {
-				message = VaultErrorMessage.getError(message);
+		Assert.notNull(uri, "URI must not be empty!");
+
+		RetryPolicy retryPolicy = this.retryPolicy;
+		RetryPolicy.Backoff backoff = retryPolicy != null ? retryPolicy.start(RetryPolicy
+				.isIdempotent(httpMethod, uri)) : null;
+		VaultEndpoints endpoints = this.endpoints;
+		int failovers = 0;
+
+		for (;;) {
+
+			if (retryPolicy != null) {
+				retryPolicy.acquire();
+			}
+
+			URI target = endpoints != null ? endpoints.route(uri, httpMethod) : uri;
+
+			try {
+				return this.restTemplate.exchange(target, httpMethod, httpEntity,
+						responseType);
+			}
+			catch (HttpServerErrorException | HttpClientErrorException e) {
+
+				if (backoff == null || !backoff.retry(e)) {
+					throw e;
+				}
+			}
+			catch (ResourceAccessException e) {
+
+				if (endpoints != null
+						&& failovers < endpoints.getNodes().size() - 1
+						&& VaultEndpoints.canFailOver(httpMethod, e)
+						&& endpoints.failed(target)) {
+					failovers++;
+					continue;
+				}
+
+				if (backoff == null || !backoff.retry(e)) {
+					throw e;
+				}
 			}
+		}
+	}
+
+	/**
+	 * Set the {@link RetryPolicy} to rate limit and retry requests.
+	 *
+	 * @param retryPolicy may be {@literal null} to disable rate limiting and retries.
+	 */
+	void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * Set the {@link VaultEndpoints} to route requests across multiple Vault nodes.
+	 *
+	 * @param endpoints may be {@literal null} to use the configured endpoint only.
+	 */
+	void setEndpoints(VaultEndpoints endpoints) {
+		this.endpoints = endpoints;
+	}
 
-			return VaultClientResponse.of(null, e.getStatusCode(), uri, message);
+	/**
+	 * Create a {@link VaultClientResponse} for a failed request.
+	 *
+	 * @param uri must not be {@literal null}.
+	 * @param e must not be {@literal null}.
+	 * @return the {@link VaultClientResponse}.
+	 */
+	static VaultClientResponse createErrorResponse(URI uri, HttpStatusCodeException e) {
+
+		String message = e.getResponseBodyAsString();
+
+		if (MediaType.APPLICATION_JSON.includes(e.getResponseHeaders().getContentType())) {
+			message = VaultErrorMessage.getError(message);
 		}
+
+		return VaultClientResponse.of(null, e.getStatusCode(), uri, message);
 	}
 
 	/**
@@ -161,7 +283,7 @@ public class VaultClient {
 				createBaseUrlWithPath(properties, pathTemplate), uriVariables);
 	}
 
-	private HttpHeaders createHeaders(VaultToken vaultToken) {
+	static HttpHeaders createHeaders(VaultToken vaultToken) {
 
 		Assert.notNull(vaultToken, "Vault Token must not be null!");
 
@@ -170,7 +292,7 @@ public class VaultClient {
 		return headers;
 	}
 
-	private static String createBaseUrlWithPath(VaultProperties properties, String path) {
+	static String createBaseUrlWithPath(VaultProperties properties, String path) {
 
 		Assert.notNull(properties, "VaultProperties must not be null!");
 		Assert.hasText(path, "Path must not be empty!");
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Opens {@link VaultProperties.Http#getWarmupConnections() connections} to Vault in the
+ * background once initialized. Each connection requests {@code sys/health} which
+ * performs the TCP and TLS handshake so pooled connections are available when the
+ * bootstrap logs into Vault and reads secrets. Warm-up failures are logged at debug
+ * level and do not affect the bootstrap.
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+class VaultConnectionWarmup implements InitializingBean {
+
+	private final ClientHttpRequestFactory requestFactory;
+	private final VaultProperties properties;
+
+	/**
+	 * Creates a new {@link VaultConnectionWarmup}.
+	 *
+	 * @param requestFactory must not be {@literal null}.
+	 * @param properties must not be {@literal null}.
+	 */
+	VaultConnectionWarmup(ClientHttpRequestFactory requestFactory,
+			VaultProperties properties) {
+
+		Assert.notNull(requestFactory, "ClientHttpRequestFactory must not be null!");
+		Assert.notNull(properties, "VaultProperties must not be null!");
+
+		this.requestFactory = requestFactory;
+		this.properties = properties;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+
+		int connections = properties.getHttp().getWarmupConnections();
+
+		if (connections <= 0) {
+			return;
+		}
+
+		final URI uri = VaultClient.buildUri(properties, "sys/health");
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"spring-cloud-vault-warmup-");
+		threadFactory.setDaemon(true);
+
+		for (int i = 0; i < connections; i++) {
+			threadFactory.newThread(new Runnable() {
+
+				@Override
+				public void run() {
+					warmup(uri);
+				}
+			}).start();
+		}
+	}
+
+	/**
+	 * Request {@code uri} and consume the response so the connection is returned to the
+	 * pool.
+	 *
+	 * @param uri must not be {@literal null}.
+	 */
+	void warmup(URI uri) {
+
+		ClientHttpResponse response = null;
+
+		try {
+			response = requestFactory.createRequest(uri, HttpMethod.GET).execute();
+			StreamUtils.drain(response.getBody());
+		}
+		catch (IOException | RuntimeException e) {
+			if (log.isDebugEnabled()) {
+				log.debug(String.format("Connection warm-up to %s failed", uri), e);
+			}
+		}
+		finally {
+			if (response != null) {
+				response.close();
+			}
+		}
+	}
+}
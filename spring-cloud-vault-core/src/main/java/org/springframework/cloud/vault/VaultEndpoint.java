@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Precompiled Vault endpoint. Resolves the base URL consisting of
+ * {@link VaultProperties#getScheme() scheme}, {@link VaultProperties#getHost() host},
+ * {@link VaultProperties#getPort() port} and the {@link VaultClient#API_VERSION API
+ * version} once and caches {@link URI}s built for fixed paths so repeated requests to
+ * the same path do not format or parse URIs.
+ * <p>
+ * Instances are not shared. Components building URIs retain their own
+ * {@link VaultEndpoint} and obtain a new one once {@link #matches(VaultProperties)}
+ * reports changed properties.
+ *
+ * @author Mark Paluch
+ */
+public class VaultEndpoint {
+
+	private final static int MAX_CACHED_URIS = 256;
+
+	private final String scheme;
+	private final String host;
+	private final int port;
+	private final String baseUrl;
+	private final ConcurrentMap<String, URI> uris = new ConcurrentHashMap<>();
+
+	private VaultEndpoint(String scheme, String host, int port) {
+
+		this.scheme = scheme;
+		this.host = host;
+		this.port = port;
+		this.baseUrl = scheme + "://" + host + ":" + port + "/" + VaultClient.API_VERSION
+				+ "/";
+	}
+
+	/**
+	 * Create a new {@link VaultEndpoint} for {@link VaultProperties}.
+	 *
+	 * @param properties must not be {@literal null}.
+	 * @return the {@link VaultEndpoint}.
+	 */
+	public static VaultEndpoint from(VaultProperties properties) {
+
+		Assert.notNull(properties, "VaultProperties must not be null!");
+
+		return new VaultEndpoint(properties.getScheme(), properties.getHost(),
+				properties.getPort());
+	}
+
+	/**
+	 * Create the {@link URI} for a fixed {@code path}, e.g. {@code auth/token/renew-self}.
+	 * URIs are cached per path. Paths containing identifiers such as lease ids should be
+	 * built using {@link #createUriString(String)} instead to not exhaust the cache.
+	 *
+	 * @param path must not be empty or {@literal null}.
+	 * @return the {@link URI}.
+	 */
+	public URI createUri(String path) {
+
+		URI uri = uris.get(path);
+
+		if (uri != null) {
+			return uri;
+		}
+
+		uri = URI.create(createUriString(path));
+
+		if (uris.size() < MAX_CACHED_URIS) {
+			uris.putIfAbsent(path, uri);
+		}
+
+		return uri;
+	}
+
+	/**
+	 * Create the URI string for {@code path}.
+	 *
+	 * @param path must not be empty or {@literal null}.
+	 * @return the URI string.
+	 */
+	public String createUriString(String path) {
+
+		Assert.hasText(path, "Path must not be empty!");
+
+		return baseUrl.concat(path);
+	}
+
+	/**
+	 * @param properties must not be {@literal null}.
+	 * @return {@literal true} if scheme, host and port of {@code properties} match this
+	 * endpoint.
+	 */
+	public boolean matches(VaultProperties properties) {
+		return port == properties.getPort()
+				&& ObjectUtils.nullSafeEquals(host, properties.getHost())
+				&& ObjectUtils.nullSafeEquals(scheme, properties.getScheme());
+	}
+
+	@Override
+	public String toString() {
+		return baseUrl;
+	}
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Routes requests across the Vault {@link VaultProperties.ClusterProperties#getEndpoints()
+ * endpoints} of a Vault HA cluster. Each endpoint is probed in the background by
+ * requesting {@code sys/health}. Reads are sent to the healthy node with the lowest probe
+ * latency, including performance standby nodes. Writes and logins are sent to the active
+ * node. Endpoints failing with an I/O error are taken out of rotation immediately until
+ * the next successful probe. Probe failures are logged at debug level and do not affect
+ * the bootstrap. Probes run on a scheduler owned by {@link VaultEndpoints} with one
+ * thread per endpoint so slow probes do not delay token and lease renewals.
+ * <p>
+ * Requests fail over to another endpoint only if they were not sent: {@code GET}
+ * requests on any I/O error, other requests only if the connection could not be
+ * established.
+ * <p>
+ * URIs are built against the endpoint configured by {@link VaultProperties#getScheme()
+ * scheme}, {@link VaultProperties#getHost() host} and {@link VaultProperties#getPort()
+ * port} and rewritten to the selected endpoint. Other URIs are not routed.
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+class VaultEndpoints implements InitializingBean, DisposableBean {
+
+	private final ClientHttpRequestFactory requestFactory;
+	private final long healthCheckInterval;
+	private final boolean standbyReads;
+	private final List<Node> nodes;
+	private final List<ScheduledFuture<?>> probes = new ArrayList<>();
+
+	private ThreadPoolTaskScheduler taskScheduler;
+
+	/**
+	 * Creates new {@link VaultEndpoints}.
+	 *
+	 * @param properties must not be {@literal null}.
+	 * @param requestFactory must not be {@literal null}.
+	 */
+	VaultEndpoints(VaultProperties properties, ClientHttpRequestFactory requestFactory) {
+
+		Assert.notNull(properties, "VaultProperties must not be null!");
+		Assert.notNull(requestFactory, "ClientHttpRequestFactory must not be null!");
+
+		this.requestFactory = requestFactory;
+		this.healthCheckInterval = properties.getCluster().getHealthCheckInterval();
+		this.standbyReads = properties.getCluster().isStandbyReads();
+
+		List<Node> nodes = new ArrayList<>();
+		nodes.add(new Node(properties.getScheme(), properties.getHost(), properties
+				.getPort()));
+
+		for (String endpoint : properties.getCluster().getEndpoints()) {
+
+			if (!StringUtils.hasText(endpoint)) {
+				continue;
+			}
+
+			URI uri = URI.create(endpoint.trim());
+			Node node = new Node(uri.getScheme(), uri.getHost(),
+					uri.getPort() != -1 ? uri.getPort() : properties.getPort());
+
+			if (!nodes.contains(node)) {
+				nodes.add(node);
+			}
+		}
+
+		this.nodes = Collections.unmodifiableList(nodes);
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+
+		if (!isClustered()) {
+			return;
+		}
+
+		taskScheduler = new ThreadPoolTaskScheduler();
+		taskScheduler.setPoolSize(nodes.size());
+		taskScheduler.setThreadNamePrefix("spring-cloud-vault-health-");
+		taskScheduler.setDaemon(true);
+		taskScheduler.afterPropertiesSet();
+
+		for (final Node node : nodes) {
+			probes.add(taskScheduler.scheduleWithFixedDelay(new Runnable() {
+
+				@Override
+				public void run() {
+					probe(node);
+				}
+			}, healthCheckInterval));
+		}
+	}
+
+	@Override
+	public void destroy() {
+
+		for (ScheduledFuture<?> probe : probes) {
+			probe.cancel(false);
+		}
+
+		probes.clear();
+
+		if (taskScheduler != null) {
+			taskScheduler.destroy();
+			taskScheduler = null;
+		}
+	}
+
+	/**
+	 * @return {@literal true} if more than one endpoint is configured.
+	 */
+	boolean isClustered() {
+		return nodes.size() > 1;
+	}
+
+	/**
+	 * @return the configured endpoints.
+	 */
+	List<Node> getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Rewrite {@code uri} to the endpoint that should serve a request using
+	 * {@code httpMethod}. {@code GET} requests are reads, all other methods are writes.
+	 *
+	 * @param uri must not be {@literal null}.
+	 * @param httpMethod must not be {@literal null}.
+	 * @return the routed {@link URI}.
+	 */
+	URI route(URI uri, HttpMethod httpMethod) {
+
+		if (!isClustered() || !nodes.get(0).matches(uri)) {
+			return uri;
+		}
+
+		Node node = httpMethod == HttpMethod.GET ? selectReadNode() : selectWriteNode();
+
+		return node == nodes.get(0) ? uri : node.rewrite(uri);
+	}
+
+	/**
+	 * Take the endpoint serving {@code uri} out of rotation after an I/O error.
+	 *
+	 * @param uri must not be {@literal null}.
+	 * @return {@literal true} if {@code uri} belongs to an endpoint and another
+	 * endpoint is available.
+	 */
+	boolean failed(URI uri) {
+
+		if (!isClustered()) {
+			return false;
+		}
+
+		boolean matched = false;
+		boolean available = false;
+
+		for (Node node : nodes) {
+
+			if (node.matches(uri)) {
+
+				if (log.isDebugEnabled() && node.state != NodeState.UNAVAILABLE) {
+					log.debug(String.format("Vault endpoint %s is unavailable", node));
+				}
+
+				node.state = NodeState.UNAVAILABLE;
+				matched = true;
+			}
+			else if (node.state != NodeState.UNAVAILABLE) {
+				available = true;
+			}
+		}
+
+		return matched && available;
+	}
+
+	/**
+	 * Check whether a request failing with {@code exception} can be sent to another
+	 * endpoint without applying it twice. {@code GET} requests can always fail over,
+	 * other requests only if the connection could not be established.
+	 *
+	 * @param httpMethod must not be {@literal null}.
+	 * @param exception must not be {@literal null}.
+	 * @return {@literal true} if the request can fail over.
+	 */
+	static boolean canFailOver(HttpMethod httpMethod, ResourceAccessException exception) {
+
+		if (httpMethod == HttpMethod.GET) {
+			return true;
+		}
+
+		Throwable cause = exception.getCause();
+		return cause instanceof ConnectException || cause instanceof NoRouteToHostException;
+	}
+
+	private Node selectReadNode() {
+
+		Node selected = null;
+
+		for (Node node : nodes) {
+
+			NodeState state = node.state;
+
+			if (state == NodeState.ACTIVE
+					|| (standbyReads && state == NodeState.PERFORMANCE_STANDBY)) {
+
+				if (selected == null || node.latency < selected.latency) {
+					selected = node;
+				}
+			}
+		}
+
+		return selected != null ? selected : selectWriteNode();
+	}
+
+	private Node selectWriteNode() {
+
+		Node fallback = null;
+
+		for (Node node : nodes) {
+
+			NodeState state = node.state;
+
+			if (state == NodeState.ACTIVE) {
+				return node;
+			}
+
+			if (fallback == null && state != NodeState.UNAVAILABLE) {
+				fallback = node;
+			}
+		}
+
+		return fallback != null ? fallback : nodes.get(0);
+	}
+
+	/**
+	 * Probe {@code node} by requesting {@code sys/health}.
+	 *
+	 * @param node must not be {@literal null}.
+	 */
+	void probe(Node node) {
+
+		URI uri = URI.create(node.baseUrl + "/" + VaultClient.API_VERSION + "/sys/health");
+		ClientHttpResponse response = null;
+		long start = System.nanoTime();
+
+		try {
+
+			response = requestFactory.createRequest(uri, HttpMethod.GET).execute();
+			StreamUtils.drain(response.getBody());
+
+			node.update(response.getRawStatusCode(), System.nanoTime() - start);
+		}
+		catch (IOException | RuntimeException e) {
+
+			node.update(-1, System.nanoTime() - start);
+
+			if (log.isDebugEnabled()) {
+				log.debug(String.format("Health check of %s failed", node), e);
+			}
+		}
+		finally {
+			if (response != null) {
+				response.close();
+			}
+		}
+	}
+
+	/**
+	 * Health state of a Vault node reported by {@code sys/health}.
+	 */
+	enum NodeState {
+
+		UNKNOWN, ACTIVE, STANDBY, PERFORMANCE_STANDBY, UNAVAILABLE;
+
+		/**
+		 * Map a {@code sys/health} status code to a {@link NodeState}.
+		 *
+		 * @param statusCode the HTTP status code, {@code -1} if the request failed.
+		 * @return the {@link NodeState}.
+		 */
+		static NodeState of(int statusCode) {
+
+			switch (statusCode) {
+			case 200:
+				return ACTIVE;
+			case 429:
+				return STANDBY;
+			case 473:
+				return PERFORMANCE_STANDBY;
+			default:
+				return UNAVAILABLE;
+			}
+		}
+	}
+
+	/**
+	 * A Vault node with its last known state and smoothed probe latency.
+	 */
+	static class Node {
+
+		private final String scheme;
+		private final String host;
+		private final int port;
+		private final String baseUrl;
+
+		volatile NodeState state = NodeState.UNKNOWN;
+		volatile long latency = Long.MAX_VALUE;
+
+		Node(String scheme, String host, int port) {
+
+			Assert.hasText(scheme, "Scheme must not be empty!");
+			Assert.hasText(host, "Host must not be empty!");
+
+			this.scheme = scheme;
+			this.host = host;
+			this.port = port;
+			this.baseUrl = String.format("%s://%s:%d", scheme, host, port);
+		}
+
+		/**
+		 * Record a probe result. Latency is smoothed with an exponentially weighted
+		 * moving average.
+		 *
+		 * @param statusCode the {@code sys/health} status code, {@code -1} if the
+		 * request failed.
+		 * @param latencyNanos probe latency in nanoseconds.
+		 */
+		void update(int statusCode, long latencyNanos) {
+
+			long previous = latency;
+
+			this.latency = previous == Long.MAX_VALUE ? latencyNanos
+					: (previous * 7 + latencyNanos * 3) / 10;
+			this.state = NodeState.of(statusCode);
+		}
+
+		boolean matches(URI uri) {
+			return port == uri.getPort() && host.equalsIgnoreCase(uri.getHost())
+					&& scheme.equalsIgnoreCase(uri.getScheme());
+		}
+
+		URI rewrite(URI uri) {
+
+			StringBuilder builder = new StringBuilder(baseUrl).append(uri.getRawPath());
+
+			if (uri.getRawQuery() != null) {
+				builder.append('?').append(uri.getRawQuery());
+			}
+
+			return URI.create(builder.toString());
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof Node)) {
+				return false;
+			}
+
+			return baseUrl.equalsIgnoreCase(((Node) o).baseUrl);
+		}
+
+		@Override
+		public int hashCode() {
+			return baseUrl.toLowerCase().hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return baseUrl;
+		}
+	}
+}
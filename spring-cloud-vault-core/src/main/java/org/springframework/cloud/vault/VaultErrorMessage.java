@@ -17,19 +17,22 @@
 package org.springframework.cloud.vault;
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 /**
- * Utility to obtain a Vault error message.
+ * Utility to obtain a Vault error message. The {@code errors} array is read
+ * incrementally with a streaming {@link JsonParser} without binding the whole body.
  * 
  * @author Mark Paluch
  */
 class VaultErrorMessage {
 
-	private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	private final static JsonFactory JSON_FACTORY = new JsonFactory();
 
 	/**
 	 * Obtain the error message from a JSON response.
@@ -41,18 +44,22 @@ class VaultErrorMessage {
 
 		if (json.contains("\"errors\":")) {
 
-			try {
-				Map<String, Object> map = OBJECT_MAPPER.readValue(json.getBytes(),
-						Map.class);
-				if (map.containsKey("errors")) {
+			try (JsonParser parser = JSON_FACTORY.createParser(json)) {
 
-					Collection<String> errors = (Collection<String>) map.get("errors");
-					if (errors.size() == 1) {
-						return errors.iterator().next();
+				if (parser.nextToken() == JsonToken.START_OBJECT) {
+
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+						String name = parser.getCurrentName();
+						JsonToken value = parser.nextToken();
+
+						if ("errors".equals(name) && value == JsonToken.START_ARRAY) {
+							return readErrors(parser);
+						}
+
+						parser.skipChildren();
 					}
-					return errors.toString();
 				}
-
 			}
 			catch (IOException o_O) {
 				// ignore
@@ -60,4 +67,26 @@ class VaultErrorMessage {
 		}
 		return json;
 	}
+
+	private static String readErrors(JsonParser parser) throws IOException {
+
+		List<String> errors = new ArrayList<>(1);
+
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+
+			if (token.isScalarValue()) {
+				errors.add(parser.getText());
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+
+		if (errors.size() == 1) {
+			return errors.get(0);
+		}
+
+		return errors.toString();
+	}
 }
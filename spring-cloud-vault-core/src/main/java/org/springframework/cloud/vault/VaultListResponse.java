@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.Data;
+
+/**
+ * Value object to bind HTTP API responses of {@code LIST} requests
+ * ({@code ?list=true}). Keys are bound as {@link List} of {@link String}s. Keys of nested
+ * paths end with {@code /}.
+ *
+ * @author Mark Paluch
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class VaultListResponse {
+
+	private Keys data;
+
+	/**
+	 * @return the listed keys. May be empty but never {@literal null}.
+	 */
+	public List<String> getKeys() {
+		return data != null && data.getKeys() != null ? data.getKeys() : Collections
+				.<String> emptyList();
+	}
+
+	/**
+	 * Value object to bind the {@code data} of a {@code LIST} response.
+	 */
+	@Data
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class Keys {
+
+		private List<String> keys;
+	}
+}
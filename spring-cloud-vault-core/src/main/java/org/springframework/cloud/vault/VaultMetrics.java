@@ -0,0 +1,329 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * In-memory registry of metrics for HTTP exchanges with Vault. Exchanges are recorded per
+ * {@link Operation} and mount path, e.g. {@code secret}, {@code mysql},
+ * {@code auth/app-id} or {@code sys/renew}, without secret paths or secret material.
+ * Metrics comprise exchange timers, counters per HTTP status class, response sizes, the
+ * number of in-flight requests, the number of TLS handshakes, retries and requests
+ * delayed by the rate limiter.
+ *
+ * @author Mark Paluch
+ * @see VaultMetricsInterceptor
+ */
+public class VaultMetrics {
+
+	/**
+	 * Prefix for metric names.
+	 */
+	public final static String PREFIX = "vault.client";
+
+	private final ConcurrentMap<String, ExchangeMetrics> exchanges = new ConcurrentHashMap<>();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong handshakes = new AtomicLong();
+	private final AtomicLong resumedHandshakes = new AtomicLong();
+	private final AtomicLong retries = new AtomicLong();
+	private final AtomicLong exhaustedRetries = new AtomicLong();
+	private final AtomicLong rateLimited = new AtomicLong();
+	private final AtomicLong rateLimitTime = new AtomicLong();
+
+	/**
+	 * Obtain the {@link ExchangeMetrics} for the given {@link Operation} and
+	 * {@code mount}.
+	 *
+	 * @param operation must not be {@literal null}.
+	 * @param mount must not be {@literal null}.
+	 * @return the {@link ExchangeMetrics}.
+	 */
+	public ExchangeMetrics getExchangeMetrics(Operation operation, String mount) {
+
+		Assert.notNull(operation, "Operation must not be null!");
+		Assert.notNull(mount, "Mount must not be null!");
+
+		String name = String.format("%s.%s", operation.name().toLowerCase(),
+				mount.replace('/', '.'));
+
+		ExchangeMetrics exchangeMetrics = exchanges.get(name);
+		if (exchangeMetrics == null) {
+
+			ExchangeMetrics created = new ExchangeMetrics();
+			exchangeMetrics = exchanges.putIfAbsent(name, created);
+			if (exchangeMetrics == null) {
+				exchangeMetrics = created;
+			}
+		}
+
+		return exchangeMetrics;
+	}
+
+	/**
+	 * @return the number of requests that are currently in flight.
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	void incrementInFlight() {
+		inFlight.incrementAndGet();
+	}
+
+	void decrementInFlight() {
+		inFlight.decrementAndGet();
+	}
+
+	/**
+	 * @return the number of completed TLS handshakes.
+	 */
+	public long getHandshakes() {
+		return handshakes.get();
+	}
+
+	/**
+	 * @return the number of completed TLS handshakes that resumed a cached session.
+	 */
+	public long getResumedHandshakes() {
+		return resumedHandshakes.get();
+	}
+
+	/**
+	 * Record a completed TLS handshake.
+	 *
+	 * @param resumed {@literal true} if the handshake resumed a cached session.
+	 */
+	void recordHandshake(boolean resumed) {
+
+		handshakes.incrementAndGet();
+
+		if (resumed) {
+			resumedHandshakes.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return the number of retried requests.
+	 */
+	public long getRetries() {
+		return retries.get();
+	}
+
+	/**
+	 * @return the number of requests that failed after exhausting all attempts.
+	 */
+	public long getExhaustedRetries() {
+		return exhaustedRetries.get();
+	}
+
+	/**
+	 * @return the number of requests delayed by the rate limiter.
+	 */
+	public long getRateLimited() {
+		return rateLimited.get();
+	}
+
+	/**
+	 * @return the total time in nanoseconds requests were delayed by the rate limiter.
+	 */
+	public long getRateLimitTime() {
+		return rateLimitTime.get();
+	}
+
+	void recordRetry() {
+		retries.incrementAndGet();
+	}
+
+	void recordExhaustedRetries() {
+		exhaustedRetries.incrementAndGet();
+	}
+
+	/**
+	 * Record a request delayed by the rate limiter.
+	 *
+	 * @param delay the delay in nanoseconds.
+	 */
+	void recordRateLimited(long delay) {
+
+		rateLimited.incrementAndGet();
+		rateLimitTime.addAndGet(delay);
+	}
+
+	/**
+	 * Create a snapshot of all metrics. Metric names are composed of {@link #PREFIX},
+	 * operation, mount and the measurement, e.g.
+	 * {@code vault.client.read.secret.time.total}. Times are reported in milliseconds.
+	 *
+	 * @return a sorted {@link Map} of metric names to values.
+	 */
+	public Map<String, Number> getMetrics() {
+
+		Map<String, Number> metrics = new TreeMap<>();
+		metrics.put(PREFIX + ".inflight", inFlight.get());
+		metrics.put(PREFIX + ".tls.handshakes", handshakes.get());
+		metrics.put(PREFIX + ".tls.handshakes.resumed", resumedHandshakes.get());
+		metrics.put(PREFIX + ".retries", retries.get());
+		metrics.put(PREFIX + ".retries.exhausted", exhaustedRetries.get());
+		metrics.put(PREFIX + ".ratelimit.delayed", rateLimited.get());
+		metrics.put(PREFIX + ".ratelimit.time.total",
+				TimeUnit.NANOSECONDS.toMillis(rateLimitTime.get()));
+
+		for (Map.Entry<String, ExchangeMetrics> entry : exchanges.entrySet()) {
+
+			String prefix = String.format("%s.%s.", PREFIX, entry.getKey());
+			ExchangeMetrics exchangeMetrics = entry.getValue();
+
+			metrics.put(prefix + "count", exchangeMetrics.getCount());
+			metrics.put(prefix + "time.total",
+					TimeUnit.NANOSECONDS.toMillis(exchangeMetrics.getTotalTime()));
+			metrics.put(prefix + "time.max",
+					TimeUnit.NANOSECONDS.toMillis(exchangeMetrics.getMaxTime()));
+			metrics.put(prefix + "response.bytes", exchangeMetrics.getResponseBytes());
+			metrics.put(prefix + "status.error", exchangeMetrics.getErrorCount());
+
+			for (int statusClass = 1; statusClass <= 5; statusClass++) {
+
+				long count = exchangeMetrics.getStatusCount(statusClass);
+				if (count != 0) {
+					metrics.put(String.format("%sstatus.%dxx", prefix, statusClass),
+							count);
+				}
+			}
+		}
+
+		return metrics;
+	}
+
+	/**
+	 * Type of the operation performed with Vault.
+	 */
+	public enum Operation {
+		READ, WRITE, LOGIN
+	}
+
+	/**
+	 * Metrics for exchanges of a single {@link Operation} and mount.
+	 */
+	public static class ExchangeMetrics {
+
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong totalTime = new AtomicLong();
+		private final AtomicLong maxTime = new AtomicLong();
+		private final AtomicLong responseBytes = new AtomicLong();
+		private final AtomicLong errorCount = new AtomicLong();
+		private final AtomicLongArray statusCounts = new AtomicLongArray(6);
+
+		/**
+		 * Record a completed exchange.
+		 *
+		 * @param duration exchange duration in nanoseconds.
+		 * @param statusCode the HTTP status code.
+		 * @param bytes number of response bytes.
+		 */
+		void recordExchange(long duration, int statusCode, long bytes) {
+
+			recordTime(duration);
+
+			int statusClass = statusCode / 100;
+			if (statusClass >= 1 && statusClass <= 5) {
+				statusCounts.incrementAndGet(statusClass);
+			}
+
+			responseBytes.addAndGet(bytes);
+		}
+
+		/**
+		 * Record an exchange that failed without a response.
+		 *
+		 * @param duration exchange duration in nanoseconds.
+		 */
+		void recordError(long duration) {
+
+			recordTime(duration);
+			errorCount.incrementAndGet();
+		}
+
+		private void recordTime(long duration) {
+
+			count.incrementAndGet();
+			totalTime.addAndGet(duration);
+
+			long max;
+			while ((max = maxTime.get()) < duration) {
+				if (maxTime.compareAndSet(max, duration)) {
+					break;
+				}
+			}
+		}
+
+		/**
+		 * @return the number of exchanges.
+		 */
+		public long getCount() {
+			return count.get();
+		}
+
+		/**
+		 * @return the total exchange time in nanoseconds.
+		 */
+		public long getTotalTime() {
+			return totalTime.get();
+		}
+
+		/**
+		 * @return the maximum exchange time in nanoseconds.
+		 */
+		public long getMaxTime() {
+			return maxTime.get();
+		}
+
+		/**
+		 * @return the total number of response bytes.
+		 */
+		public long getResponseBytes() {
+			return responseBytes.get();
+		}
+
+		/**
+		 * @return the number of exchanges failed without a response.
+		 */
+		public long getErrorCount() {
+			return errorCount.get();
+		}
+
+		/**
+		 * @param statusClass the status class from {@code 1} to {@code 5}.
+		 * @return the number of exchanges completed with the given status class.
+		 */
+		public long getStatusCount(int statusClass) {
+
+			Assert.isTrue(statusClass >= 1 && statusClass <= 5,
+					"Status class must be between 1 and 5!");
+
+			return statusCounts.get(statusClass);
+		}
+	}
+}
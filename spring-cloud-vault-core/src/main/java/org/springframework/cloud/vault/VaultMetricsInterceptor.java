@@ -0,0 +1,250 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.cloud.vault.VaultMetrics.ExchangeMetrics;
+import org.springframework.cloud.vault.VaultMetrics.Operation;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequestInterceptor} recording {@link VaultMetrics} for each HTTP
+ * exchange. Exchanges are timed until the response is closed to include reading the
+ * response body. Only the operation type and the mount path are recorded.
+ *
+ * @author Mark Paluch
+ */
+class VaultMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+	private final static String API_PREFIX = "/" + VaultClient.API_VERSION + "/";
+
+	private final VaultMetrics metrics;
+
+	/**
+	 * Creates a new {@link VaultMetricsInterceptor}.
+	 *
+	 * @param metrics must not be {@literal null}.
+	 */
+	VaultMetricsInterceptor(VaultMetrics metrics) {
+
+		Assert.notNull(metrics, "VaultMetrics must not be null!");
+
+		this.metrics = metrics;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+			ClientHttpRequestExecution execution) throws IOException {
+
+		String path = getPath(request.getURI().getPath());
+		ExchangeMetrics exchangeMetrics = metrics.getExchangeMetrics(
+				getOperation(request.getMethod(), path), getMount(path));
+
+		metrics.incrementInFlight();
+		long start = System.nanoTime();
+
+		try {
+			return new MeteredClientHttpResponse(execution.execute(request, body),
+					exchangeMetrics, start);
+		}
+		catch (IOException | RuntimeException e) {
+
+			metrics.decrementInFlight();
+			exchangeMetrics.recordError(System.nanoTime() - start);
+			throw e;
+		}
+	}
+
+	/**
+	 * Determine the {@link Operation} for a request.
+	 *
+	 * @param method the HTTP method.
+	 * @param path the Vault path without API version.
+	 * @return the {@link Operation}.
+	 */
+	static Operation getOperation(HttpMethod method, String path) {
+
+		if (method == HttpMethod.GET || method == HttpMethod.HEAD) {
+			return Operation.READ;
+		}
+
+		if (path.startsWith("auth/") && path.endsWith("/login")) {
+			return Operation.LOGIN;
+		}
+
+		return Operation.WRITE;
+	}
+
+	/**
+	 * Determine the mount of a Vault path. Mounts of the {@code auth} and {@code sys}
+	 * backends include the next path segment to distinguish authentication backends and
+	 * system endpoints.
+	 *
+	 * @param path the Vault path without API version.
+	 * @return the mount.
+	 */
+	static String getMount(String path) {
+
+		int first = path.indexOf('/');
+		if (first == -1) {
+			return path;
+		}
+
+		String mount = path.substring(0, first);
+		if (mount.equals("auth") || mount.equals("sys")) {
+
+			int second = path.indexOf('/', first + 1);
+			return second == -1 ? path : path.substring(0, second);
+		}
+
+		return mount;
+	}
+
+	private static String getPath(String uriPath) {
+		return uriPath.startsWith(API_PREFIX) ? uriPath.substring(API_PREFIX.length())
+				: uriPath;
+	}
+
+	/**
+	 * {@link ClientHttpResponse} counting response bytes and recording the exchange once
+	 * closed.
+	 */
+	class MeteredClientHttpResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse delegate;
+		private final ExchangeMetrics exchangeMetrics;
+		private final long start;
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		private CountingInputStream body;
+
+		MeteredClientHttpResponse(ClientHttpResponse delegate,
+				ExchangeMetrics exchangeMetrics, long start) {
+
+			this.delegate = delegate;
+			this.exchangeMetrics = exchangeMetrics;
+			this.start = start;
+		}
+
+		@Override
+		public HttpStatus getStatusCode() throws IOException {
+			return delegate.getStatusCode();
+		}
+
+		@Override
+		public int getRawStatusCode() throws IOException {
+			return delegate.getRawStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return delegate.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return delegate.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+
+			if (body == null) {
+				body = new CountingInputStream(delegate.getBody());
+			}
+
+			return body;
+		}
+
+		@Override
+		public void close() {
+
+			try {
+				delegate.close();
+			}
+			finally {
+
+				if (closed.compareAndSet(false, true)) {
+
+					metrics.decrementInFlight();
+					exchangeMetrics.recordExchange(System.nanoTime() - start,
+							getStatus(), body != null ? body.count : 0);
+				}
+			}
+		}
+
+		private int getStatus() {
+
+			try {
+				return delegate.getRawStatusCode();
+			}
+			catch (IOException e) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * {@link InputStream} counting the number of bytes read.
+	 */
+	static class CountingInputStream extends FilterInputStream {
+
+		long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+
+			int result = super.read();
+			if (result != -1) {
+				count++;
+			}
+			return result;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+
+			int result = super.read(b, off, len);
+			if (result != -1) {
+				count += result;
+			}
+			return result;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+	}
+}
@@ -15,6 +15,9 @@
  */
 package org.springframework.cloud.vault;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.hibernate.validator.constraints.NotEmpty;
 import org.hibernate.validator.constraints.Range;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -74,10 +77,28 @@ public class VaultProperties {
 
 	private AppIdProperties appId = new AppIdProperties();
 
+	private AppRoleProperties appRole = new AppRoleProperties();
+
 	private AwsEc2Properties awsEc2 = new AwsEc2Properties();
 
 	private Ssl ssl = new Ssl();
 
+	private Bootstrap bootstrap = new Bootstrap();
+
+	private Http http = new Http();
+
+	private Session session = new Session();
+
+	private LeaseProperties lease = new LeaseProperties();
+
+	private Async async = new Async();
+
+	private SnapshotProperties snapshot = new SnapshotProperties();
+
+	private Retry retry = new Retry();
+
+	private ClusterProperties cluster = new ClusterProperties();
+
 	/**
 	 * Application name for AppId authentication.
 	 */
@@ -119,6 +140,39 @@ public class VaultProperties {
 		 */
 		@NotEmpty
 		private String userId = MAC_ADDRESS;
+
+		/**
+		 * Timeout in milliseconds to obtain the "MAC_ADDRESS" and "IP_ADDRESS" UserId.
+		 * Both are computed once in the background and guard against slow DNS
+		 * resolution of the local host.
+		 */
+		private long userIdTimeout = 10000;
+	}
+
+	@Data
+	public static class AppRoleProperties {
+
+		/**
+		 * Mount path of the AppRole authentication backend.
+		 */
+		@NotEmpty
+		private String appRolePath = "approle";
+
+		/**
+		 * The RoleId.
+		 */
+		private String roleId;
+
+		/**
+		 * The SecretId, optional if the role does not require a SecretId.
+		 */
+		private String secretId;
+
+		/**
+		 * Response-wrapping token holding the SecretId. The SecretId is unwrapped using
+		 * {@code sys/wrapping/unwrap} and used instead of {@link #secretId}.
+		 */
+		private String secretIdToken;
 	}
 
 	@Data
@@ -175,9 +229,264 @@ public class VaultProperties {
 		 */
 		@NotEmpty
 		private String certAuthPath = "cert";
+
+		/**
+		 * Interval in milliseconds to check the key and trust store for modifications.
+		 * Modified stores are reloaded for new connections. Values less or equal to zero
+		 * disable reloading.
+		 */
+		private long reloadInterval = 60000;
+
+		/**
+		 * Maximum number of TLS sessions cached for resumption. Zero means no limit.
+		 */
+		@Range(min = 0)
+		private int sessionCacheSize = 100;
+
+		/**
+		 * Timeout in seconds after which cached TLS sessions expire. Zero means no
+		 * limit.
+		 */
+		@Range(min = 0)
+		private int sessionTimeout = 86400;
+	}
+
+	@Data
+	public static class Bootstrap {
+
+		/**
+		 * Read property sources concurrently during bootstrap.
+		 */
+		private boolean concurrent = false;
+
+		/**
+		 * Maximum number of concurrent reads during bootstrap.
+		 */
+		@Range(min = 1)
+		private int parallelism = 4;
+
+		/**
+		 * Overall deadline in milliseconds for concurrent reads during bootstrap.
+		 */
+		private int timeout = 30000;
+	}
+
+	@Data
+	public static class Http {
+
+		/**
+		 * HTTP client used to access Vault. {@code AUTO} selects the first client
+		 * available on the class path.
+		 */
+		private HttpClientType client = HttpClientType.AUTO;
+
+		/**
+		 * Maximum number of pooled connections.
+		 */
+		@Range(min = 1)
+		private int maxConnections = 20;
+
+		/**
+		 * Maximum number of pooled connections per route.
+		 */
+		@Range(min = 1)
+		private int maxConnectionsPerRoute = 10;
+
+		/**
+		 * Keep-alive duration in milliseconds for pooled connections if the server does
+		 * not provide a Keep-Alive header.
+		 */
+		private long keepAlive = 30000;
+
+		/**
+		 * Time to live in milliseconds of pooled connections. Values less or equal to
+		 * zero keep connections alive as long as they are reusable.
+		 */
+		private long connectionTimeToLive = -1;
+
+		/**
+		 * Idle time in milliseconds after which pooled connections are evicted. Values
+		 * less or equal to zero disable idle connection eviction.
+		 */
+		private long idleConnectionTimeout = 30000;
+
+		/**
+		 * Inactivity in milliseconds after which pooled connections are validated before
+		 * they are leased again. Values less or equal to zero disable validation.
+		 */
+		private int validateAfterInactivity = 2000;
+
+		/**
+		 * Number of connections to open in the background ahead of the first request.
+		 * Zero disables the warm-up.
+		 */
+		@Range(min = 0)
+		private int warmupConnections = 0;
+
+		/**
+		 * Maximum number of requests per second sent to Vault. Values less or equal to
+		 * zero disable rate limiting.
+		 */
+		private double rateLimit = 0;
+
+		/**
+		 * Number of requests that can be sent at once before the rate limit applies.
+		 */
+		@Range(min = 1)
+		private int rateLimitBurst = 10;
+	}
+
+	@Data
+	public static class Session {
+
+		/**
+		 * Renew the session token in the background and log in again before the token
+		 * expires.
+		 */
+		private boolean renewalEnabled = true;
+
+		/**
+		 * Fraction of the token TTL after which the token is renewed.
+		 */
+		private double renewalFraction = 0.7;
+
+		/**
+		 * Remaining token TTL in milliseconds below which a new token is obtained by
+		 * logging in again instead of renewing the current token.
+		 */
+		private long expiryThreshold = 60000;
+	}
+
+	@Data
+	public static class LeaseProperties {
+
+		/**
+		 * Renew leases of secrets obtained from secret backends and revoke them on
+		 * shutdown.
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Fraction of the lease duration after which the lease is renewed.
+		 */
+		private double renewalFraction = 0.7;
+
+		/**
+		 * Maximum random jitter applied to the renewal delay as fraction of the delay.
+		 */
+		private double jitter = 0.1;
+
+		/**
+		 * Minimum lease duration in milliseconds. Leases that are renewed for a shorter
+		 * duration reached their maximum TTL and are not renewed anymore.
+		 */
+		private long minRenewal = 10000;
+
+		/**
+		 * Revoke leases when the application context is closed.
+		 */
+		private boolean revokeOnShutdown = true;
+
+		/**
+		 * Request new secrets before leases expire that cannot be renewed anymore and
+		 * update the property sources in place.
+		 */
+		private boolean rotate = false;
+	}
+
+	@Data
+	public static class Async {
+
+		/**
+		 * Enable the asynchronous Vault client. Uses Netty for non-blocking I/O if
+		 * available.
+		 */
+		private boolean enabled = false;
+	}
+
+	@Data
+	public static class SnapshotProperties {
+
+		/**
+		 * Start from an encrypted local snapshot of the generic backend property sources
+		 * and revalidate these against Vault in the background.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Location of the snapshot file.
+		 */
+		private String file;
+
+		/**
+		 * Mount path of the transit backend that wraps the snapshot data key.
+		 */
+		@NotEmpty
+		private String transitPath = "transit";
+
+		/**
+		 * Name of the transit key that wraps the snapshot data key.
+		 */
+		@NotEmpty
+		private String transitKey = "spring-cloud-vault-snapshot";
+
+		/**
+		 * Maximum age of a snapshot in milliseconds. Older snapshots are ignored.
+		 */
+		private long maxStaleness = 86400000;
+	}
+
+	@Data
+	public static class Retry {
+
+		/**
+		 * Retry requests that fail with status 429, 500, 502, 503, 504 or an I/O error.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of attempts including the initial request.
+		 */
+		@Range(min = 1)
+		private int maxAttempts = 4;
+
+		/**
+		 * Base backoff in milliseconds between attempts.
+		 */
+		private long initialBackoff = 100;
+
+		/**
+		 * Maximum backoff in milliseconds between attempts. Requests are not retried if
+		 * Vault responds with a longer {@code Retry-After}.
+		 */
+		private long maxBackoff = 10000;
+	}
+
+	@Data
+	public static class ClusterProperties {
+
+		/**
+		 * Additional Vault endpoints as URIs, e.g. {@code https://vault-2:8200}. The
+		 * endpoint configured by scheme, host and port is always used.
+		 */
+		private List<String> endpoints = new ArrayList<>();
+
+		/**
+		 * Interval in milliseconds between {@code sys/health} probes of each endpoint.
+		 */
+		private long healthCheckInterval = 5000;
+
+		/**
+		 * Route reads to performance standby nodes.
+		 */
+		private boolean standbyReads = true;
 	}
 
 	public enum AuthenticationMethod {
-		TOKEN, APPID, AWS_EC2, CERT
+		TOKEN, APPID, APPROLE, AWS_EC2, CERT
+	}
+
+	public enum HttpClientType {
+		AUTO, HTTP_COMPONENTS, OKHTTP, OKHTTP3, NETTY, JDK
 	}
 }
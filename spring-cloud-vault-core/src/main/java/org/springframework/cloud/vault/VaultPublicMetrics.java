@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.util.Assert;
+
+/**
+ * {@link PublicMetrics} exposing {@link VaultMetrics} through the actuator metrics
+ * endpoint.
+ *
+ * @author Mark Paluch
+ */
+public class VaultPublicMetrics implements PublicMetrics {
+
+	private final VaultMetrics vaultMetrics;
+
+	/**
+	 * Creates a new {@link VaultPublicMetrics}.
+	 *
+	 * @param vaultMetrics must not be {@literal null}.
+	 */
+	public VaultPublicMetrics(VaultMetrics vaultMetrics) {
+
+		Assert.notNull(vaultMetrics, "VaultMetrics must not be null!");
+
+		this.vaultMetrics = vaultMetrics;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+
+		Map<String, Number> metrics = vaultMetrics.getMetrics();
+		List<Metric<?>> result = new ArrayList<>(metrics.size());
+
+		for (Map.Entry<String, Number> entry : metrics.entrySet()) {
+			result.add(new Metric<Number>(entry.getKey(), entry.getValue()));
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.vault;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Read-only {@link org.springframework.http.converter.HttpMessageConverter} decoding
+ * {@link VaultResponse} bodies with a streaming {@link JsonParser}. {@code data} and
+ * {@code metadata} values are written straight into the target {@link Map} without an
+ * intermediate tree or bean deserializer. Field names are canonicalized by the shared
+ * {@link JsonFactory} so well-known keys such as {@code lease_id} and
+ * {@code client_token} and recurring property names are not allocated per response.
+ * Nested {@code auth} structures are bound using a shared {@link ObjectReader}.
+ *
+ * @author Mark Paluch
+ */
+class VaultResponseHttpMessageConverter extends
+		AbstractHttpMessageConverter<VaultResponse> {
+
+	private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final static JsonFactory JSON_FACTORY = OBJECT_MAPPER.getFactory();
+
+	private final static ObjectReader MAP_READER = OBJECT_MAPPER.readerFor(Map.class);
+
+	VaultResponseHttpMessageConverter() {
+		super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return VaultResponse.class == clazz;
+	}
+
+	@Override
+	public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected VaultResponse readInternal(Class<? extends VaultResponse> clazz,
+			HttpInputMessage inputMessage) throws IOException,
+			HttpMessageNotReadableException {
+
+		try (JsonParser parser = JSON_FACTORY.createParser(inputMessage.getBody())) {
+			return read(parser);
+		}
+		catch (JsonProcessingException e) {
+			throw new HttpMessageNotReadableException("Could not read JSON: "
+					+ e.getOriginalMessage(), e);
+		}
+	}
+
+	@Override
+	protected void writeInternal(VaultResponse vaultResponse,
+			HttpOutputMessage outputMessage) throws IOException,
+			HttpMessageNotWritableException {
+		throw new HttpMessageNotWritableException(
+				"VaultResponseHttpMessageConverter does not support writing");
+	}
+
+	/**
+	 * Read a {@link VaultResponse} from a {@link JsonParser} that is positioned before
+	 * the top-level object.
+	 *
+	 * @param parser must not be {@literal null}.
+	 * @return the {@link VaultResponse} or {@literal null} if the body is empty or
+	 * {@code null}.
+	 * @throws IOException
+	 */
+	static VaultResponse read(JsonParser parser) throws IOException {
+
+		JsonToken token = parser.nextToken();
+
+		if (token == null || token == JsonToken.VALUE_NULL) {
+			return null;
+		}
+
+		expectObject(parser, token);
+
+		VaultResponse response = new VaultResponse();
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+			String name = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+
+			switch (name) {
+
+			case "data":
+				response.setData(readStringMap(parser, value));
+				break;
+
+			case "metadata":
+				response.setMetadata(readStringMap(parser, value));
+				break;
+
+			case "auth":
+				if (value != JsonToken.VALUE_NULL) {
+					Map<String, Object> auth = MAP_READER.readValue(parser);
+					response.setAuth(auth);
+				}
+				break;
+
+			case "lease_id":
+				response.setLeaseId(value == JsonToken.VALUE_NULL ? null : parser
+						.getText());
+				break;
+
+			case "lease_duration":
+				response.setLeaseDuration(parser.getValueAsLong());
+				break;
+
+			case "renewable":
+				response.setRenewable(parser.getValueAsBoolean());
+				break;
+
+			default:
+				parser.skipChildren();
+			}
+		}
+
+		return response;
+	}
+
+	private static Map<String, String> readStringMap(JsonParser parser, JsonToken token)
+			throws IOException {
+
+		if (token == JsonToken.VALUE_NULL) {
+			return null;
+		}
+
+		expectObject(parser, token);
+
+		Map<String, String> map = new LinkedHashMap<>();
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+			String key = parser.getCurrentName();
+			map.put(key, readString(parser, parser.nextToken()));
+		}
+
+		return map;
+	}
+
+	private static String readString(JsonParser parser, JsonToken token)
+			throws IOException {
+
+		if (token == JsonToken.VALUE_NULL) {
+			return null;
+		}
+
+		if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+			return parser.readValueAsTree().toString();
+		}
+
+		return parser.getText();
+	}
+
+	private static void expectObject(JsonParser parser, JsonToken token)
+			throws JsonParseException {
+
+		if (token != JsonToken.START_OBJECT) {
+			throw new JsonParseException(parser, String.format(
+					"Expected JSON object but was %s", token));
+		}
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.util.Collections;
+
+import org.springframework.boot.actuate.info.Info.Builder;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.util.Assert;
+
+/**
+ * {@link InfoContributor} exposing {@link VaultStartupTimings} as {@code vault.startup}
+ * through the actuator info endpoint.
+ *
+ * @author Mark Paluch
+ */
+public class VaultStartupInfoContributor implements InfoContributor {
+
+	private final VaultStartupTimings startupTimings;
+
+	/**
+	 * Creates a new {@link VaultStartupInfoContributor}.
+	 *
+	 * @param startupTimings must not be {@literal null}.
+	 */
+	public VaultStartupInfoContributor(VaultStartupTimings startupTimings) {
+
+		Assert.notNull(startupTimings, "VaultStartupTimings must not be null!");
+
+		this.startupTimings = startupTimings;
+	}
+
+	@Override
+	public void contribute(Builder builder) {
+		builder.withDetail("vault",
+				Collections.singletonMap("startup", startupTimings.toMap()));
+	}
+}
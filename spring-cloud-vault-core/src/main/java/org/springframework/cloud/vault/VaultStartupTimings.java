@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+import lombok.Value;
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Collects timings of the phases of the Vault bootstrap such as creating the HTTP client,
+ * obtaining the AppId UserId, logging in and reading individual property sources. Phases
+ * may be recorded concurrently. Recording stops once the bootstrap is
+ * {@link #complete() completed} and a report is logged.
+ *
+ * <pre class="code">
+ * Timer timer = startupTimings.start("login");
+ * try {
+ * 	// ...
+ * } finally {
+ * 	timer.stop();
+ * }
+ * </pre>
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+public class VaultStartupTimings {
+
+	private final long origin = System.nanoTime();
+	private final List<Phase> phases = new CopyOnWriteArrayList<>();
+
+	private volatile long completedAt;
+
+	/**
+	 * Start timing a phase.
+	 *
+	 * @param name must not be empty or {@literal null}.
+	 * @return the {@link Timer} to stop timing.
+	 */
+	public Timer start(String name) {
+
+		Assert.hasText(name, "Phase name must not be empty!");
+
+		return new Timer(name, System.nanoTime());
+	}
+
+	/**
+	 * Complete the bootstrap, stop recording phases and log the report.
+	 */
+	public void complete() {
+
+		if (isCompleted()) {
+			return;
+		}
+
+		completedAt = System.nanoTime();
+
+		if (log.isInfoEnabled()) {
+			log.info(getReport());
+		}
+	}
+
+	/**
+	 * @return {@literal true} if the bootstrap is completed.
+	 */
+	public boolean isCompleted() {
+		return completedAt != 0;
+	}
+
+	/**
+	 * @return the recorded phases in the order of their completion.
+	 */
+	public List<Phase> getPhases() {
+		return Collections.unmodifiableList(new ArrayList<>(phases));
+	}
+
+	/**
+	 * @return the total bootstrap time in milliseconds, up to now if the bootstrap is not
+	 * yet completed.
+	 */
+	public long getTotalTime() {
+
+		long end = isCompleted() ? completedAt : System.nanoTime();
+		return TimeUnit.NANOSECONDS.toMillis(end - origin);
+	}
+
+	/**
+	 * @return a human-readable report of the recorded phases.
+	 */
+	public String getReport() {
+
+		StringBuilder report = new StringBuilder();
+		report.append("Vault bootstrap took ").append(getTotalTime()).append(" ms");
+
+		for (Phase phase : phases) {
+			report.append(String.format("%n  %-60s %6d ms (started at %d ms, %s)",
+					phase.getName(), phase.getDuration(), phase.getStart(),
+					phase.getThread()));
+		}
+
+		return report.toString();
+	}
+
+	/**
+	 * @return the timings as {@link Map} to be rendered by actuator endpoints.
+	 */
+	public Map<String, Object> toMap() {
+
+		Map<String, Object> phaseDurations = new LinkedHashMap<>();
+		for (Phase phase : phases) {
+			phaseDurations.put(phase.getName(), phase.getDuration());
+		}
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("completed", isCompleted());
+		result.put("total", getTotalTime());
+		result.put("phases", phaseDurations);
+
+		return result;
+	}
+
+	/**
+	 * Timing of a single phase. Times are in milliseconds, {@link #getStart()} is
+	 * relative to the creation of {@link VaultStartupTimings}.
+	 */
+	@Value
+	public static class Phase {
+
+		private final String name;
+		private final long start;
+		private final long duration;
+		private final String thread;
+	}
+
+	/**
+	 * Running timer of a phase.
+	 */
+	public class Timer {
+
+		private final String name;
+		private final long start;
+
+		Timer(String name, long start) {
+
+			this.name = name;
+			this.start = start;
+		}
+
+		/**
+		 * Stop the timer and record the phase. Phases stopped after the bootstrap was
+		 * completed are not recorded.
+		 */
+		public void stop() {
+
+			if (isCompleted()) {
+				return;
+			}
+
+			long now = System.nanoTime();
+			phases.add(new Phase(name, TimeUnit.NANOSECONDS.toMillis(start - origin),
+					TimeUnit.NANOSECONDS.toMillis(now - start), Thread.currentThread()
+							.getName()));
+		}
+	}
+}
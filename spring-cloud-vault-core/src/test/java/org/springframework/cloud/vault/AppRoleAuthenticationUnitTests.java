@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.cloud.vault.util.EmbeddedVaultServer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Unit tests for {@link AppRoleAuthentication} using {@link EmbeddedVaultServer}.
+ *
+ * @author Mark Paluch
+ */
+public class AppRoleAuthenticationUnitTests {
+
+	@Rule
+	public EmbeddedVaultServer server = new EmbeddedVaultServer();
+
+	private VaultProperties properties;
+	private VaultClient vaultClient = new VaultClient();
+
+	@Before
+	public void before() {
+
+		properties = server.createVaultProperties();
+		properties.setAuthentication(VaultProperties.AuthenticationMethod.APPROLE);
+		properties.getAppRole().setRoleId("my-role");
+	}
+
+	@Test
+	public void shouldLoginUsingSecretId() {
+
+		properties.getAppRole().setSecretId("my-secret");
+
+		VaultToken token = ClientAuthentication.create(properties, vaultClient).login();
+
+		assertThat(token.getToken()).isNotEmpty();
+		assertThat(server.getLastLogin()).containsEntry("role_id", "my-role")
+				.containsEntry("secret_id", "my-secret");
+	}
+
+	@Test
+	public void shouldLoginUsingWrappedSecretId() {
+
+		properties.getAppRole().setSecretIdToken(
+				server.wrap(Collections.singletonMap("secret_id", "unwrapped")));
+
+		VaultStartupTimings timings = new VaultStartupTimings();
+		ClientAuthentication authentication = ClientAuthentication.appRole(properties,
+				vaultClient, timings);
+
+		authentication.login();
+		assertThat(server.getLastLogin()).containsEntry("secret_id", "unwrapped");
+
+		// wrapping tokens are single-use, subsequent logins reuse the SecretId
+		authentication.login();
+		assertThat(server.getLastLogin()).containsEntry("secret_id", "unwrapped");
+	}
+
+	@Test
+	public void shouldReuseUnwrappedSecretIdAcrossAdapters() {
+
+		properties.getAppRole().setSecretIdToken(
+				server.wrap(Collections.singletonMap("secret_id", "unwrapped")));
+
+		ClientAuthentication.appRole(properties, vaultClient).login();
+
+		// e.g. a bootstrap context created by /refresh
+		ClientAuthentication.appRole(properties, vaultClient).login();
+		assertThat(server.getLastLogin()).containsEntry("secret_id", "unwrapped");
+	}
+
+	@Test
+	public void shouldRecoverFromTransientUnwrappingFailure() {
+
+		properties.getAppRole().setSecretIdToken(
+				server.wrap(Collections.singletonMap("secret_id", "recovered")));
+
+		ClientAuthentication authentication = ClientAuthentication.appRole(properties,
+				vaultClient);
+
+		server.setErrorStatus(503);
+		server.setErrorRate(1);
+
+		try {
+			authentication.login();
+			fail("Missing IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertThat(e).hasMessageContaining("Cannot unwrap SecretId");
+		}
+
+		server.setErrorRate(0);
+
+		authentication.login();
+		assertThat(server.getLastLogin()).containsEntry("secret_id", "recovered");
+	}
+
+	@Test
+	public void shouldUnwrapSecretIdUsingTaskScheduler() {
+
+		properties.getAppRole().setSecretIdToken(
+				server.wrap(Collections.singletonMap("secret_id", "scheduled")));
+
+		ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+		taskScheduler.afterPropertiesSet();
+
+		try {
+			ClientAuthentication.appRole(properties, vaultClient,
+					new VaultStartupTimings(), taskScheduler).login();
+		}
+		finally {
+			taskScheduler.shutdown();
+		}
+
+		assertThat(server.getLastLogin()).containsEntry("secret_id", "scheduled");
+	}
+
+	@Test
+	public void shouldUnwrapResponse() {
+
+		String wrappingToken = server.wrap(Collections.singletonMap("key", "value"));
+
+		VaultClientResponse response = vaultClient.unwrap(properties,
+				VaultToken.of(wrappingToken));
+
+		assertThat(response.isSuccessful()).isTrue();
+		assertThat(response.getBody().getData()).containsEntry("key", "value");
+		assertThat(vaultClient.unwrap(properties, VaultToken.of(wrappingToken))
+				.isSuccessful()).isFalse();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void shouldFailLoginWithInvalidWrappingToken() {
+
+		properties.getAppRole().setSecretIdToken("unknown");
+
+		ClientAuthentication.appRole(properties, vaultClient).login();
+	}
+
+	@Test
+	public void shouldNotRetainFailedUnwrapping() {
+
+		properties.getAppRole().setSecretIdToken("unknown");
+
+		for (int i = 0; i < 2; i++) {
+
+			long requestCount = server.getRequestCount();
+
+			try {
+				ClientAuthentication.appRole(properties, vaultClient).login();
+				fail("Missing IllegalStateException");
+			}
+			catch (IllegalStateException e) {
+				assertThat(server.getRequestCount()).isGreaterThan(requestCount);
+			}
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.cloud.vault.util.EmbeddedVaultServer;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.client.AsyncRestTemplate;
+
+/**
+ * Unit tests for {@link AsyncVaultClient} using {@link EmbeddedVaultServer}.
+ *
+ * @author Mark Paluch
+ */
+public class AsyncVaultClientUnitTests {
+
+	@Rule
+	public EmbeddedVaultServer server = new EmbeddedVaultServer();
+
+	private VaultProperties vaultProperties;
+	private AsyncVaultClient vaultClient;
+	private VaultToken token;
+
+	@Before
+	public void before() {
+
+		vaultProperties = server.createVaultProperties();
+		vaultClient = new AsyncVaultClient(new AsyncRestTemplate(
+				ClientHttpRequestFactoryFactory.createAsync(vaultProperties)));
+		token = VaultToken.of(server.getRootToken());
+	}
+
+	@Test
+	public void shouldReadSecret() throws Exception {
+
+		server.putSecret("secret/application",
+				Collections.singletonMap("key", "value"));
+
+		VaultClientResponse response = vaultClient.read(
+				VaultClient.buildUri(vaultProperties, "secret/application"), token).get(
+				5, TimeUnit.SECONDS);
+
+		assertThat(response.isSuccessful()).isTrue();
+		assertThat(response.getBody().getData()).containsEntry("key", "value");
+	}
+
+	@Test
+	public void shouldCompleteWithErrorResponse() throws Exception {
+
+		VaultClientResponse response = vaultClient.read(
+				VaultClient.buildUri(vaultProperties, "secret/application"),
+				VaultToken.of("unknown")).get(5, TimeUnit.SECONDS);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+		assertThat(response.getMessage()).isEqualTo("permission denied");
+	}
+
+	@Test
+	public void shouldLogin() throws Exception {
+
+		VaultToken login = vaultClient.login(
+				VaultClient.buildUri(vaultProperties, "auth/app-id/login"),
+				Collections.singletonMap("app_id", "app")).get(5, TimeUnit.SECONDS);
+
+		assertThat(login.getToken()).isNotEmpty();
+	}
+
+	@Test
+	public void shouldIssueConcurrentRequests() throws Exception {
+
+		server.setLatency(100);
+		server.setGeneratedProperties(10);
+
+		List<ListenableFuture<VaultClientResponse>> futures = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			futures.add(vaultClient.read(
+					VaultClient.buildUri(vaultProperties, "secret/generated"), token));
+		}
+
+		for (ListenableFuture<VaultClientResponse> future : futures) {
+			assertThat(future.get(5, TimeUnit.SECONDS).getBody().getData()).hasSize(10);
+		}
+	}
+}
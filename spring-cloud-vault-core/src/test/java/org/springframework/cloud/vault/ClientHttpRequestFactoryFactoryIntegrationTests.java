@@ -18,6 +18,21 @@ package org.springframework.cloud.vault;
 import static org.assertj.core.api.AssertionsForClassTypes.*;
 import static org.springframework.cloud.vault.ClientHttpRequestFactoryFactory.*;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.SSLSocket;
+
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.junit.Test;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
@@ -56,6 +71,58 @@ public class ClientHttpRequestFactoryFactoryIntegrationTests {
 		((DisposableBean) factory).destroy();
 	}
 
+	@Test
+	public void httpComponentsClientShouldReuseTlsConnections() throws Exception {
+
+		vaultProperties.getHttp().setMaxConnectionsPerRoute(4);
+
+		final AtomicInteger handshakes = new AtomicInteger();
+		SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(
+				getSSLContext(vaultProperties.getSsl())) {
+
+			@Override
+			protected void prepareSocket(SSLSocket socket) throws IOException {
+
+				socket.addHandshakeCompletedListener(new HandshakeCompletedListener() {
+					@Override
+					public void handshakeCompleted(HandshakeCompletedEvent event) {
+						handshakes.incrementAndGet();
+					}
+				});
+			}
+		};
+
+		PoolingHttpClientConnectionManager connectionManager = HttpComponents
+				.createConnectionManager(vaultProperties, sslSocketFactory);
+		ClientHttpRequestFactory factory = HttpComponents.usingHttpComponents(
+				vaultProperties, connectionManager);
+		final RestTemplate template = new RestTemplate(factory);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<String>> futures = new ArrayList<>();
+
+		for (int i = 0; i < 100; i++) {
+			futures.add(executor.submit(new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					return request(template);
+				}
+			}));
+		}
+
+		for (Future<String> future : futures) {
+			assertThat(future.get()).contains("initialized");
+		}
+
+		executor.shutdown();
+
+		assertThat(handshakes.get()).isBetween(1, 4);
+		assertThat(connectionManager.getTotalStats().getLeased()).isEqualTo(0);
+		assertThat(connectionManager.getTotalStats().getAvailable()).isBetween(1, 4);
+
+		((DisposableBean) factory).destroy();
+	}
+
 	private String request(RestTemplate template) {
 
 		// Uninitialized and sealed can cause status 500
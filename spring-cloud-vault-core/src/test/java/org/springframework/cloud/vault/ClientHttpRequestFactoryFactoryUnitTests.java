@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.vault.util.EmbeddedVaultServer;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.cloud.vault.VaultProperties.HttpClientType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Unit tests for {@link ClientHttpRequestFactoryFactory} using an HTTPS
+ * {@link EmbeddedVaultServer}.
+ *
+ * @author Mark Paluch
+ */
+public class ClientHttpRequestFactoryFactoryUnitTests {
+
+	@Rule
+	public EmbeddedVaultServer server = new EmbeddedVaultServer(createServerSslContext());
+
+	private VaultProperties vaultProperties;
+	private VaultMetrics vaultMetrics = new VaultMetrics();
+	private ClientHttpRequestFactory requestFactory;
+
+	@Before
+	public void before() {
+
+		SslMaterialCache.clear();
+
+		vaultProperties = server.createVaultProperties();
+		vaultProperties.getSsl().setTrustStore(new ClassPathResource("truststore.jks"));
+		vaultProperties.getSsl().setTrustStorePassword("changeit");
+	}
+
+	@After
+	public void after() throws Exception {
+
+		if (requestFactory instanceof DisposableBean) {
+			((DisposableBean) requestFactory).destroy();
+		}
+	}
+
+	@Test
+	public void shouldRecordTlsHandshakesOfPooledConnections() {
+
+		requestFactory = ClientHttpRequestFactoryFactory.create(vaultProperties,
+				vaultMetrics);
+		VaultClient vaultClient = new VaultClient(new RestTemplate(requestFactory));
+
+		for (int i = 0; i < 5; i++) {
+			vaultClient.read(VaultClient.buildUri(vaultProperties, "sys/health"),
+					VaultToken.of(server.getRootToken()));
+		}
+
+		assertThat(vaultMetrics.getHandshakes()).isEqualTo(1);
+		assertThat(vaultMetrics.getMetrics()).containsEntry(
+				"vault.client.tls.handshakes", 1L);
+	}
+
+	@Test
+	public void warmupShouldOpenConnections() throws Exception {
+
+		vaultProperties.getHttp().setWarmupConnections(2);
+		requestFactory = ClientHttpRequestFactoryFactory.create(vaultProperties,
+				vaultMetrics);
+
+		new VaultConnectionWarmup(requestFactory, vaultProperties).afterPropertiesSet();
+
+		for (int i = 0; i < 50 && vaultMetrics.getHandshakes() < 2; i++) {
+			Thread.sleep(100);
+		}
+
+		assertThat(vaultMetrics.getHandshakes()).isEqualTo(2);
+		assertThat(server.getRequestCount()).isEqualTo(2);
+
+		VaultClient vaultClient = new VaultClient(new RestTemplate(requestFactory));
+		vaultClient.read(VaultClient.buildUri(vaultProperties, "sys/health"),
+				VaultToken.of(server.getRootToken()));
+
+		assertThat(vaultMetrics.getHandshakes()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldUseConfiguredClient() {
+
+		vaultProperties.getHttp().setClient(HttpClientType.JDK);
+
+		requestFactory = ClientHttpRequestFactoryFactory.create(vaultProperties,
+				vaultMetrics);
+
+		assertThat(requestFactory).isInstanceOf(SimpleClientHttpRequestFactory.class);
+	}
+
+	@Test
+	public void okHttp3ShouldReuseConnection() {
+
+		vaultProperties.getHttp().setClient(HttpClientType.OKHTTP3);
+		requestFactory = ClientHttpRequestFactoryFactory.create(vaultProperties,
+				vaultMetrics);
+		VaultClient vaultClient = new VaultClient(new RestTemplate(requestFactory));
+
+		for (int i = 0; i < 5; i++) {
+			vaultClient.read(VaultClient.buildUri(vaultProperties, "sys/health"),
+					VaultToken.of(server.getRootToken()));
+		}
+
+		assertThat(requestFactory).isInstanceOf(OkHttp3ClientHttpRequestFactory.class);
+		assertThat(vaultMetrics.getHandshakes()).isEqualTo(1);
+	}
+
+	@Test
+	public void factoriesShouldShareSSLContext() throws Exception {
+
+		assertThat(SslMaterialCache.getSSLContext(vaultProperties.getSsl())).isSameAs(
+				SslMaterialCache.getSSLContext(vaultProperties.getSsl()));
+		assertThat(
+				SslMaterialCache.getSSLContext(vaultProperties.getSsl())
+						.getClientSessionContext().getSessionCacheSize()).isEqualTo(100);
+	}
+
+	private static SSLContext createServerSslContext() {
+
+		try (InputStream inputStream = new ClassPathResource("server.jks")
+				.getInputStream()) {
+
+			KeyStore keyStore = KeyStore.getInstance("JKS");
+			keyStore.load(inputStream, "changeit".toCharArray());
+
+			KeyManagerFactory keyManagerFactory = KeyManagerFactory
+					.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+			keyManagerFactory.init(keyStore, "changeit".toCharArray());
+
+			SSLContext sslContext = SSLContext.getInstance("TLS");
+			sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+
+			return sslContext;
+		}
+		catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MemoizingUserIdMechanism}.
+ *
+ * @author Mark Paluch
+ */
+public class MemoizingUserIdMechanismUnitTests {
+
+	@Test
+	public void shouldComputeUserIdOnce() {
+
+		final AtomicInteger invocations = new AtomicInteger();
+
+		MemoizingUserIdMechanism mechanism = new MemoizingUserIdMechanism(
+				new AppIdUserIdMechanism() {
+
+					@Override
+					public String createUserId() {
+						return "user-" + invocations.incrementAndGet();
+					}
+				}, 1000);
+
+		assertThat(mechanism.createUserId()).isEqualTo("user-1");
+		assertThat(mechanism.createUserId()).isEqualTo("user-1");
+		assertThat(invocations.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldRetryFailedComputation() {
+
+		final AtomicInteger invocations = new AtomicInteger();
+
+		MemoizingUserIdMechanism mechanism = new MemoizingUserIdMechanism(
+				new AppIdUserIdMechanism() {
+
+					@Override
+					public String createUserId() {
+
+						if (invocations.incrementAndGet() == 1) {
+							throw new IllegalStateException("Cannot resolve local host");
+						}
+
+						return "user";
+					}
+				}, 1000);
+
+		try {
+			mechanism.createUserId();
+			fail("Missing IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertThat(e).hasMessage("Cannot resolve local host");
+		}
+
+		assertThat(mechanism.createUserId()).isEqualTo("user");
+	}
+
+	@Test
+	public void shouldTimeOutSlowComputation() throws Exception {
+
+		final CountDownLatch latch = new CountDownLatch(1);
+
+		MemoizingUserIdMechanism mechanism = new MemoizingUserIdMechanism(
+				new AppIdUserIdMechanism() {
+
+					@Override
+					public String createUserId() {
+
+						try {
+							latch.await();
+						}
+						catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+
+						return "user";
+					}
+				}, 100);
+
+		try {
+			mechanism.createUserId();
+			fail("Missing IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertThat(e).hasMessageContaining("within 100 ms");
+		}
+
+		latch.countDown();
+
+		assertThat(mechanism.createUserId()).isEqualTo("user");
+	}
+}
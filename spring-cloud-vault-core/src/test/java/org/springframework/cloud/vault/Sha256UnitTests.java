@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.springframework.security.crypto.codec.Hex;
+
+/**
+ * Unit tests for {@link Sha256}.
+ *
+ * @author Mark Paluch
+ */
+public class Sha256UnitTests {
+
+	@Test
+	public void shouldHashString() throws Exception {
+
+		assertThat(Sha256.toSha256("192.168.99.1")).isEqualTo(
+				reference("192.168.99.1".getBytes(StandardCharsets.US_ASCII)));
+		assertThat(Sha256.toSha256("gr\u00fc\u00dfe")).isEqualTo(
+				reference("gr\u00fc\u00dfe".getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	@Test
+	public void shouldHashMapIndependentOfOrder() throws Exception {
+
+		Map<String, String> data = new LinkedHashMap<>();
+		data.put("b", "\u00fc\ud83d\ude00\u20ac\ud800");
+		data.put("a", null);
+		data.put("c", repeat('x', 1000));
+
+		Map<String, String> reversed = new HashMap<>(data);
+
+		assertThat(Sha256.toSha256(data)).isEqualTo(reference(data)).isEqualTo(
+				Sha256.toSha256(reversed)).isEqualTo(
+				Sha256.toSha256(new TreeMap<>(data)));
+	}
+
+	@Test
+	public void shouldDistinguishBoundaries() {
+
+		Map<String, String> first = new HashMap<>();
+		first.put("ab", "c");
+
+		Map<String, String> second = new HashMap<>();
+		second.put("a", "bc");
+
+		assertThat(Sha256.toSha256(first)).isNotEqualTo(Sha256.toSha256(second));
+	}
+
+	@Test
+	public void shouldReuseBuffers() {
+
+		char[] first = Sha256.hasher().putString("a").toHex();
+		String hex = new String(first);
+		char[] second = Sha256.hasher().putString("b").toHex();
+
+		assertThat(second).isSameAs(first);
+		assertThat(new String(second)).isNotEqualTo(hex);
+	}
+
+	private static String reference(byte[] bytes) throws Exception {
+		return new String(Hex.encode(MessageDigest.getInstance("SHA-256").digest(bytes)));
+	}
+
+	private static String reference(Map<String, String> data) throws Exception {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DataOutputStream dataOutput = new DataOutputStream(out);
+
+		for (Map.Entry<String, String> entry : new TreeMap<>(data).entrySet()) {
+			write(dataOutput, entry.getKey());
+			write(dataOutput, entry.getValue());
+		}
+
+		return reference(out.toByteArray());
+	}
+
+	private static void write(DataOutputStream out, String value) throws Exception {
+
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String repeat(char c, int count) {
+
+		char[] chars = new char[count];
+		Arrays.fill(chars, c);
+		return new String(chars);
+	}
+}
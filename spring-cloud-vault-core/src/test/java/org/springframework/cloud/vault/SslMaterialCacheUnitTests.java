@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.X509TrustManager;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Unit tests for {@link SslMaterialCache}.
+ *
+ * @author Mark Paluch
+ */
+public class SslMaterialCacheUnitTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File trustStore;
+
+	@Before
+	public void before() throws Exception {
+
+		SslMaterialCache.clear();
+
+		trustStore = temporaryFolder.newFile("truststore");
+		writeTrustStore(null);
+	}
+
+	@Test
+	public void shouldReuseSSLContext() throws Exception {
+
+		SSLContext sslContext = SslMaterialCache.getSSLContext(createSsl(60000));
+
+		assertThat(SslMaterialCache.getSSLContext(createSsl(60000))).isSameAs(
+				sslContext);
+	}
+
+	@Test
+	public void shouldCreateNewSSLContextForModifiedStoreWithoutReloading()
+			throws Exception {
+
+		SSLContext sslContext = SslMaterialCache.getSSLContext(createSsl(0));
+
+		writeTrustStore(loadCertificate());
+		trustStore.setLastModified(trustStore.lastModified() + 5000);
+
+		assertThat(SslMaterialCache.getSSLContext(createSsl(0))).isNotSameAs(
+				sslContext);
+	}
+
+	@Test
+	public void shouldReloadModifiedTrustStore() throws Exception {
+
+		X509TrustManager trustManager = (X509TrustManager) SslMaterialCache
+				.getTrustManagerFactory(createSsl(1)).getTrustManagers()[0];
+
+		assertThat(trustManager.getAcceptedIssuers()).isEmpty();
+
+		writeTrustStore(loadCertificate());
+		trustStore.setLastModified(trustStore.lastModified() + 5000);
+		Thread.sleep(10);
+
+		assertThat(trustManager.getAcceptedIssuers()).hasSize(1);
+	}
+
+	@Test
+	public void shouldRetainMaterialIfReloadFails() throws Exception {
+
+		X509TrustManager trustManager = (X509TrustManager) SslMaterialCache
+				.getTrustManagerFactory(createSsl(1)).getTrustManagers()[0];
+
+		Files.write(trustStore.toPath(), "invalid".getBytes());
+		trustStore.setLastModified(trustStore.lastModified() + 5000);
+		Thread.sleep(10);
+
+		assertThat(trustManager.getAcceptedIssuers()).isEmpty();
+	}
+
+	private VaultProperties.Ssl createSsl(long reloadInterval) {
+
+		VaultProperties.Ssl ssl = new VaultProperties.Ssl();
+		ssl.setTrustStore(new FileSystemResource(trustStore));
+		ssl.setTrustStorePassword("changeit");
+		ssl.setReloadInterval(reloadInterval);
+		return ssl;
+	}
+
+	private void writeTrustStore(Certificate certificate) throws Exception {
+
+		KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+		keyStore.load(null, null);
+
+		if (certificate != null) {
+			keyStore.setCertificateEntry("vault", certificate);
+		}
+
+		try (OutputStream outputStream = new FileOutputStream(trustStore)) {
+			keyStore.store(outputStream, "changeit".toCharArray());
+		}
+	}
+
+	private static Certificate loadCertificate() throws Exception {
+
+		try (InputStream inputStream = new ClassPathResource("certificate.pem")
+				.getInputStream()) {
+			return CertificateFactory.getInstance("X.509").generateCertificate(
+					inputStream);
+		}
+	}
+}
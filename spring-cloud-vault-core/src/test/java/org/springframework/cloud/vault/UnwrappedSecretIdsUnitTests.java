@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit tests for {@link UnwrappedSecretIds}.
+ *
+ * @author Mark Paluch
+ */
+public class UnwrappedSecretIdsUnitTests {
+
+	private final static String WRAPPING_TOKEN = "unwrapped-secret-ids-token";
+
+	private VaultProperties properties = new VaultProperties();
+	private UnwrappedSecretIds unwrappedSecretIds = new UnwrappedSecretIds(properties);
+
+	@Before
+	public void before() {
+
+		properties.getAppRole().setSecretIdToken(WRAPPING_TOKEN);
+		UnwrappedSecretIds.putIfAbsent(WRAPPING_TOKEN, secretId());
+	}
+
+	@After
+	public void after() {
+		UnwrappedSecretIds.remove(WRAPPING_TOKEN);
+	}
+
+	@Test
+	public void shouldRetainFirstSecretId() {
+
+		FutureTask<String> secretId = secretId();
+
+		assertThat(UnwrappedSecretIds.putIfAbsent(WRAPPING_TOKEN, secretId)).isNotNull()
+				.isNotSameAs(secretId);
+	}
+
+	@Test
+	public void shouldRemoveSecretIdOnContextClose() {
+
+		GenericApplicationContext applicationContext = new GenericApplicationContext();
+		unwrappedSecretIds.initialize(applicationContext);
+		applicationContext.refresh();
+
+		assertThat(UnwrappedSecretIds.contains(WRAPPING_TOKEN)).isTrue();
+
+		applicationContext.close();
+
+		assertThat(UnwrappedSecretIds.contains(WRAPPING_TOKEN)).isFalse();
+	}
+
+	@Test
+	public void shouldRetainSecretIdOnRefreshContextClose() {
+
+		GenericApplicationContext applicationContext = new GenericApplicationContext();
+		applicationContext.getEnvironment().getPropertySources().addFirst(
+				new MapPropertySource(UnwrappedSecretIds.REFRESH_ARGS_PROPERTY_SOURCE,
+						Collections.<String, Object> singletonMap("spring.jmx.enabled",
+								false)));
+		unwrappedSecretIds.initialize(applicationContext);
+		applicationContext.refresh();
+		applicationContext.close();
+
+		assertThat(UnwrappedSecretIds.contains(WRAPPING_TOKEN)).isTrue();
+	}
+
+	@Test
+	public void shouldNotRetainWrappingToken() {
+
+		@SuppressWarnings("unchecked")
+		Map<String, Object> secretIds = (Map<String, Object>) ReflectionTestUtils
+				.getField(UnwrappedSecretIds.class, "SECRET_IDS");
+
+		assertThat(secretIds).doesNotContainKey(WRAPPING_TOKEN).containsKey(
+				Sha256.toSha256(WRAPPING_TOKEN));
+	}
+
+	@Test
+	public void refreshArgsPropertySourceShouldMatchContextRefresher() {
+
+		assertThat(
+				ReflectionTestUtils.getField(ContextRefresher.class,
+						"REFRESH_ARGS_PROPERTY_SOURCE")).isEqualTo(
+				UnwrappedSecretIds.REFRESH_ARGS_PROPERTY_SOURCE);
+	}
+
+	private static FutureTask<String> secretId() {
+
+		return new FutureTask<>(new Callable<String>() {
+
+			@Override
+			public String call() {
+				return "secret-id";
+			}
+		});
+	}
+}
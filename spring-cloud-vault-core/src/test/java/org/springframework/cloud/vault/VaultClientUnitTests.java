@@ -0,0 +1,271 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.cloud.vault.util.EmbeddedVaultServer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Unit tests for {@link VaultClient} using {@link EmbeddedVaultServer}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultClientUnitTests {
+
+	@Rule
+	public EmbeddedVaultServer server = new EmbeddedVaultServer();
+
+	private VaultProperties vaultProperties;
+	private VaultClient vaultClient = new VaultClient();
+	private VaultToken token;
+
+	@Before
+	public void before() {
+
+		vaultProperties = server.createVaultProperties();
+		token = VaultToken.of(server.getRootToken());
+	}
+
+	@Test
+	public void shouldReadSecret() {
+
+		server.putSecret("secret/application",
+				Collections.singletonMap("key", "value"));
+
+		VaultClientResponse response = vaultClient.read(
+				VaultClient.buildUri(vaultProperties, "secret/application"), token);
+
+		assertThat(response.isSuccessful()).isTrue();
+		assertThat(response.getBody().getData()).containsEntry("key", "value");
+	}
+
+	@Test
+	public void shouldListKeysWithPlainRestTemplate() {
+
+		server.putSecret("secret/myapp/name", Collections.singletonMap("key", "value"));
+		server.putSecret("secret/myapp/db/primary",
+				Collections.singletonMap("key", "value"));
+
+		VaultClient client = new VaultClient(new RestTemplate());
+
+		assertThat(
+				client.list(VaultClient.buildUri(vaultProperties,
+						"secret/myapp/?list=true"), token)).containsExactly("db/", "name");
+	}
+
+	@Test
+	public void listShouldThrowErrorStatus() {
+
+		try {
+			vaultClient.list(
+					VaultClient.buildUri(vaultProperties, "secret/absent/?list=true"),
+					token);
+			fail("Missing HttpClientErrorException");
+		}
+		catch (HttpClientErrorException e) {
+			assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		}
+	}
+
+	@Test
+	public void shouldReportErrorMessage() {
+
+		VaultClientResponse response = vaultClient.read(
+				VaultClient.buildUri(vaultProperties, "secret/application"),
+				VaultToken.of("unknown"));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+		assertThat(response.getMessage()).isEqualTo("permission denied");
+	}
+
+	@Test
+	public void shouldInjectErrors() {
+
+		server.setErrorRate(1);
+		server.setErrorStatus(503);
+
+		VaultClientResponse response = vaultClient.read(
+				VaultClient.buildUri(vaultProperties, "secret/application"), token);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(response.getMessage()).isEqualTo("injected error");
+	}
+
+	@Test
+	public void shouldRetryServerErrors() {
+
+		vaultProperties.getRetry().setEnabled(true);
+		vaultProperties.getRetry().setMaxAttempts(3);
+		vaultProperties.getRetry().setInitialBackoff(1);
+		vaultProperties.getRetry().setMaxBackoff(10);
+
+		VaultMetrics vaultMetrics = new VaultMetrics();
+		vaultClient.setRetryPolicy(new RetryPolicy(vaultProperties, vaultMetrics));
+
+		server.setErrorRate(1);
+		server.setErrorStatus(503);
+		long requestCount = server.getRequestCount();
+
+		VaultClientResponse response = vaultClient.read(
+				VaultClient.buildUri(vaultProperties, "secret/application"), token);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(server.getRequestCount() - requestCount).isEqualTo(3);
+		assertThat(vaultMetrics.getRetries()).isEqualTo(2);
+		assertThat(vaultMetrics.getExhaustedRetries()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotRetryWritesOnServerErrors() {
+
+		vaultProperties.getRetry().setEnabled(true);
+		vaultProperties.getRetry().setMaxAttempts(3);
+		vaultProperties.getRetry().setInitialBackoff(1);
+
+		VaultMetrics vaultMetrics = new VaultMetrics();
+		vaultClient.setRetryPolicy(new RetryPolicy(vaultProperties, vaultMetrics));
+
+		server.setErrorRate(1);
+		server.setErrorStatus(500);
+		long requestCount = server.getRequestCount();
+
+		VaultClientResponse response = vaultClient.write(
+				VaultClient.buildUri(vaultProperties, "secret/application"),
+				Collections.singletonMap("key", "value"), token);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+		assertThat(server.getRequestCount() - requestCount).isEqualTo(1);
+		assertThat(vaultMetrics.getRetries()).isZero();
+	}
+
+	@Test
+	public void shouldRetryWritesRejectedByVault() {
+
+		vaultProperties.getRetry().setEnabled(true);
+		vaultProperties.getRetry().setMaxAttempts(3);
+		vaultProperties.getRetry().setInitialBackoff(1);
+
+		VaultMetrics vaultMetrics = new VaultMetrics();
+		vaultClient.setRetryPolicy(new RetryPolicy(vaultProperties, vaultMetrics));
+
+		server.setErrorRate(1);
+		server.setErrorStatus(503);
+		long requestCount = server.getRequestCount();
+
+		VaultClientResponse response = vaultClient.write(
+				VaultClient.buildUri(vaultProperties, "auth/approle/login"),
+				Collections.singletonMap("role_id", "my-role"), token);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(server.getRequestCount() - requestCount).isEqualTo(3);
+		assertThat(vaultMetrics.getRetries()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldConsiderOnlyReadsAndRenewalsIdempotent() {
+
+		assertThat(RetryPolicy.isIdempotent(HttpMethod.GET,
+				VaultClient.buildUri(vaultProperties, "secret/application"))).isTrue();
+		assertThat(RetryPolicy.isIdempotent(HttpMethod.POST,
+				VaultClient.buildUri(vaultProperties, "sys/renew/mysql/creds/1234")))
+				.isTrue();
+		assertThat(RetryPolicy.isIdempotent(HttpMethod.POST,
+				VaultClient.buildUri(vaultProperties, "auth/token/renew-self")))
+				.isTrue();
+		assertThat(RetryPolicy.isIdempotent(HttpMethod.POST,
+				VaultClient.buildUri(vaultProperties, "auth/approle/login")))
+				.isFalse();
+		assertThat(RetryPolicy.isIdempotent(HttpMethod.POST,
+				VaultClient.buildUri(vaultProperties, "secret/application"))).isFalse();
+	}
+
+	@Test
+	public void shouldNotRetryClientErrors() {
+
+		vaultProperties.getRetry().setEnabled(true);
+
+		VaultMetrics vaultMetrics = new VaultMetrics();
+		vaultClient.setRetryPolicy(new RetryPolicy(vaultProperties, vaultMetrics));
+
+		long requestCount = server.getRequestCount();
+
+		VaultClientResponse response = vaultClient.read(
+				VaultClient.buildUri(vaultProperties, "secret/application"),
+				VaultToken.of("unknown"));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+		assertThat(server.getRequestCount() - requestCount).isEqualTo(1);
+		assertThat(vaultMetrics.getRetries()).isZero();
+	}
+
+	@Test
+	public void shouldReserveRateLimitedPermits() {
+
+		TokenBucket tokenBucket = new TokenBucket(10, 2);
+		long now = System.nanoTime();
+
+		assertThat(tokenBucket.reserve(now)).isZero();
+		assertThat(tokenBucket.reserve(now)).isZero();
+		assertThat(tokenBucket.reserve(now)).isBetween(99999000L, 100001000L);
+		assertThat(tokenBucket.reserve(now)).isBetween(199999000L, 200001000L);
+		assertThat(tokenBucket.reserve(now + 400000000L)).isZero();
+	}
+
+	@Test
+	public void shouldIssueAndRenewLeasedCredentials() {
+
+		server.setLeaseDuration(60);
+
+		VaultClientResponse credentials = vaultClient.read(
+				VaultClient.buildUri(vaultProperties, "mysql/creds/readonly"), token);
+
+		assertThat(credentials.getBody().getLeaseDuration()).isEqualTo(60);
+		assertThat(credentials.getBody().getData()).containsKeys("username",
+				"password");
+
+		VaultClientResponse renewal = vaultClient.write(
+				VaultClient.buildUri(vaultProperties, "sys/renew/"
+						+ credentials.getBody().getLeaseId()),
+				Collections.emptyMap(), token);
+
+		assertThat(renewal.isSuccessful()).isTrue();
+		assertThat(renewal.getBody().getLeaseId()).isEqualTo(
+				credentials.getBody().getLeaseId());
+	}
+
+	@Test
+	public void shouldGenerateResponsesOfConfiguredSize() {
+
+		server.setGeneratedProperties(100);
+		server.setValueSize(32);
+
+		VaultClientResponse response = vaultClient.read(
+				VaultClient.buildUri(vaultProperties, "secret/generated"), token);
+
+		assertThat(response.getBody().getData()).hasSize(100);
+		assertThat(response.getBody().getData().get("key0")).hasSize(32);
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link VaultEndpoint}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultEndpointUnitTests {
+
+	private VaultProperties properties = new VaultProperties();
+
+	@Test
+	public void shouldCreateUri() {
+
+		VaultEndpoint endpoint = VaultEndpoint.from(properties);
+		URI uri = endpoint.createUri("secret/application");
+
+		assertThat(uri).isEqualTo(
+				URI.create("https://localhost:8200/v1/secret/application"));
+		assertThat(endpoint.createUri("secret/application")).isSameAs(uri);
+	}
+
+	@Test
+	public void shouldNotShareEndpoints() {
+		assertThat(VaultEndpoint.from(properties)).isNotSameAs(
+				VaultEndpoint.from(properties));
+	}
+
+	@Test
+	public void shouldMatchSchemeHostAndPort() {
+
+		VaultEndpoint endpoint = VaultEndpoint.from(properties);
+
+		assertThat(endpoint.matches(new VaultProperties())).isTrue();
+
+		properties.setPort(8201);
+
+		assertThat(endpoint.matches(properties)).isFalse();
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.cloud.vault.VaultEndpoints.Node;
+import org.springframework.cloud.vault.VaultEndpoints.NodeState;
+import org.springframework.cloud.vault.util.EmbeddedVaultServer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Unit tests for {@link VaultEndpoints}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultEndpointsUnitTests {
+
+	@Rule
+	public EmbeddedVaultServer server = new EmbeddedVaultServer();
+
+	private VaultProperties properties = new VaultProperties();
+
+	@Before
+	public void before() {
+
+		properties.setScheme("https");
+		properties.setHost("vault-1");
+		properties.getCluster().getEndpoints().add("https://vault-2:8200");
+		properties.getCluster().getEndpoints().add("https://vault-3:8200");
+	}
+
+	@Test
+	public void shouldRouteReadsToFastestHealthyNode() {
+
+		VaultEndpoints endpoints = createEndpoints();
+		Node active = endpoints.getNodes().get(0);
+		Node standby = endpoints.getNodes().get(1);
+		Node performanceStandby = endpoints.getNodes().get(2);
+
+		active.update(200, 5000000);
+		standby.update(429, 1000000);
+		performanceStandby.update(473, 2000000);
+
+		URI uri = VaultClient.buildUri(properties, "secret/application?version=1");
+
+		assertThat(endpoints.route(uri, HttpMethod.GET)).isEqualTo(
+				URI.create("https://vault-3:8200/v1/secret/application?version=1"));
+		assertThat(endpoints.route(uri, HttpMethod.POST)).isEqualTo(uri);
+	}
+
+	@Test
+	public void shouldRouteWritesToActiveNode() {
+
+		VaultEndpoints endpoints = createEndpoints();
+
+		endpoints.getNodes().get(0).update(429, 1000000);
+		endpoints.getNodes().get(1).update(200, 5000000);
+		endpoints.getNodes().get(2).update(-1, 1000000);
+
+		URI uri = VaultClient.buildUri(properties, "auth/token/renew-self");
+
+		assertThat(endpoints.route(uri, HttpMethod.POST)).isEqualTo(
+				URI.create("https://vault-2:8200/v1/auth/token/renew-self"));
+		assertThat(endpoints.route(uri, HttpMethod.GET)).isEqualTo(
+				URI.create("https://vault-2:8200/v1/auth/token/renew-self"));
+	}
+
+	@Test
+	public void shouldNotRouteReadsToPerformanceStandbyIfDisabled() {
+
+		properties.getCluster().setStandbyReads(false);
+		VaultEndpoints endpoints = createEndpoints();
+
+		endpoints.getNodes().get(0).update(200, 5000000);
+		endpoints.getNodes().get(2).update(473, 1000000);
+
+		URI uri = VaultClient.buildUri(properties, "secret/application");
+
+		assertThat(endpoints.route(uri, HttpMethod.GET)).isEqualTo(uri);
+	}
+
+	@Test
+	public void shouldNotRouteOtherUris() {
+
+		VaultEndpoints endpoints = createEndpoints();
+		endpoints.getNodes().get(1).update(200, 1000000);
+
+		URI uri = URI.create("https://example.com:8200/v1/secret/application");
+
+		assertThat(endpoints.route(uri, HttpMethod.GET)).isEqualTo(uri);
+		assertThat(endpoints.failed(uri)).isFalse();
+	}
+
+	@Test
+	public void shouldFailOverToNextNode() {
+
+		VaultEndpoints endpoints = createEndpoints();
+		URI uri = VaultClient.buildUri(properties, "secret/application");
+
+		assertThat(endpoints.failed(uri)).isTrue();
+		assertThat(endpoints.getNodes().get(0).state).isEqualTo(NodeState.UNAVAILABLE);
+		assertThat(endpoints.route(uri, HttpMethod.GET)).isEqualTo(
+				URI.create("https://vault-2:8200/v1/secret/application"));
+	}
+
+	@Test
+	public void shouldProbeHealth() throws Exception {
+
+		VaultProperties serverProperties = server.createVaultProperties();
+		serverProperties.getCluster().getEndpoints()
+				.add("http://localhost:" + getUnusedPort());
+
+		VaultEndpoints endpoints = new VaultEndpoints(serverProperties,
+				new SimpleClientHttpRequestFactory());
+
+		for (Node node : endpoints.getNodes()) {
+			endpoints.probe(node);
+		}
+
+		assertThat(endpoints.getNodes().get(0).state).isEqualTo(NodeState.ACTIVE);
+		assertThat(endpoints.getNodes().get(1).state).isEqualTo(NodeState.UNAVAILABLE);
+	}
+
+	@Test
+	public void vaultClientShouldFailOverUnreachableNode() throws Exception {
+
+		VaultProperties serverProperties = server.createVaultProperties();
+		serverProperties.getCluster().setEndpoints(
+				Collections.singletonList("http://localhost:" + server.getPort()));
+		serverProperties.setPort(getUnusedPort());
+
+		server.putSecret("secret/application",
+				Collections.singletonMap("key", "value"));
+
+		VaultClient vaultClient = new VaultClient();
+		vaultClient.setEndpoints(new VaultEndpoints(serverProperties,
+				new SimpleClientHttpRequestFactory()));
+
+		VaultClientResponse response = vaultClient.read(
+				VaultClient.buildUri(serverProperties, "secret/application"),
+				VaultToken.of(server.getRootToken()));
+
+		assertThat(response.isSuccessful()).isTrue();
+		assertThat(response.getBody().getData()).containsEntry("key", "value");
+	}
+
+	@Test
+	public void shouldFailOverWritesOnlyOnConnectFailures() {
+
+		ResourceAccessException connectFailure = new ResourceAccessException(
+				"Connection refused", new ConnectException("Connection refused"));
+		ResourceAccessException readTimeout = new ResourceAccessException(
+				"Read timed out", new SocketTimeoutException("Read timed out"));
+
+		assertThat(VaultEndpoints.canFailOver(HttpMethod.GET, readTimeout)).isTrue();
+		assertThat(VaultEndpoints.canFailOver(HttpMethod.POST, connectFailure)).isTrue();
+		assertThat(VaultEndpoints.canFailOver(HttpMethod.POST, readTimeout)).isFalse();
+	}
+
+	private VaultEndpoints createEndpoints() {
+		return new VaultEndpoints(properties, new SimpleClientHttpRequestFactory());
+	}
+
+	private static int getUnusedPort() throws Exception {
+
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
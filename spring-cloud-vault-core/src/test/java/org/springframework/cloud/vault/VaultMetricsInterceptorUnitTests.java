@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.cloud.vault.VaultMetrics.ExchangeMetrics;
+import org.springframework.cloud.vault.VaultMetrics.Operation;
+import org.springframework.cloud.vault.util.EmbeddedVaultServer;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Unit tests for {@link VaultMetricsInterceptor}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultMetricsInterceptorUnitTests {
+
+	@Rule
+	public EmbeddedVaultServer server = new EmbeddedVaultServer();
+
+	private VaultMetrics metrics = new VaultMetrics();
+	private VaultProperties vaultProperties;
+	private VaultClient vaultClient;
+	private VaultToken token;
+
+	@Before
+	public void before() {
+
+		RestTemplate restTemplate = new RestTemplate();
+		restTemplate.getInterceptors().add(new VaultMetricsInterceptor(metrics));
+
+		vaultClient = new VaultClient(restTemplate);
+		vaultProperties = server.createVaultProperties();
+		token = VaultToken.of(server.getRootToken());
+	}
+
+	@Test
+	public void shouldDetermineOperation() {
+
+		assertThat(VaultMetricsInterceptor.getOperation(HttpMethod.GET, "secret/app"))
+				.isEqualTo(Operation.READ);
+		assertThat(
+				VaultMetricsInterceptor.getOperation(HttpMethod.POST,
+						"auth/app-id/login")).isEqualTo(Operation.LOGIN);
+		assertThat(VaultMetricsInterceptor.getOperation(HttpMethod.PUT, "sys/renew/foo"))
+				.isEqualTo(Operation.WRITE);
+	}
+
+	@Test
+	public void shouldDetermineMountWithoutSecretPath() {
+
+		assertThat(VaultMetricsInterceptor.getMount("secret/my-app/cloud")).isEqualTo(
+				"secret");
+		assertThat(VaultMetricsInterceptor.getMount("mysql/creds/readonly")).isEqualTo(
+				"mysql");
+		assertThat(VaultMetricsInterceptor.getMount("auth/aws-ec2/login")).isEqualTo(
+				"auth/aws-ec2");
+		assertThat(VaultMetricsInterceptor.getMount("sys/renew/mysql/creds/readonly/1"))
+				.isEqualTo("sys/renew");
+		assertThat(VaultMetricsInterceptor.getMount("sys/health")).isEqualTo(
+				"sys/health");
+	}
+
+	@Test
+	public void shouldRecordReads() {
+
+		server.putSecret("secret/application", Collections.singletonMap("key", "value"));
+
+		vaultClient.read(VaultClient.buildUri(vaultProperties, "secret/application"),
+				token);
+		vaultClient.read(VaultClient.buildUri(vaultProperties, "secret/absent"), token);
+
+		ExchangeMetrics exchangeMetrics = metrics.getExchangeMetrics(Operation.READ,
+				"secret");
+
+		assertThat(exchangeMetrics.getCount()).isEqualTo(2);
+		assertThat(exchangeMetrics.getStatusCount(2)).isEqualTo(1);
+		assertThat(exchangeMetrics.getStatusCount(4)).isEqualTo(1);
+		assertThat(exchangeMetrics.getResponseBytes()).isGreaterThan(0);
+		assertThat(exchangeMetrics.getTotalTime()).isGreaterThan(0);
+		assertThat(metrics.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldRecordLogins() {
+
+		vaultClient.write(VaultClient.buildUri(vaultProperties, "auth/app-id/login"),
+				Collections.singletonMap("app_id", "my-app"));
+
+		assertThat(metrics.getMetrics()).containsEntry(
+				"vault.client.login.auth.app-id.count", 1L).containsEntry(
+				"vault.client.login.auth.app-id.status.2xx", 1L);
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+/**
+ * Unit tests for {@link VaultResponseHttpMessageConverter} and
+ * {@link VaultErrorMessage}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultResponseHttpMessageConverterUnitTests {
+
+	private VaultResponseHttpMessageConverter converter = new VaultResponseHttpMessageConverter();
+
+	@Test
+	public void shouldReadSecret() throws Exception {
+
+		VaultResponse response = read("{\"lease_id\":\"secret/foo/1\",\"renewable\":true,"
+				+ "\"lease_duration\":3600,\"wrap_info\":{\"ttl\":0},"
+				+ "\"data\":{\"key\":\"value\",\"port\":8080,\"enabled\":true,\"empty\":null}}");
+
+		assertThat(response.getLeaseId()).isEqualTo("secret/foo/1");
+		assertThat(response.isRenewable()).isTrue();
+		assertThat(response.getLeaseDuration()).isEqualTo(3600);
+		assertThat(response.getData()).containsEntry("key", "value")
+				.containsEntry("port", "8080").containsEntry("enabled", "true")
+				.containsEntry("empty", null);
+		assertThat(response.getAuth()).isNull();
+	}
+
+	@Test
+	public void shouldReadAuth() throws Exception {
+
+		VaultResponse response = read("{\"auth\":{\"client_token\":\"token\","
+				+ "\"policies\":[\"root\"],\"lease_duration\":0,\"renewable\":false},"
+				+ "\"data\":null}");
+
+		assertThat(response.getAuth()).containsEntry("client_token", "token")
+				.containsKey("policies");
+		assertThat(response.getData()).isNull();
+	}
+
+	@Test(expected = HttpMessageNotReadableException.class)
+	public void shouldRejectMalformedJson() throws Exception {
+		read("{\"data\":[\"value\"]}");
+	}
+
+	@Test
+	public void shouldNotWrite() {
+
+		assertThat(converter.canRead(VaultResponse.class, MediaType.APPLICATION_JSON))
+				.isTrue();
+		assertThat(converter.canWrite(VaultResponse.class, MediaType.APPLICATION_JSON))
+				.isFalse();
+	}
+
+	@Test
+	public void shouldReadErrors() {
+
+		assertThat(
+				VaultErrorMessage
+						.getError("{\"data\":{\"errors\":\"nested\"},\"errors\":[\"permission denied\"]}"))
+				.isEqualTo("permission denied");
+		assertThat(
+				VaultErrorMessage
+						.getError("{\"errors\":[\"missing client token\",\"permission denied\"]}"))
+				.isEqualTo("[missing client token, permission denied]");
+		assertThat(VaultErrorMessage.getError("{\"errors\":")).isEqualTo(
+				"{\"errors\":");
+	}
+
+	private VaultResponse read(String json) throws Exception {
+
+		MockHttpInputMessage inputMessage = new MockHttpInputMessage(
+				json.getBytes(StandardCharsets.UTF_8));
+		inputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+		return converter.read(VaultResponse.class, inputMessage);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.cloud.vault.VaultStartupTimings.Timer;
+
+/**
+ * Unit tests for {@link VaultStartupTimings}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultStartupTimingsUnitTests {
+
+	private VaultStartupTimings startupTimings = new VaultStartupTimings();
+
+	@Test
+	public void shouldRecordPhases() throws Exception {
+
+		Timer timer = startupTimings.start("login");
+		Thread.sleep(20);
+		timer.stop();
+
+		assertThat(startupTimings.getPhases()).hasSize(1);
+		assertThat(startupTimings.getPhases().get(0).getName()).isEqualTo("login");
+		assertThat(startupTimings.getPhases().get(0).getDuration()).isGreaterThanOrEqualTo(
+				20);
+		assertThat(startupTimings.getReport()).contains("login");
+	}
+
+	@Test
+	public void shouldNotRecordPhasesAfterCompletion() {
+
+		Timer timer = startupTimings.start("login");
+		startupTimings.complete();
+		timer.stop();
+
+		assertThat(startupTimings.isCompleted()).isTrue();
+		assertThat(startupTimings.getPhases()).isEmpty();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldRenderMap() {
+
+		startupTimings.start("client-factory").stop();
+		startupTimings.complete();
+
+		Map<String, Object> map = startupTimings.toMap();
+
+		assertThat(map).containsEntry("completed", true).containsKey("total");
+		assertThat((Map<String, Object>) map.get("phases")).containsKey(
+				"client-factory");
+	}
+}
@@ -0,0 +1,783 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.vault.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLContext;
+
+import org.junit.rules.ExternalResource;
+import org.springframework.cloud.vault.VaultProperties;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+/**
+ * In-process stand-in for Vault based on the JDK HTTP server. The server keeps its state
+ * in memory and implements the subset of the Vault HTTP API used by Spring Cloud Vault:
+ * <ul>
+ * <li>Generic secret backends: reading, listing ({@code ?list=true}), writing and
+ * deleting secrets</li>
+ * <li>Dynamic credentials: {@code <mount>/creds/<role>} issuing leased credentials</li>
+ * <li>Authentication: {@code auth/<mount>/login}, {@code auth/token/create},
+ * {@code auth/token/create-orphan}, {@code auth/token/renew-self} and
+ * {@code auth/token/lookup-self}</li>
+ * <li>System: {@code sys/renew}, {@code sys/revoke}, {@code sys/init},
+ * {@code sys/unseal}, {@code sys/seal-status}, {@code sys/health}, {@code sys/mounts},
+ * {@code sys/auth} and {@code sys/wrapping/unwrap}</li>
+ * </ul>
+ * Latency, error injection and response sizes are configurable to run latency and
+ * throughput tests without a Vault installation. The server can be used as JUnit
+ * {@link org.junit.Rule}.
+ *
+ * @author Mark Paluch
+ */
+public class EmbeddedVaultServer extends ExternalResource {
+
+	private final static String API_PREFIX = "/v1/";
+
+	private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final String rootToken;
+
+	private final Map<String, Map<String, Object>> secrets = new ConcurrentHashMap<>();
+	private final Map<String, Long> leases = new ConcurrentHashMap<>();
+	private final Set<String> tokens = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private final Map<String, String> secretMounts = new ConcurrentHashMap<>();
+	private final Map<String, String> authMounts = new ConcurrentHashMap<>();
+	private final Map<String, Map<String, Object>> wrapped = new ConcurrentHashMap<>();
+	private final AtomicLong requestCount = new AtomicLong();
+	private final Random random = new Random();
+
+	private volatile boolean initialized = true;
+	private volatile boolean sealed = false;
+	private volatile long latency;
+	private volatile double errorRate;
+	private volatile int errorStatus = 500;
+	private volatile int generatedProperties;
+	private volatile int valueSize = 16;
+	private volatile long leaseDuration = 3600;
+	private volatile long tokenTtl = 3600;
+	private volatile Map<String, Object> lastLogin;
+
+	/**
+	 * Creates a new {@link EmbeddedVaultServer} serving plain HTTP on an ephemeral port.
+	 */
+	public EmbeddedVaultServer() {
+		this(null);
+	}
+
+	/**
+	 * Creates a new {@link EmbeddedVaultServer} on an ephemeral port serving HTTPS if
+	 * {@code sslContext} is set.
+	 *
+	 * @param sslContext may be {@literal null} to serve plain HTTP.
+	 */
+	public EmbeddedVaultServer(SSLContext sslContext) {
+
+		this.rootToken = Settings.token().getToken();
+		this.tokens.add(rootToken);
+		this.secretMounts.put("secret", "generic");
+		this.secretMounts.put("sys", "system");
+		this.authMounts.put("token", "token");
+
+		try {
+
+			InetSocketAddress address = new InetSocketAddress("localhost", 0);
+
+			if (sslContext != null) {
+				HttpsServer httpsServer = HttpsServer.create(address, 0);
+				httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+				this.server = httpsServer;
+			}
+			else {
+				this.server = HttpServer.create(address, 0);
+			}
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Cannot create embedded Vault server", e);
+		}
+
+		this.executor = Executors.newCachedThreadPool();
+		this.server.setExecutor(executor);
+		this.server.createContext(API_PREFIX, new HttpHandler() {
+
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				EmbeddedVaultServer.this.handle(exchange);
+			}
+		});
+	}
+
+	@Override
+	public void before() {
+		start();
+	}
+
+	@Override
+	public void after() {
+		stop();
+	}
+
+	/**
+	 * Start the server.
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stop the server.
+	 */
+	public void stop() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	/**
+	 * @return the port the server is bound to.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * @return the root token that is accepted by this server.
+	 */
+	public String getRootToken() {
+		return rootToken;
+	}
+
+	/**
+	 * @return the number of requests received by this server.
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Create {@link VaultProperties} pointing to this server and using the root token.
+	 *
+	 * @return the {@link VaultProperties}.
+	 */
+	public VaultProperties createVaultProperties() {
+
+		VaultProperties vaultProperties = new VaultProperties();
+		vaultProperties.setScheme(server instanceof HttpsServer ? "https" : "http");
+		vaultProperties.setHost("localhost");
+		vaultProperties.setPort(getPort());
+		vaultProperties.setToken(rootToken);
+
+		return vaultProperties;
+	}
+
+	/**
+	 * Store a secret at {@code path}.
+	 *
+	 * @param path path of the secret, e.g. {@code secret/application}.
+	 * @param data the secret data.
+	 */
+	public void putSecret(String path, Map<String, ?> data) {
+		secrets.put(path, new LinkedHashMap<String, Object>(data));
+	}
+
+	/**
+	 * Wrap {@code data} in a single-use response-wrapping token.
+	 *
+	 * @param data the data to wrap.
+	 * @return the wrapping token.
+	 */
+	public String wrap(Map<String, ?> data) {
+
+		String token = UUID.randomUUID().toString();
+		wrapped.put(token, new LinkedHashMap<String, Object>(data));
+		return token;
+	}
+
+	/**
+	 * @return the request body of the most recent login, may be {@literal null}.
+	 */
+	public Map<String, Object> getLastLogin() {
+		return lastLogin;
+	}
+
+	/**
+	 * Reset the server to an uninitialized and sealed state as a newly installed Vault.
+	 */
+	public void reset() {
+
+		secrets.clear();
+		leases.clear();
+		tokens.clear();
+		initialized = false;
+		sealed = true;
+	}
+
+	/**
+	 * @param latency artificial latency in milliseconds applied to each request.
+	 */
+	public void setLatency(long latency) {
+		this.latency = latency;
+	}
+
+	/**
+	 * @param errorRate fraction of requests (between {@code 0} and {@code 1}) failing
+	 * with {@link #setErrorStatus(int) the error status}.
+	 */
+	public void setErrorRate(double errorRate) {
+		this.errorRate = errorRate;
+	}
+
+	/**
+	 * @param errorStatus HTTP status of injected errors, defaults to {@code 500}.
+	 */
+	public void setErrorStatus(int errorStatus) {
+		this.errorStatus = errorStatus;
+	}
+
+	/**
+	 * @param generatedProperties number of properties generated for reads of secrets
+	 * that were not stored. Reading absent secrets responds with {@code 404} if zero.
+	 */
+	public void setGeneratedProperties(int generatedProperties) {
+		this.generatedProperties = generatedProperties;
+	}
+
+	/**
+	 * @param valueSize number of characters of each generated property value and
+	 * credential.
+	 */
+	public void setValueSize(int valueSize) {
+		this.valueSize = valueSize;
+	}
+
+	/**
+	 * @param leaseDuration lease duration in seconds of dynamic credentials.
+	 */
+	public void setLeaseDuration(long leaseDuration) {
+		this.leaseDuration = leaseDuration;
+	}
+
+	/**
+	 * @param tokenTtl TTL in seconds of tokens issued by this server.
+	 */
+	public void setTokenTtl(long tokenTtl) {
+		this.tokenTtl = tokenTtl;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+
+		requestCount.incrementAndGet();
+
+		try {
+
+			byte[] requestBody = readFully(exchange.getRequestBody());
+
+			if (latency > 0) {
+				Thread.sleep(latency);
+			}
+
+			Response response;
+			if (errorRate > 0 && nextDouble() < errorRate) {
+				response = Response.error(errorStatus, "injected error");
+			}
+			else {
+
+				String path = exchange.getRequestURI().getPath()
+						.substring(API_PREFIX.length());
+				if (path.endsWith("/")) {
+					path = path.substring(0, path.length() - 1);
+				}
+
+				String query = exchange.getRequestURI().getQuery();
+				Request request = new Request(exchange.getRequestMethod(), path,
+						query != null && query.contains("list=true"), exchange
+								.getRequestHeaders().getFirst("X-Vault-Token"),
+						parseBody(requestBody));
+
+				response = route(request);
+			}
+
+			respond(exchange, response);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (RuntimeException e) {
+			respond(exchange, Response.error(500, e.toString()));
+		}
+		finally {
+			exchange.close();
+		}
+	}
+
+	private Response route(Request request) {
+
+		if (request.path.startsWith("sys/")) {
+			return sys(request, request.path.substring("sys/".length()));
+		}
+
+		if (sealed) {
+			return Response.error(503, "Vault is sealed");
+		}
+
+		if (request.path.startsWith("auth/")) {
+			return auth(request, request.path.substring("auth/".length()));
+		}
+
+		if (!tokens.contains(request.token)) {
+			return Response.error(403, "permission denied");
+		}
+
+		if (request.path.contains("/creds/")) {
+			return "GET".equals(request.method) ? credentials(request.path) : Response
+					.error(405, "unsupported operation");
+		}
+
+		return generic(request);
+	}
+
+	private Response generic(Request request) {
+
+		if ("GET".equals(request.method) && request.list) {
+			return list(request.path + "/");
+		}
+
+		if ("GET".equals(request.method)) {
+
+			Map<String, Object> data = secrets.get(request.path);
+
+			if (data == null && generatedProperties > 0) {
+
+				data = new LinkedHashMap<>();
+				for (int i = 0; i < generatedProperties; i++) {
+					data.put("key" + i, randomString(valueSize));
+				}
+			}
+
+			if (data == null) {
+				return Response.error(404, null);
+			}
+
+			Map<String, Object> body = new LinkedHashMap<>();
+			body.put("lease_id", "");
+			body.put("lease_duration", 2764800);
+			body.put("renewable", false);
+			body.put("data", data);
+
+			return Response.of(200, body);
+		}
+
+		if ("POST".equals(request.method) || "PUT".equals(request.method)) {
+			secrets.put(request.path, request.body);
+			return Response.noContent();
+		}
+
+		if ("DELETE".equals(request.method)) {
+			secrets.remove(request.path);
+			return Response.noContent();
+		}
+
+		return Response.error(405, "unsupported operation");
+	}
+
+	private Response list(String prefix) {
+
+		Set<String> keys = new TreeSet<>();
+
+		for (String path : secrets.keySet()) {
+
+			if (!path.startsWith(prefix)) {
+				continue;
+			}
+
+			String key = path.substring(prefix.length());
+			int separator = key.indexOf('/');
+			keys.add(separator != -1 ? key.substring(0, separator + 1) : key);
+		}
+
+		if (keys.isEmpty()) {
+			return Response.error(404, null);
+		}
+
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("lease_id", "");
+		body.put("lease_duration", 0);
+		body.put("renewable", false);
+		body.put("data", Collections.singletonMap("keys", new ArrayList<>(keys)));
+
+		return Response.of(200, body);
+	}
+
+	private Response credentials(String path) {
+
+		String leaseId = String.format("%s/%s", path, UUID.randomUUID());
+		leases.put(leaseId, leaseDuration);
+
+		Map<String, Object> data = new LinkedHashMap<>();
+
+		if (path.startsWith("aws/")) {
+			data.put("access_key", randomString(20));
+			data.put("secret_key", randomString(Math.max(valueSize, 40)));
+		}
+		else if (path.startsWith("consul/")) {
+			data.put("token", UUID.randomUUID().toString());
+		}
+		else {
+			data.put("username", "v-" + randomString(valueSize));
+			data.put("password", randomString(valueSize));
+		}
+
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("lease_id", leaseId);
+		body.put("lease_duration", leaseDuration);
+		body.put("renewable", true);
+		body.put("data", data);
+
+		return Response.of(200, body);
+	}
+
+	private Response auth(Request request, String path) {
+
+		if (path.endsWith("/login") && "POST".equals(request.method)) {
+			lastLogin = request.body;
+			return authResponse(issueToken(null));
+		}
+
+		if (!tokens.contains(request.token)) {
+			return Response.error(403, "permission denied");
+		}
+
+		if ((path.equals("token/create") || path.equals("token/create-orphan"))
+				&& "POST".equals(request.method)) {
+			return authResponse(issueToken((String) request.body.get("id")));
+		}
+
+		if (path.equals("token/renew-self") && "POST".equals(request.method)) {
+			return authResponse(request.token);
+		}
+
+		if (path.equals("token/lookup-self") && "GET".equals(request.method)) {
+
+			Map<String, Object> data = new LinkedHashMap<>();
+			data.put("id", request.token);
+			data.put("ttl", request.token.equals(rootToken) ? 0 : tokenTtl);
+
+			return Response.of(200, Collections.singletonMap("data", data));
+		}
+
+		return Response.error(404, null);
+	}
+
+	private Response sys(Request request, String path) {
+
+		if (path.equals("init")) {
+
+			if ("GET".equals(request.method)) {
+				return Response.of(200, Collections.singletonMap("initialized",
+						initialized));
+			}
+
+			if (initialized) {
+				return Response.error(400, "Vault is already initialized");
+			}
+
+			Object shares = request.body.get("secret_shares");
+			int keyCount = shares instanceof Number ? ((Number) shares).intValue() : 1;
+
+			List<String> keys = new ArrayList<>();
+			for (int i = 0; i < keyCount; i++) {
+				keys.add(randomString(64));
+			}
+
+			initialized = true;
+			sealed = true;
+			tokens.add(rootToken);
+
+			Map<String, Object> body = new LinkedHashMap<>();
+			body.put("keys", keys);
+			body.put("root_token", rootToken);
+
+			return Response.of(200, body);
+		}
+
+		if (path.equals("unseal") && "PUT".equals(request.method)) {
+			sealed = false;
+			return Response.of(200, sealStatus());
+		}
+
+		if (path.equals("seal-status")) {
+			return Response.of(200, sealStatus());
+		}
+
+		if (path.equals("health")) {
+
+			Map<String, Object> body = new LinkedHashMap<>();
+			body.put("initialized", initialized);
+			body.put("sealed", sealed);
+			body.put("standby", false);
+
+			return Response.of(!initialized ? 501 : sealed ? 503 : 200, body);
+		}
+
+		if (sealed) {
+			return Response.error(503, "Vault is sealed");
+		}
+
+		if (path.equals("wrapping/unwrap") && "POST".equals(request.method)) {
+
+			Map<String, Object> data = request.token != null ? wrapped
+					.remove(request.token) : null;
+
+			if (data == null) {
+				return Response.error(400,
+						"wrapping token is not valid or does not exist");
+			}
+
+			return Response.of(200, Collections.singletonMap("data", data));
+		}
+
+		if (!tokens.contains(request.token)) {
+			return Response.error(403, "permission denied");
+		}
+
+		if (path.startsWith("renew")) {
+			return renew(leaseId(request, path, "renew"));
+		}
+
+		if (path.startsWith("revoke")) {
+			leases.remove(leaseId(request, path, "revoke"));
+			return Response.noContent();
+		}
+
+		if (path.equals("mounts") || path.equals("auth")) {
+			return Response.of(200, describeMounts(path.equals("mounts") ? secretMounts
+					: authMounts));
+		}
+
+		if (path.startsWith("mounts/") && "POST".equals(request.method)) {
+			secretMounts.put(path.substring("mounts/".length()),
+					String.valueOf(request.body.get("type")));
+			return Response.noContent();
+		}
+
+		if (path.startsWith("auth/") && "POST".equals(request.method)) {
+			authMounts.put(path.substring("auth/".length()),
+					String.valueOf(request.body.get("type")));
+			return Response.noContent();
+		}
+
+		return Response.error(404, null);
+	}
+
+	private Response renew(String leaseId) {
+
+		Long duration = leaseId != null ? leases.get(leaseId) : null;
+
+		if (duration == null) {
+			return Response.error(400, "lease not found or lease is not renewable");
+		}
+
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("lease_id", leaseId);
+		body.put("lease_duration", duration);
+		body.put("renewable", true);
+
+		return Response.of(200, body);
+	}
+
+	private String leaseId(Request request, String path, String operation) {
+
+		if (path.length() > operation.length() + 1) {
+			return path.substring(operation.length() + 1);
+		}
+
+		Object leaseId = request.body.get("lease_id");
+		return leaseId != null ? leaseId.toString() : null;
+	}
+
+	private Response authResponse(String token) {
+
+		Map<String, Object> auth = new LinkedHashMap<>();
+		auth.put("client_token", token);
+		auth.put("accessor", UUID.randomUUID().toString());
+		auth.put("policies", Collections.singletonList("root"));
+		auth.put("lease_duration", token.equals(rootToken) ? 0 : tokenTtl);
+		auth.put("renewable", !token.equals(rootToken));
+
+		return Response.of(200, Collections.singletonMap("auth", auth));
+	}
+
+	private String issueToken(String id) {
+
+		String token = StringUtils.hasText(id) ? id : UUID.randomUUID().toString();
+		tokens.add(token);
+		return token;
+	}
+
+	private Map<String, Object> sealStatus() {
+
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("sealed", sealed);
+		body.put("t", 1);
+		body.put("n", 1);
+		body.put("progress", 0);
+
+		return body;
+	}
+
+	private static Map<String, Object> describeMounts(Map<String, String> mounts) {
+
+		Map<String, Object> body = new LinkedHashMap<>();
+		for (Map.Entry<String, String> entry : mounts.entrySet()) {
+			body.put(entry.getKey() + "/",
+					Collections.singletonMap("type", entry.getValue()));
+		}
+
+		return body;
+	}
+
+	private double nextDouble() {
+
+		synchronized (random) {
+			return random.nextDouble();
+		}
+	}
+
+	private String randomString(int length) {
+
+		char[] chars = new char[length];
+
+		synchronized (random) {
+			for (int i = 0; i < length; i++) {
+				chars[i] = (char) ('a' + random.nextInt(26));
+			}
+		}
+
+		return new String(chars);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> parseBody(byte[] body) throws IOException {
+
+		if (body.length == 0) {
+			return Collections.emptyMap();
+		}
+
+		return OBJECT_MAPPER.readValue(body, Map.class);
+	}
+
+	private static void respond(HttpExchange exchange, Response response)
+			throws IOException {
+
+		if (response.body == null) {
+			exchange.sendResponseHeaders(response.status, -1);
+			return;
+		}
+
+		byte[] bytes = OBJECT_MAPPER.writeValueAsBytes(response.body);
+
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(response.status, bytes.length);
+
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(bytes);
+		}
+	}
+
+	private static byte[] readFully(InputStream inputStream) throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int read;
+
+		while ((read = inputStream.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+
+		inputStream.close();
+		return out.toByteArray();
+	}
+
+	static class Request {
+
+		final String method;
+		final String path;
+		final boolean list;
+		final String token;
+		final Map<String, Object> body;
+
+		Request(String method, String path, boolean list, String token,
+				Map<String, Object> body) {
+
+			this.method = method;
+			this.path = path;
+			this.list = list;
+			this.token = token;
+			this.body = body;
+		}
+	}
+
+	static class Response {
+
+		final int status;
+		final Object body;
+
+		private Response(int status, Object body) {
+			this.status = status;
+			this.body = body;
+		}
+
+		static Response of(int status, Object body) {
+			return new Response(status, body);
+		}
+
+		static Response noContent() {
+			return new Response(204, null);
+		}
+
+		static Response error(int status, String error) {
+			return new Response(status, Collections.singletonMap("errors",
+					error != null ? Collections.singletonList(error) : Collections
+							.emptyList()));
+		}
+	}
+}